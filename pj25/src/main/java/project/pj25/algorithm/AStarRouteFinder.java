@@ -0,0 +1,120 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+/**
+ * Ciljno usmjerena (A*) varijanta klase {@link RouteFinder}.
+ * <p>
+ * Svaki grad ima koordinate (x, y) u mreži, a svaka međugradska vožnja prelazi
+ * određenu Manhattan udaljenost uz najmanje neko vrijeme i neku cijenu. Iz toga
+ * slijedi dopustiva donja granica preostalog puta: Manhattan udaljenost do
+ * odredišnog grada pomnožena najmanjim vremenom, odnosno najmanjom cijenom po
+ * jedinici udaljenosti, kao i najmanji broj preostalih vožnji. Granice se računaju
+ * iz same mape (za generisane podatke to su 30 minuta i 100 KM po koraku), pa važe
+ * i za mape učitane iz JSON fajla.
+ * </p>
+ * <p>
+ * Granice određuju redoslijed obrade stanja u prioritetnom redu, pa se rute do
+ * odredišta pronalaze ranije, a pretraga se zaustavlja čim ih pronađe N. Upit
+ * između dva bliska grada zato ne istražuje cijelu mapu.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RouteFinder
+ * @see NodeState
+ */
+public class AStarRouteFinder extends RouteFinder {
+
+    /**
+     * Najmanje trajanje vožnje (u minutama) po jedinici Manhattan udaljenosti.
+     */
+    private final double minutesPerCityStep;
+
+    /**
+     * Najmanja cijena vožnje (u feninzima) po jedinici Manhattan udaljenosti.
+     */
+    private final double centsPerCityStep;
+
+    /**
+     * Najveća Manhattan udaljenost koju jedna vožnja prelazi.
+     */
+    private final int maxCityStep;
+
+    /**
+     * Konstruktor koji iz svih polazaka mape računa koeficijente donjih granica.
+     *
+     * @param transportMap Transportna mapa koja se koristi za pretragu.
+     */
+    public AStarRouteFinder(TransportMap transportMap) {
+        this(new CompiledTimetable(transportMap));
+    }
+
+    /**
+     * Konstruktor koji koeficijente donjih granica računa iz već kompajliranog voznog reda.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     */
+    public AStarRouteFinder(CompiledTimetable timetable) {
+        super(timetable);
+
+        double minMinutes = Double.MAX_VALUE;
+        double minCents = Double.MAX_VALUE;
+        int maxStep = 0;
+        for (int d = 0; d < timetable.departureCount(); d++) {
+            int distance = cityDistance(timetable.getStation(timetable.departureFrom(d)).getCity(),
+                    timetable.getStation(timetable.departureTo(d)).getCity());
+            if (distance == 0) continue;
+
+            minMinutes = Math.min(minMinutes, (double) timetable.rideMinutes(d) / distance);
+            minCents = Math.min(minCents, (double) timetable.priceCents(d) / distance);
+            maxStep = Math.max(maxStep, distance);
+        }
+
+        this.minutesPerCityStep = maxStep > 0 ? minMinutes : 0.0;
+        this.centsPerCityStep = maxStep > 0 ? minCents : 0.0;
+        this.maxCityStep = maxStep;
+    }
+
+    /**
+     * Kreira stanje čvora sa donjim granicama preostalog vremena, cijene i broja presjedanja.
+     * <p>
+     * Sve tri granice su konzistentne: vožnja koja smanji udaljenost do odredišta za d
+     * košta najmanje d puta odgovarajući koeficijent, a vožnja unutar grada ne mijenja
+     * udaljenost. Za praznu putanju prva vožnja ne dodaje presjedanje, pa je i granica
+     * presjedanja za jedan manja.
+     * </p>
+     *
+     * @param previous Prethodno stanje, ili {@code null} za početno stanje.
+     * @param station Interni ID stanice stanja.
+     * @param departure Indeks polaska iz prethodnog stanja do stanice, ili -1 za početno stanje.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije.
+     * @return Novo {@link NodeState} sa donjim granicama.
+     */
+    @Override
+    protected NodeState createNodeState(NodeState previous, int station, int departure,
+                                        City endCity, OptimizationCriterion optimizationCriterion) {
+        CompiledTimetable timetable = getTimetable();
+        int distance = cityDistance(timetable.getStation(station).getCity(), endCity);
+        long remainingMinutes = (long) Math.floor(distance * minutesPerCityStep);
+        long remainingCents = (long) Math.floor(distance * centsPerCityStep);
+
+        int remainingRides = maxCityStep > 0 ? (distance + maxCityStep - 1) / maxCityStep : 0;
+        int remainingTransfers = departure < 0 ? Math.max(0, remainingRides - 1) : remainingRides;
+
+        return new NodeState(timetable, previous, station, departure, optimizationCriterion,
+                remainingMinutes, remainingCents, remainingTransfers);
+    }
+
+    /**
+     * Računa Manhattan udaljenost između dva grada u mreži.
+     *
+     * @param from Prvi grad.
+     * @param to Drugi grad.
+     * @return Zbir apsolutnih razlika koordinata.
+     */
+    private static int cityDistance(City from, City to) {
+        return Math.abs(from.getX() - to.getX()) + Math.abs(from.getY() - to.getY());
+    }
+}
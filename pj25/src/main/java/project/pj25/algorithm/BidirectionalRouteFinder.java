@@ -0,0 +1,351 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Klasa za dvosmjernu pretragu ruta između početnog i krajnjeg grada.
+ * <p>
+ * Pretraga unaprijed kreće sa stanica početnog grada i prati polaske, dok pretraga
+ * unazad kreće sa stanica odredišnog grada i prati obrnute polaske. Oznaka unaprijed
+ * pamti trajanje do stanice i vrijeme dolaska, a oznaka unazad preostalo trajanje
+ * do odredišta i vrijeme u kojem treba krenuti sa stanice. Kada se oznake iz dva
+ * smjera sretnu na istoj stanici, spajaju se u kandidatsku rutu, pri čemu se
+ * čekanje između dolaska i polaska računa po dnevnom voznom redu.
+ * </p>
+ * <p>
+ * Svaka ruta koja još nije pronađena ima ključ (leksikografski po kriterijumu) najmanje
+ * jednak zbiru najmanjih ključeva u dva prioritetna reda, jer se ruta uvijek može
+ * podijeliti na prefiks koji nije obrađen unaprijed i sufiks koji nije obrađen unazad.
+ * Čim je taj zbir veći od N-te najbolje kandidatske rute, pretraga se zaustavlja. Za udaljene gradove dva manja "kruga"
+ * oko početka i kraja obrađuju mnogo manje oznaka od jednog velikog.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RoutingEngine
+ * @see RouteFinder
+ */
+public class BidirectionalRouteFinder implements RoutingEngine {
+
+    /**
+     * Broj minuta u jednom danu.
+     */
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Oznaka za praznu putanju, čija se prva (ili posljednja) vožnja može uhvatiti u bilo kojem trenutku.
+     */
+    private static final int ANY_TIME = -1;
+
+    /**
+     * Oznaka za nepostojeći polazak prazne putanje.
+     */
+    private static final int NO_DEPARTURE = -1;
+
+    /**
+     * Kompajlirani vozni red sa odlaznim i dolaznim polascima svake stanice.
+     */
+    private final CompiledTimetable timetable;
+
+    /**
+     * Konstruktor koji kompajlira vozni red, zajedno sa obrnutim grafom polazaka.
+     *
+     * @param transportMap Transportna mapa koja se koristi za pretragu.
+     */
+    public BidirectionalRouteFinder(TransportMap transportMap) {
+        this(new CompiledTimetable(transportMap));
+    }
+
+    /**
+     * Konstruktor koji koristi već kompajlirani vozni red.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     */
+    public BidirectionalRouteFinder(CompiledTimetable timetable) {
+        this.timetable = timetable;
+    }
+
+    /**
+     * Pronalazi do N optimalnih ruta dvosmjernom pretragom.
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @return Lista pronađenih {@link Path} objekata, sortirana po kriterijumu.
+     * @throws IllegalArgumentException ako je kriterijum nepoznat.
+     */
+    @Override
+    public List<Path> findTopNRoutes(City startCity, City endCity, String optimizationCriterion, int limit) {
+        OptimizationCriterion criterion = OptimizationCriterion.fromName(optimizationCriterion);
+        Comparator<Label> labelOrder = Comparator.comparingLong(label -> label.keyFor(criterion));
+        Comparator<Candidate> candidateOrder = Comparator.comparingLong(candidate -> candidate.keyFor(criterion));
+
+        Direction forward = new Direction(true, criterion, limit, labelOrder);
+        Direction backward = new Direction(false, criterion, limit, labelOrder);
+        for (int station : timetable.stationsInCity(startCity)) {
+            forward.queue.add(new Label(station, null, NO_DEPARTURE, ANY_TIME, 0, 0, 0));
+        }
+        for (int station : timetable.stationsInCity(endCity)) {
+            backward.queue.add(new Label(station, null, NO_DEPARTURE, ANY_TIME, 0, 0, 0));
+        }
+
+        Set<List<Integer>> seenRoutes = new HashSet<>();
+        List<Candidate> topCandidates = new ArrayList<>();
+
+        while (!forward.queue.isEmpty() && !backward.queue.isEmpty()) {
+            if (topCandidates.size() >= limit) {
+                Label forwardTop = forward.queue.peek();
+                Label backwardTop = backward.queue.peek();
+                Candidate bound = new Candidate(forwardTop, backwardTop, forwardTop.duration + backwardTop.duration,
+                        forwardTop.cents + backwardTop.cents, forwardTop.rides + backwardTop.rides);
+                if (candidateOrder.compare(bound, topCandidates.get(limit - 1)) > 0) {
+                    break;
+                }
+            }
+
+            Direction active = forward.queue.size() <= backward.queue.size() ? forward : backward;
+            Direction opposite = active == forward ? backward : forward;
+
+            Label current = active.queue.poll();
+            if (active.isDominated(current)) continue;
+            active.settle(current);
+            meet(current, active, opposite, seenRoutes, topCandidates, candidateOrder, limit);
+
+            int first = active.isForward ? timetable.firstDeparture(current.station) : timetable.firstIncoming(current.station);
+            int end = active.isForward ? timetable.endDeparture(current.station) : timetable.endIncoming(current.station);
+            for (int i = first; i < end; i++) {
+                int departure = active.isForward ? i : timetable.incomingDeparture(i);
+                Label next = active.extend(current, departure);
+                if (active.isDominated(next)) continue;
+                meet(next, active, opposite, seenRoutes, topCandidates, candidateOrder, limit);
+                active.queue.add(next);
+            }
+        }
+
+        // Kandidati su već sortirani po tačnom ključu (cijela vrijednost minuta i feninga)
+        return topCandidates.stream()
+                .map(Candidate::toPath)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Spaja oznaku sa svim obrađenim oznakama suprotnog smjera na istoj stanici
+     * i ažurira listu najboljih kandidata.
+     *
+     * @param label Nova ili upravo obrađena oznaka.
+     * @param own Smjer kojem oznaka pripada.
+     * @param opposite Suprotni smjer.
+     * @param seenRoutes Već viđene rute (niz polazaka), radi izbjegavanja duplikata.
+     * @param topCandidates Sortirana lista najboljih kandidata (najviše {@code limit}).
+     * @param candidateOrder Poredak kandidata po kriterijumu.
+     * @param limit Maksimalan broj ruta.
+     */
+    private void meet(Label label, Direction own, Direction opposite, Set<List<Integer>> seenRoutes,
+                      List<Candidate> topCandidates, Comparator<Candidate> candidateOrder, int limit) {
+        List<Label> oppositeBag = opposite.bags.get(label.station);
+        if (oppositeBag == null) return;
+
+        for (Label other : oppositeBag) {
+            Label forwardLabel = own.isForward ? label : other;
+            Label backwardLabel = own.isForward ? other : label;
+            if (forwardLabel.departure == NO_DEPARTURE && backwardLabel.departure == NO_DEPARTURE) continue;
+
+            int waitingMinutes = 0;
+            if (forwardLabel.minute != ANY_TIME && backwardLabel.minute != ANY_TIME) {
+                waitingMinutes = Math.floorMod(backwardLabel.minute - forwardLabel.minute, MINUTES_PER_DAY);
+            }
+            Candidate candidate = new Candidate(forwardLabel, backwardLabel,
+                    forwardLabel.duration + waitingMinutes + backwardLabel.duration,
+                    forwardLabel.cents + backwardLabel.cents,
+                    forwardLabel.rides + backwardLabel.rides);
+
+            if (topCandidates.size() >= limit && candidateOrder.compare(candidate, topCandidates.get(limit - 1)) >= 0) {
+                continue;
+            }
+            if (!seenRoutes.add(candidate.departures())) continue;
+
+            int position = 0;
+            while (position < topCandidates.size() && candidateOrder.compare(topCandidates.get(position), candidate) <= 0) {
+                position++;
+            }
+            topCandidates.add(position, candidate);
+            if (topCandidates.size() > limit) {
+                topCandidates.remove(topCandidates.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * Stanje pretrage u jednom smjeru: prioritetni red i obrađene oznake po stanicama.
+     */
+    private final class Direction {
+        final boolean isForward;
+        final OptimizationCriterion criterion;
+        final int limit;
+        final PriorityQueue<Label> queue;
+        final List<List<Label>> bags;
+
+        Direction(boolean isForward, OptimizationCriterion criterion, int limit, Comparator<Label> labelOrder) {
+            this.isForward = isForward;
+            this.criterion = criterion;
+            this.limit = limit;
+            this.queue = new PriorityQueue<>(labelOrder);
+            this.bags = new ArrayList<>(Collections.nCopies(timetable.stationCount(), null));
+        }
+
+        void settle(Label label) {
+            List<Label> bag = bags.get(label.station);
+            if (bag == null) {
+                bag = new ArrayList<>();
+                bags.set(label.station, bag);
+            }
+            bag.add(label);
+        }
+
+        /**
+         * Oznaka se odbacuje ako je na stanici već obrađeno bar {@code limit} oznaka koje
+         * njome dominiraju.
+         */
+        boolean isDominated(Label label) {
+            List<Label> bag = bags.get(label.station);
+            if (bag == null || bag.size() < limit) return false;
+
+            int dominating = 0;
+            for (Label other : bag) {
+                if (dominates(other, label) && ++dominating >= limit) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Leksikografska dominacija kao u {@link RouteFinder}: oznaka {@code a} čeka do
+         * vremena oznake {@code b} (po dnevnom redu), pa ako je tada strogo bolja po
+         * primarnom kriterijumu dominira, a ako je jednaka, ne smije biti lošija ni po
+         * jednom od ostalih. Prazna putanja dominira svakom drugom.
+         */
+        boolean dominates(Label a, Label b) {
+            if (a.minute == ANY_TIME) return true;
+            if (b.minute == ANY_TIME) return false;
+
+            int waitingMinutes = isForward
+                    ? Math.floorMod(b.minute - a.minute, MINUTES_PER_DAY)
+                    : Math.floorMod(a.minute - b.minute, MINUTES_PER_DAY);
+            int timeA = a.duration + waitingMinutes;
+            int timeB = b.duration;
+
+            switch (criterion) {
+                case TIME:
+                    if (timeA != timeB) return timeA < timeB;
+                    return a.cents <= b.cents && a.rides <= b.rides;
+                case PRICE:
+                    if (a.cents != b.cents) return a.cents < b.cents;
+                    return timeA <= timeB && a.rides <= b.rides;
+                default:
+                    if (a.rides != b.rides) return a.rides < b.rides;
+                    return timeA <= timeB && a.cents <= b.cents;
+            }
+        }
+
+        /**
+         * Produžava oznaku jednim polaskom: unaprijed sa stanice oznake, odnosno unazad do nje.
+         */
+        Label extend(Label label, int departure) {
+            int ride = timetable.rideMinutes(departure);
+            int cents = label.cents + timetable.priceCents(departure);
+            if (isForward) {
+                int waitingMinutes = label.minute == ANY_TIME
+                        ? 0
+                        : Math.floorMod(timetable.departureMinute(departure) - label.minute, MINUTES_PER_DAY);
+                return new Label(timetable.departureTo(departure), label, departure, timetable.arrivalMinute(departure),
+                        label.duration + waitingMinutes + ride, cents, label.rides + 1);
+            }
+
+            int waitingMinutes = label.minute == ANY_TIME
+                    ? 0
+                    : Math.floorMod(label.minute - timetable.arrivalMinute(departure), MINUTES_PER_DAY);
+            return new Label(timetable.departureFrom(departure), label, departure, timetable.departureMinute(departure),
+                    ride + waitingMinutes + label.duration, cents, label.rides + 1);
+        }
+    }
+
+    /**
+     * Oznaka u jednom smjeru pretrage. Za smjer unaprijed {@code minute} je vrijeme
+     * dolaska na stanicu, a {@code previous} prethodna oznaka prema početku; za smjer
+     * unazad {@code minute} je vrijeme polaska sa stanice, a {@code previous} naredna
+     * oznaka prema odredištu.
+     */
+    private static final class Label {
+        final int station;
+        final Label previous;
+        final int departure;
+        final int minute;
+        final int duration;
+        final int cents;
+        final int rides;
+
+        Label(int station, Label previous, int departure, int minute, int duration, int cents, int rides) {
+            this.station = station;
+            this.previous = previous;
+            this.departure = departure;
+            this.minute = minute;
+            this.duration = duration;
+            this.cents = cents;
+            this.rides = rides;
+        }
+
+        long keyFor(OptimizationCriterion criterion) {
+            return criterion.packKey(duration, cents, rides);
+        }
+    }
+
+    /**
+     * Kandidatska ruta nastala spajanjem oznake unaprijed i oznake unazad.
+     */
+    private final class Candidate {
+        final Label forwardLabel;
+        final Label backwardLabel;
+        final int duration;
+        final int cents;
+        final int rides;
+
+        Candidate(Label forwardLabel, Label backwardLabel, int duration, int cents, int rides) {
+            this.forwardLabel = forwardLabel;
+            this.backwardLabel = backwardLabel;
+            this.duration = duration;
+            this.cents = cents;
+            this.rides = rides;
+        }
+
+        long keyFor(OptimizationCriterion criterion) {
+            return criterion.packKey(duration, cents, rides);
+        }
+
+        List<Integer> departures() {
+            List<Integer> departures = new ArrayList<>();
+            for (Label label = forwardLabel; label.departure != NO_DEPARTURE; label = label.previous) {
+                departures.add(label.departure);
+            }
+            Collections.reverse(departures);
+            for (Label label = backwardLabel; label.departure != NO_DEPARTURE; label = label.previous) {
+                departures.add(label.departure);
+            }
+            return departures;
+        }
+
+        Path toPath() {
+            return timetable.toPath(departures().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package project.pj25.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Izbor najboljeg putovanja među putovanjima koja stižu do zadate minute.
+ * <p>
+ * Algoritmi najranijeg dolaska ({@link ConnectionScanRouteFinder},
+ * {@link ClusteredRouteFinder}, {@link RaptorRouteFinder}) nalaze najbolju primarnu
+ * vrijednost, ali ne i najjeftinije putovanje među onima sa istim dolaskom. Ova klasa
+ * za zadatu minutu polaska i najkasniji dolazak skenira polaske unazad, od
+ * najkasnijeg dolaska ka polasku, kao profilni CSA: za svaku stanicu čuva listu
+ * (minuta polaska, najmanja preostala vrijednost) u kojoj raniji polazak ima strogo
+ * manju vrijednost. Preostala vrijednost je zbir ključeva
+ * {@link OptimizationCriterion#packKey(long, long, long)} bez vremena, pa se
+ * putovanja porede po cijeni i broju vožnji redom kriterijuma.
+ * </p>
+ * <p>
+ * Polazak se može uhvatiti u bilo kojem danu nakon dolaska na stanicu. Pošto
+ * pozivalac zadaje najraniji mogući dolazak, putovanje koje čeka duže od dana ima
+ * isti ključ kao putovanje sa istim polascima bez tog čekanja, pa je rezultat isti
+ * kao po pravilima {@link RouteFinder}. Objekat se ne mijenja nakon kreiranja i
+ * može se dijeliti između niti.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see OptimizationCriterion
+ */
+final class BoundedArrivalScan {
+
+    /**
+     * Broj minuta u jednom danu.
+     */
+    private static final int MINUTES_PER_DAY = CompiledTimetable.MINUTES_PER_DAY;
+
+    /**
+     * Kompajlirani vozni red.
+     */
+    private final CompiledTimetable timetable;
+
+    /**
+     * Indeksi polazaka sortirani po minuti polaska.
+     */
+    private final int[] departures;
+
+    /**
+     * Konstruktor koji sortira polaske voznog reda po minuti polaska.
+     *
+     * @param timetable Kompajlirani vozni red.
+     */
+    BoundedArrivalScan(CompiledTimetable timetable) {
+        this.timetable = timetable;
+        int count = timetable.departureCount();
+        long[] order = new long[count];
+        for (int d = 0; d < count; d++) {
+            order[d] = ((long) timetable.departureMinute(d) << 32) | d;
+        }
+        Arrays.sort(order);
+        this.departures = new int[count];
+        for (int i = 0; i < count; i++) {
+            departures[i] = (int) order[i];
+        }
+    }
+
+    /**
+     * Pronalazi putovanje sa najmanjom cijenom i brojem vožnji (redom kriterijuma) koje
+     * kreće sa stanice početnog grada u {@code startMinute} ili kasnije i stiže u
+     * odredišni grad najkasnije u {@code latestArrival}.
+     *
+     * @param isSource Oznake stanica početnog grada.
+     * @param isTarget Oznake stanica odredišnog grada.
+     * @param startMinute Najraniji polazak (minuta u danu).
+     * @param latestArrival Najkasniji dolazak (apsolutna minuta od početka dana polaska).
+     * @param criterion Kriterijum koji određuje poredak cijene i broja vožnji.
+     * @return Pronađena {@link Path}, ili {@code null} ako takvo putovanje ne postoji.
+     */
+    Path findBest(boolean[] isSource, boolean[] isTarget, int startMinute, int latestArrival,
+                  OptimizationCriterion criterion) {
+        Entries entries = new Entries(timetable.stationCount());
+        for (int day = latestArrival / MINUTES_PER_DAY; day >= 0; day--) {
+            int dayOffset = day * MINUTES_PER_DAY;
+            for (int i = departures.length - 1; i >= 0; i--) {
+                int d = departures[i];
+                int departureMinute = dayOffset + timetable.departureMinute(d);
+                if (departureMinute < startMinute) break;
+                int arrivalMinute = departureMinute + timetable.rideMinutes(d);
+                if (arrivalMinute > latestArrival) continue;
+
+                int to = timetable.departureTo(d);
+                long remaining = 0;
+                int next = -1;
+                if (!isTarget[to]) {
+                    next = entries.firstAtOrAfter(to, arrivalMinute);
+                    if (next < 0) continue;
+                    remaining = entries.value[next];
+                }
+                entries.offer(timetable.departureFrom(d), departureMinute,
+                        remaining + criterion.packKey(0, timetable.priceCents(d), 1), d, next);
+            }
+        }
+
+        int best = -1;
+        for (int s = 0; s < isSource.length; s++) {
+            int head = isSource[s] ? entries.head[s] : -1;
+            if (head >= 0 && (best < 0 || entries.value[head] < entries.value[best])) {
+                best = head;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+
+        List<Integer> journey = new ArrayList<>();
+        for (int e = best; e >= 0; e = entries.next[e]) {
+            journey.add(entries.departure[e]);
+        }
+        return timetable.toPath(journey.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Bira najbolju rutu po ključu kriterijuma među putovanjima sa najboljim trajanjem,
+     * za sve minute polaska u kojima je to trajanje postignuto.
+     *
+     * @param isSource Oznake stanica početnog grada.
+     * @param isTarget Oznake stanica odredišnog grada.
+     * @param duration Trajanje najboljeg putovanja za svaku minutu polaska, ili {@link Integer#MAX_VALUE}.
+     * @param bestDuration Najkraće od tih trajanja.
+     * @param criterion Kriterijum po kojem se putovanja rangiraju.
+     * @return Lista sa najboljom rutom, ili prazna lista ako odredište nije dostižno.
+     */
+    List<Path> findBestOfShortest(boolean[] isSource, boolean[] isTarget, int[] duration, int bestDuration,
+                                  OptimizationCriterion criterion) {
+        Path best = null;
+        for (int startMinute = 0; startMinute < duration.length && bestDuration != Integer.MAX_VALUE; startMinute++) {
+            if (duration[startMinute] != bestDuration) continue;
+            Path path = findBest(isSource, isTarget, startMinute, startMinute + bestDuration, criterion);
+            if (path != null && (best == null || criterion.keyOf(path) < criterion.keyOf(best))) {
+                best = path;
+            }
+        }
+        List<Path> routes = new ArrayList<>();
+        if (best != null) {
+            routes.add(best);
+        }
+        return routes;
+    }
+
+    /**
+     * Liste (minuta polaska, preostala vrijednost) po stanicama, povezane unazad od
+     * posljednje dodate stavke, koja ima najraniji polazak i najmanju vrijednost.
+     */
+    private static final class Entries {
+        int[] head;
+        int[] minute = new int[64];
+        long[] value = new long[64];
+        int[] departure = new int[64];
+        int[] next = new int[64];
+        int[] older = new int[64];
+        int size;
+
+        Entries(int stationCount) {
+            this.head = new int[stationCount];
+            Arrays.fill(head, -1);
+        }
+
+        /**
+         * Vraća stavku stanice sa najmanjom vrijednošću među stavkama koje kreću u
+         * zadatoj minuti ili kasnije.
+         */
+        int firstAtOrAfter(int station, int arrivalMinute) {
+            int e = head[station];
+            while (e >= 0 && minute[e] < arrivalMinute) {
+                e = older[e];
+            }
+            return e;
+        }
+
+        /**
+         * Dodaje stavku ako je njena vrijednost manja od svih kasnijih polazaka stanice.
+         */
+        void offer(int station, int departureMinute, long entryValue, int entryDeparture, int entryNext) {
+            if (head[station] >= 0 && value[head[station]] <= entryValue) {
+                return;
+            }
+            if (size == minute.length) {
+                int capacity = size * 2;
+                minute = Arrays.copyOf(minute, capacity);
+                value = Arrays.copyOf(value, capacity);
+                departure = Arrays.copyOf(departure, capacity);
+                next = Arrays.copyOf(next, capacity);
+                older = Arrays.copyOf(older, capacity);
+            }
+            minute[size] = departureMinute;
+            value[size] = entryValue;
+            departure[size] = entryDeparture;
+            next[size] = entryNext;
+            older[size] = head[station];
+            head[station] = size++;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package project.pj25.algorithm;
+
+/**
+ * Klasa koja čuva statistiku keša rezultata pretrage u jednom trenutku.
+ * <p>
+ * Bilježi broj pogodaka i promašaja, broj izbačenih rezultata i broj brisanja keša
+ * zbog izmjene transportne mape, kao i trenutnu veličinu keša.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see CachedRouteFinder
+ */
+public class CacheStatistics {
+
+    /**
+     * Broj upita na koje je odgovoreno iz keša.
+     */
+    private final long hits;
+
+    /**
+     * Broj upita za koje je pokrenuta pretraga.
+     */
+    private final long misses;
+
+    /**
+     * Broj rezultata izbačenih zbog ograničenja veličine.
+     */
+    private final long evictions;
+
+    /**
+     * Broj brisanja keša zbog promjene verzije mape.
+     */
+    private final long invalidations;
+
+    /**
+     * Broj sačuvanih rezultata.
+     */
+    private final int entries;
+
+    /**
+     * Ukupan broj segmenata u sačuvanim rutama.
+     */
+    private final long segments;
+
+    /**
+     * Konstruktor za kreiranje statistike keša.
+     *
+     * @param hits Broj pogodaka.
+     * @param misses Broj promašaja.
+     * @param evictions Broj izbačenih rezultata.
+     * @param invalidations Broj brisanja keša zbog izmjene mape.
+     * @param entries Broj sačuvanih rezultata.
+     * @param segments Ukupan broj segmenata u sačuvanim rutama.
+     */
+    public CacheStatistics(long hits, long misses, long evictions, long invalidations, int entries, long segments) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.entries = entries;
+        this.segments = segments;
+    }
+
+    /**
+     * Vraća broj upita na koje je odgovoreno iz keša.
+     *
+     * @return Broj pogodaka.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Vraća broj upita za koje je pokrenuta pretraga.
+     *
+     * @return Broj promašaja.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Vraća broj rezultata izbačenih zbog ograničenja veličine.
+     *
+     * @return Broj izbačenih rezultata.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Vraća broj brisanja keša zbog izmjene transportne mape.
+     *
+     * @return Broj brisanja.
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Vraća broj sačuvanih rezultata.
+     *
+     * @return Broj rezultata u kešu.
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * Vraća ukupan broj segmenata u sačuvanim rutama.
+     *
+     * @return Broj segmenata u kešu.
+     */
+    public long getSegments() {
+        return segments;
+    }
+
+    /**
+     * Vraća udio upita na koje je odgovoreno iz keša.
+     *
+     * @return Broj od 0 do 1, ili 0 ako upita nije bilo.
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Vraća tekstualni prikaz statistike.
+     *
+     * @return String sa brojem pogodaka, promašaja, izbačenih rezultata i veličinom keša.
+     */
+    @Override
+    public String toString() {
+        return String.format("Keš: pogodaka %d, promašaja %d (%.1f%%), izbačeno %d, brisanja %d, rezultata %d, segmenata %d",
+                hits, misses, getHitRate() * 100, evictions, invalidations, entries, segments);
+    }
+}
@@ -0,0 +1,325 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keš rezultata pretrage ispred bilo kojeg algoritma ({@link RoutingEngine}).
+ * <p>
+ * Rezultat upita se čuva pod ključem (početni grad, odredišni grad, kriterijum, broj
+ * ruta), pa se ponovljeni upit vraća bez pretrage. Keš je LRU, ograničen brojem
+ * rezultata i ukupnim brojem segmenata u sačuvanim rutama (segment sa svojim dijelom
+ * putanje zauzima približno 100 bajtova). Čuvaju se samo optimalni rezultati, tj.
+ * pretrage koje nisu prekinute budžetom.
+ * </p>
+ * <p>
+ * Uz svaki upit se provjerava broj verzije transportne mape ({@link TransportMap#getVersion()});
+ * ako se mapa u međuvremenu promijenila, keš se briše, a vozni red se ponovo kompajlira
+ * i nad njim se pravi novi algoritam, pa ni novi rezultati ne dolaze iz starog voznog
+ * reda. Izmjena polazaka stanice se vidi tek nakon {@link TransportMap#buildIndexes()},
+ * koji povećava broj verzije. Rezultat pretrage tokom koje se mapa promijenila se ne čuva. Pozivaocu se vraćaju kopije sačuvanih putanja. Sve
+ * metode su sigurne za istovremene pozive iz više niti; pretraga se izvršava van
+ * zaključavanja, pa istovremeni promašaji za isti ključ pokreću više pretraga.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RoutingEngine
+ * @see CacheStatistics
+ */
+public class CachedRouteFinder implements RoutingEngine {
+
+    /**
+     * Podrazumijevani najveći broj sačuvanih rezultata.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    /**
+     * Podrazumijevani najveći ukupan broj segmenata u sačuvanim rutama (oko 10 MB).
+     */
+    public static final long DEFAULT_MAX_SEGMENTS = 100_000;
+
+    /**
+     * Pravi algoritam nad kompajliranim voznim redom trenutne verzije mape.
+     */
+    private final Function<CompiledTimetable, ? extends RoutingEngine> engineFactory;
+
+    /**
+     * Algoritam koji izvršava pretragu pri promašaju, napravljen za verziju {@link #cachedVersion}.
+     */
+    private RoutingEngine delegate;
+
+    /**
+     * Transportna mapa čiji broj verzije određuje važenje keša.
+     */
+    private final TransportMap transportMap;
+
+    /**
+     * Najveći broj sačuvanih rezultata.
+     */
+    private final int maxEntries;
+
+    /**
+     * Najveći ukupan broj segmenata u sačuvanim rutama.
+     */
+    private final long maxSegments;
+
+    /**
+     * Sačuvani rezultati, od najdavnije do posljednje korištenog.
+     */
+    private final LinkedHashMap<QueryKey, CachedRoutes> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Verzija mape za koju važe sačuvani rezultati.
+     */
+    private long cachedVersion;
+
+    /**
+     * Ukupan broj segmenata u sačuvanim rutama.
+     */
+    private long cachedSegments;
+
+    /**
+     * Broj pogodaka.
+     */
+    private long hits;
+
+    /**
+     * Broj promašaja.
+     */
+    private long misses;
+
+    /**
+     * Broj izbačenih rezultata.
+     */
+    private long evictions;
+
+    /**
+     * Broj brisanja keša zbog izmjene mape.
+     */
+    private long invalidations;
+
+    /**
+     * Konstruktor sa podrazumijevanim ograničenjima keša, koji kompajlira vozni red mape.
+     *
+     * @param transportMap Transportna mapa nad kojom algoritam radi.
+     * @param engineFactory Pravi algoritam nad kompajliranim voznim redom.
+     */
+    public CachedRouteFinder(TransportMap transportMap, Function<CompiledTimetable, ? extends RoutingEngine> engineFactory) {
+        this(transportMap, new CompiledTimetable(transportMap), engineFactory, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * Konstruktor sa podrazumijevanim ograničenjima keša, koji koristi već kompajlirani
+     * vozni red trenutne verzije mape.
+     *
+     * @param transportMap Transportna mapa nad kojom algoritam radi.
+     * @param timetable Vozni red kompajliran iz trenutne verzije mape.
+     * @param engineFactory Pravi algoritam nad kompajliranim voznim redom.
+     */
+    public CachedRouteFinder(TransportMap transportMap, CompiledTimetable timetable,
+                             Function<CompiledTimetable, ? extends RoutingEngine> engineFactory) {
+        this(transportMap, timetable, engineFactory, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * Konstruktor sa zadatim ograničenjima keša.
+     *
+     * @param transportMap Transportna mapa nad kojom algoritam radi.
+     * @param timetable Vozni red kompajliran iz trenutne verzije mape.
+     * @param engineFactory Pravi algoritam nad kompajliranim voznim redom.
+     * @param maxEntries Najveći broj sačuvanih rezultata.
+     * @param maxSegments Najveći ukupan broj segmenata u sačuvanim rutama.
+     * @throws IllegalArgumentException ako ograničenje nije pozitivno.
+     */
+    public CachedRouteFinder(TransportMap transportMap, CompiledTimetable timetable,
+                             Function<CompiledTimetable, ? extends RoutingEngine> engineFactory,
+                             int maxEntries, long maxSegments) {
+        if (maxEntries <= 0 || maxSegments <= 0) {
+            throw new IllegalArgumentException("Ograničenja keša moraju biti pozitivna: " + maxEntries + ", " + maxSegments);
+        }
+        this.transportMap = transportMap;
+        this.engineFactory = engineFactory;
+        this.maxEntries = maxEntries;
+        this.maxSegments = maxSegments;
+        this.cachedVersion = transportMap.getVersion();
+        this.delegate = engineFactory.apply(timetable);
+    }
+
+    /**
+     * Pronalazi do N optimalnih ruta, iz keša ako je isti upit već izvršen.
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @return Lista pronađenih {@link Path} objekata, sortirana po kriterijumu.
+     */
+    @Override
+    public List<Path> findTopNRoutes(City startCity, City endCity, String optimizationCriterion, int limit) {
+        return findTopNRoutes(startCity, endCity, optimizationCriterion, limit, SearchBudget.unlimited()).getRoutes();
+    }
+
+    /**
+     * Pronalazi do N optimalnih ruta uz ograničenu pretragu, iz keša ako je isti upit
+     * već izvršen. Rezultat iz keša je uvijek optimalan i nema statistiku pretrage.
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @param budget Ograničenje pretrage.
+     * @return {@link RouteSearchResult} sa rutama i oznakom optimalnosti.
+     */
+    @Override
+    public RouteSearchResult findTopNRoutes(City startCity, City endCity, String optimizationCriterion,
+                                            int limit, SearchBudget budget) {
+        QueryKey key = new QueryKey(startCity, endCity, OptimizationCriterion.fromName(optimizationCriterion), limit);
+        long version = transportMap.getVersion();
+        CachedRoutes cached = lookup(key, version);
+        if (cached != null) {
+            return new RouteSearchResult(copyOf(cached.routes), true, null);
+        }
+
+        RouteSearchResult result = getDelegate().findTopNRoutes(startCity, endCity, optimizationCriterion, limit, budget);
+        if (result.isOptimal()) {
+            store(key, new CachedRoutes(copyOf(result.getRoutes())), version);
+        }
+        return result;
+    }
+
+    /**
+     * Vraća algoritam koji izvršava pretragu pri promašaju, napravljen za posljednju
+     * verziju mape koju je keš vidio.
+     *
+     * @return {@link RoutingEngine} iza keša.
+     */
+    public synchronized RoutingEngine getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Vraća trenutnu statistiku keša.
+     *
+     * @return {@link CacheStatistics} sa brojem pogodaka, promašaja i veličinom keša.
+     */
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hits, misses, evictions, invalidations, entries.size(), cachedSegments);
+    }
+
+    /**
+     * Briše sve sačuvane rezultate; statistika pogodaka i promašaja se zadržava.
+     */
+    public synchronized void clearCache() {
+        entries.clear();
+        cachedSegments = 0;
+    }
+
+    /**
+     * Traži rezultat u kešu. Ako se verzija mape promijenila, keš se prvo briše, a
+     * algoritam se pravi ponovo nad novim kompajliranim voznim redom.
+     *
+     * @param key Ključ upita.
+     * @param version Trenutna verzija mape.
+     * @return Sačuvani rezultat, ili {@code null} ako ga nema.
+     */
+    private synchronized CachedRoutes lookup(QueryKey key, long version) {
+        if (version != cachedVersion) {
+            if (!entries.isEmpty()) {
+                invalidations++;
+            }
+            clearCache();
+            delegate = engineFactory.apply(new CompiledTimetable(transportMap));
+            cachedVersion = version;
+        }
+        CachedRoutes cached = entries.get(key);
+        if (cached != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return cached;
+    }
+
+    /**
+     * Čuva rezultat ako je izračunat nad trenutnom verzijom mape i izbacuje najdavnije
+     * korištene rezultate dok keš ne zadovolji ograničenja.
+     *
+     * @param key Ključ upita.
+     * @param routes Rezultat koji se čuva.
+     * @param version Verzija mape na početku pretrage.
+     */
+    private synchronized void store(QueryKey key, CachedRoutes routes, long version) {
+        if (version != cachedVersion || version != transportMap.getVersion() || routes.segments > maxSegments) {
+            return;
+        }
+        CachedRoutes previous = entries.put(key, routes);
+        if (previous != null) {
+            cachedSegments -= previous.segments;
+        }
+        cachedSegments += routes.segments;
+
+        Iterator<CachedRoutes> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries || cachedSegments > maxSegments) {
+            cachedSegments -= eldest.next().segments;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Kopira putanje, da izmjena vraćene liste ne bi promijenila sačuvani rezultat.
+     *
+     * @param routes Putanje.
+     * @return Nova lista sa kopijama putanja.
+     */
+    private static List<Path> copyOf(List<Path> routes) {
+        List<Path> copies = new ArrayList<>(routes.size());
+        for (Path path : routes) {
+            copies.add(new Path(path));
+        }
+        return copies;
+    }
+
+    /**
+     * Ključ upita.
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param criterion Kriterijum optimizacije.
+     * @param limit Broj ruta.
+     */
+    private record QueryKey(City startCity, City endCity, OptimizationCriterion criterion, int limit) {
+    }
+
+    /**
+     * Sačuvani rezultat upita sa ukupnim brojem segmenata.
+     */
+    private static final class CachedRoutes {
+
+        /**
+         * Sačuvane putanje.
+         */
+        final List<Path> routes;
+
+        /**
+         * Ukupan broj segmenata u putanjama.
+         */
+        final long segments;
+
+        /**
+         * Kreira sačuvani rezultat.
+         *
+         * @param routes Putanje.
+         */
+        CachedRoutes(List<Path> routes) {
+            this.routes = routes;
+            this.segments = routes.stream().mapToLong(path -> path.getSegments().size()).sum();
+        }
+    }
+}
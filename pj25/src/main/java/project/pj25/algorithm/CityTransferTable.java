@@ -0,0 +1,384 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unaprijed izračunata tabela presjedanja unutar gradova ("klastera" stanica).
+ * <p>
+ * Generisana mreža ima 2–6 stanica po gradu, povezanih polascima svaka-sa-svakom i
+ * nasumičnim prelazima autobus–voz, pa većina polazaka koje pretraga obilazi vozi
+ * samo unutar grada. Ova tabela te lokalne polaske sažima: za svaki uređeni par
+ * stanica istog grada čuva profil lokalnih putovanja, tj. listu parova (minuta
+ * polaska, trajanje) sortiranu po minuti polaska, zajedno sa polascima od kojih
+ * se putovanje sastoji. Iz profila su izbačena putovanja koja neko kasnije
+ * putovanje (uz čekanje, i preko ponoći) dominira, pa je prvo putovanje u trenutku
+ * {@code t} ili kasnije ujedno i ono sa najranijim dolaskom
+ * ({@link #entryAtOrAfter(int, int)}). Pretraga tako prelazi preko grada u jednom
+ * koraku, a lokalni polasci joj više nisu potrebni.
+ * </p>
+ * <p>
+ * Profili se računaju jednom, pri kreiranju objekta, pretragom najranijeg dolaska
+ * nad lokalnim polascima grada, po jednom za svaku minutu lokalnog polaska sa
+ * svake stanice. Tabela se nakon toga ne mijenja i može se dijeliti između niti.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see CompiledTimetable
+ * @see ClusteredRouteFinder
+ */
+public final class CityTransferTable {
+
+    /**
+     * Broj minuta u jednom danu.
+     */
+    private static final int MINUTES_PER_DAY = CompiledTimetable.MINUTES_PER_DAY;
+
+    /**
+     * Vrijednost koja označava da stanica još nije dostignuta.
+     */
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    /**
+     * Gusti redni broj grada (klastera) svake stanice.
+     */
+    private final int[] cluster;
+
+    /**
+     * Za stanicu {@code s}, parovi presjedanja su na pozicijama od {@code firstTransfer[s]}
+     * do {@code firstTransfer[s + 1]} (isključivo).
+     */
+    private final int[] firstTransfer;
+
+    /**
+     * Dolazna stanica (interni ID) svakog para presjedanja.
+     */
+    private final int[] transferTarget;
+
+    /**
+     * Za par {@code p}, putovanja profila su na pozicijama od {@code firstEntry[p]}
+     * do {@code firstEntry[p + 1]} (isključivo), sortirana po minuti polaska.
+     */
+    private final int[] firstEntry;
+
+    /**
+     * Minuta u danu u kojoj putovanje kreće.
+     */
+    private final int[] entryMinute;
+
+    /**
+     * Trajanje putovanja u minutama, od prvog polaska do dolaska na dolaznu stanicu.
+     */
+    private final int[] entryDuration;
+
+    /**
+     * Za putovanje {@code e}, njegovi polasci su u {@code chainDepartures} na pozicijama
+     * od {@code firstChainDeparture[e]} do {@code firstChainDeparture[e + 1]} (isključivo).
+     */
+    private final int[] firstChainDeparture;
+
+    /**
+     * Indeksi polazaka svih putovanja, redom vožnje.
+     */
+    private final int[] chainDepartures;
+
+    /**
+     * Broj lokalnih polazaka (unutar jednog grada) u voznom redu.
+     */
+    private final int localDepartureCount;
+
+    /**
+     * Konstruktor koji izračunava profile presjedanja za sve gradove voznog reda.
+     *
+     * @param timetable Kompajlirani vozni red.
+     */
+    public CityTransferTable(CompiledTimetable timetable) {
+        int stationCount = timetable.stationCount();
+        this.cluster = new int[stationCount];
+        Map<City, Integer> clusterIndex = new HashMap<>();
+        List<List<Integer>> clusterStations = new ArrayList<>();
+        for (int s = 0; s < stationCount; s++) {
+            Integer index = clusterIndex.get(timetable.getStation(s).getCity());
+            if (index == null) {
+                index = clusterStations.size();
+                clusterIndex.put(timetable.getStation(s).getCity(), index);
+                clusterStations.add(new ArrayList<>());
+            }
+            cluster[s] = index;
+            clusterStations.get(index).add(s);
+        }
+
+        int locals = 0;
+        for (int d = 0; d < timetable.departureCount(); d++) {
+            if (isLocal(timetable, d)) locals++;
+        }
+        this.localDepartureCount = locals;
+
+        // Profili po paru (polazna, dolazna stanica); putovanja se dodaju u privremene liste
+        List<Integer> targets = new ArrayList<>();
+        List<Integer> pairEntries = new ArrayList<>();
+        List<int[]> entries = new ArrayList<>();
+        this.firstTransfer = new int[stationCount + 1];
+        for (int s = 0; s < stationCount; s++) {
+            firstTransfer[s] = targets.size();
+            List<Integer> stations = clusterStations.get(cluster[s]);
+            List<List<int[]>> profiles = computeProfiles(timetable, s, stations);
+            for (int i = 0; i < stations.size(); i++) {
+                List<int[]> profile = removeDominated(profiles.get(i));
+                if (profile.isEmpty()) continue;
+                targets.add(stations.get(i));
+                pairEntries.add(entries.size());
+                entries.addAll(profile);
+            }
+        }
+        firstTransfer[stationCount] = targets.size();
+        pairEntries.add(entries.size());
+
+        this.transferTarget = targets.stream().mapToInt(Integer::intValue).toArray();
+        this.firstEntry = pairEntries.stream().mapToInt(Integer::intValue).toArray();
+        this.entryMinute = new int[entries.size()];
+        this.entryDuration = new int[entries.size()];
+        this.firstChainDeparture = new int[entries.size() + 1];
+        int chainLength = 0;
+        for (int[] entry : entries) {
+            chainLength += entry.length - 2;
+        }
+        this.chainDepartures = new int[chainLength];
+        int next = 0;
+        for (int e = 0; e < entries.size(); e++) {
+            int[] entry = entries.get(e);
+            entryMinute[e] = entry[0];
+            entryDuration[e] = entry[1];
+            firstChainDeparture[e] = next;
+            System.arraycopy(entry, 2, chainDepartures, next, entry.length - 2);
+            next += entry.length - 2;
+        }
+        firstChainDeparture[entries.size()] = next;
+    }
+
+    /**
+     * Vraća redni broj grada (klastera) stanice.
+     *
+     * @param station Interni ID stanice.
+     * @return Redni broj grada.
+     */
+    public int cluster(int station) {
+        return cluster[station];
+    }
+
+    /**
+     * Vraća broj lokalnih polazaka koje tabela sažima.
+     *
+     * @return Broj polazaka čija su polazna i dolazna stanica u istom gradu.
+     */
+    public int localDepartureCount() {
+        return localDepartureCount;
+    }
+
+    /**
+     * Vraća prvi par presjedanja stanice.
+     *
+     * @param station Interni ID stanice.
+     * @return Indeks prvog para.
+     */
+    public int firstTransfer(int station) {
+        return firstTransfer[station];
+    }
+
+    /**
+     * Vraća indeks iza posljednjeg para presjedanja stanice.
+     *
+     * @param station Interni ID stanice.
+     * @return Indeks iza posljednjeg para.
+     */
+    public int endTransfer(int station) {
+        return firstTransfer[station + 1];
+    }
+
+    /**
+     * Vraća dolaznu stanicu para presjedanja.
+     *
+     * @param transfer Indeks para.
+     * @return Interni ID dolazne stanice.
+     */
+    public int transferTarget(int transfer) {
+        return transferTarget[transfer];
+    }
+
+    /**
+     * Pronalazi prvo putovanje para koje kreće u minuti {@code minute} ili kasnije, uz
+     * prelazak na prvo putovanje (naredni dan) ako tog dana više nema putovanja.
+     * Zbog izbacivanja dominiranih putovanja, to je putovanje sa najranijim dolaskom.
+     *
+     * @param transfer Indeks para.
+     * @param minute Minuta u danu.
+     * @return Indeks putovanja.
+     */
+    public int entryAtOrAfter(int transfer, int minute) {
+        int low = firstEntry[transfer];
+        int end = firstEntry[transfer + 1];
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entryMinute[mid] < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < end ? low : firstEntry[transfer];
+    }
+
+    /**
+     * Vraća minutu u danu u kojoj putovanje kreće.
+     *
+     * @param entry Indeks putovanja.
+     * @return Minuta polaska.
+     */
+    public int entryMinute(int entry) {
+        return entryMinute[entry];
+    }
+
+    /**
+     * Vraća trajanje putovanja od prvog polaska do dolaska.
+     *
+     * @param entry Indeks putovanja.
+     * @return Trajanje u minutama.
+     */
+    public int entryDuration(int entry) {
+        return entryDuration[entry];
+    }
+
+    /**
+     * Vraća polaske od kojih se putovanje sastoji, redom vožnje.
+     *
+     * @param entry Indeks putovanja.
+     * @return Indeksi polazaka u {@link CompiledTimetable}.
+     */
+    public int[] entryDepartures(int entry) {
+        return Arrays.copyOfRange(chainDepartures, firstChainDeparture[entry], firstChainDeparture[entry + 1]);
+    }
+
+    /**
+     * Provjerava da li polazak vozi unutar jednog grada.
+     *
+     * @param timetable Kompajlirani vozni red.
+     * @param departure Indeks polaska.
+     * @return {@code true} ako su polazna i dolazna stanica u istom gradu.
+     */
+    private boolean isLocal(CompiledTimetable timetable, int departure) {
+        return cluster[timetable.departureFrom(departure)] == cluster[timetable.departureTo(departure)];
+    }
+
+    /**
+     * Računa profile lokalnih putovanja sa stanice prema svim stanicama njenog grada.
+     * <p>
+     * Za svaku različitu minutu lokalnog polaska sa stanice izvršava se pretraga
+     * najranijeg dolaska nad lokalnim polascima grada. Putovanje do svake dostignute
+     * stanice se bilježi sa minutom svog stvarnog prvog polaska, pa profil pokriva
+     * sva putovanja sa najranijim dolaskom za bilo koji trenutak polaska.
+     * </p>
+     *
+     * @param timetable Kompajlirani vozni red.
+     * @param source Interni ID polazne stanice.
+     * @param stations Stanice grada.
+     * @return Za svaku stanicu grada lista putovanja {@code {minuta, trajanje, polasci...}}.
+     */
+    private List<List<int[]>> computeProfiles(CompiledTimetable timetable, int source, List<Integer> stations) {
+        int size = stations.size();
+        List<List<int[]>> profiles = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            profiles.add(new ArrayList<>());
+        }
+
+        int[] arrival = new int[size];
+        int[] parentDeparture = new int[size];
+        int[] parent = new int[size];
+        boolean[] settled = new boolean[size];
+        int sourceIndex = stations.indexOf(source);
+        int previousMinute = -1;
+
+        for (int d = timetable.firstDeparture(source); d < timetable.endDeparture(source); d++) {
+            int startMinute = timetable.departureMinute(d);
+            if (!isLocal(timetable, d) || startMinute == previousMinute) continue;
+            previousMinute = startMinute;
+
+            Arrays.fill(arrival, UNREACHED);
+            Arrays.fill(settled, false);
+            arrival[sourceIndex] = startMinute;
+            parent[sourceIndex] = -1;
+            while (true) {
+                int u = -1;
+                for (int i = 0; i < size; i++) {
+                    if (!settled[i] && arrival[i] != UNREACHED && (u < 0 || arrival[i] < arrival[u])) u = i;
+                }
+                if (u < 0) break;
+                settled[u] = true;
+
+                int station = stations.get(u);
+                for (int next = timetable.firstDeparture(station); next < timetable.endDeparture(station); next++) {
+                    if (!isLocal(timetable, next)) continue;
+                    int departureMinute = timetable.nextDepartureMinute(next, arrival[u]);
+                    int v = stations.indexOf(timetable.departureTo(next));
+                    int arrivalMinute = departureMinute + timetable.rideMinutes(next);
+                    if (!settled[v] && arrivalMinute < arrival[v]) {
+                        arrival[v] = arrivalMinute;
+                        parentDeparture[v] = next;
+                        parent[v] = u;
+                    }
+                }
+            }
+
+            for (int v = 0; v < size; v++) {
+                if (v == sourceIndex || arrival[v] == UNREACHED) continue;
+                int length = 0;
+                for (int i = v; parent[i] >= 0; i = parent[i]) length++;
+                int[] entry = new int[length + 2];
+                int first = -1;
+                for (int i = v, position = length + 1; parent[i] >= 0; i = parent[i], position--) {
+                    entry[position] = parentDeparture[i];
+                    first = parentDeparture[i];
+                }
+                // Apsolutna minuta prvog polaska: prva vožnja kreće sa izvora, nakon startMinute
+                int firstMinute = timetable.nextDepartureMinute(first, startMinute);
+                entry[0] = firstMinute % MINUTES_PER_DAY;
+                entry[1] = arrival[v] - firstMinute;
+                profiles.get(v).add(entry);
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * Izbacuje iz profila putovanja koja neko drugo putovanje dominira: kreće u isto
+     * vrijeme ili kasnije (najviše dan kasnije) i stiže ranije ili u isto vrijeme.
+     * Putovanja sa jednakom minutom polaska i trajanjem se svode na jedno.
+     *
+     * @param profile Putovanja {@code {minuta, trajanje, polasci...}}.
+     * @return Nedominirana putovanja sortirana po minuti polaska.
+     */
+    private static List<int[]> removeDominated(List<int[]> profile) {
+        List<int[]> result = new ArrayList<>();
+        for (int i = 0; i < profile.size(); i++) {
+            int[] entry = profile.get(i);
+            boolean dominated = false;
+            for (int j = 0; j < profile.size() && !dominated; j++) {
+                if (i == j) continue;
+                int[] other = profile.get(j);
+                int arrivalAfterWait = Math.floorMod(other[0] - entry[0], MINUTES_PER_DAY) + other[1];
+                dominated = arrivalAfterWait < entry[1] || (arrivalAfterWait == entry[1] && j < i);
+            }
+            if (!dominated) {
+                result.add(entry);
+            }
+        }
+        result.sort((a, b) -> Integer.compare(a[0], b[0]));
+        return result;
+    }
+}
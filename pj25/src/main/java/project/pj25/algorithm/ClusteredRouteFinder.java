@@ -0,0 +1,272 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Klasa za pronalazak ruta sa najkraćim vremenom putovanja nad sažetim grafom gradova.
+ * <p>
+ * Polasci unutar grada se ne obilaze pojedinačno: umjesto njih pretraga koristi
+ * {@link CityTransferTable}, pa sa stanice jednim korakom prelazi na bilo koju drugu
+ * stanicu istog grada, sa najranijim dolaskom za trenutni trenutak. Pojedinačno se
+ * obilaze samo međugradski polasci, po susjednoj stanici i redoslijedom čekanja
+ * ({@link CompiledTimetable#firstInGroupAtOrAfter(int, int)}), sve dok polazak ne
+ * kreće kasnije od najboljeg dolaska prema tom susjedu. Na stanicu do koje se stiglo
+ * presjedanjem ne primjenjuje se novo presjedanje, jer tabela već sadrži najbolje
+ * lokalno putovanje sa prethodne stanice.
+ * </p>
+ * <p>
+ * Kao i kod {@link ConnectionScanRouteFinder}, za svaku različitu minutu međugradskog
+ * polaska sa stanica početnog grada izvršava se jedna pretraga najranijeg dolaska
+ * (vremenski zavisni Dijkstra nad stanicama), koja daje najkraće trajanje putovanja.
+ * Tabela presjedanja čuva samo najranije dolaske, pa se najjeftinije putovanje tog
+ * trajanja bira skeniranjem pojedinačnih polazaka ({@link BoundedArrivalScan}).
+ * Pretraga daje jedno putovanje po minuti polaska, pa odgovara samo na upit za
+ * jednu rutu; upiti za više ruta i za ostale kriterijume se prosljeđuju rezervnom
+ * algoritmu.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see CityTransferTable
+ * @see RoutingEngine
+ */
+public class ClusteredRouteFinder implements RoutingEngine {
+
+    /**
+     * Broj minuta u jednom danu.
+     */
+    private static final int MINUTES_PER_DAY = CompiledTimetable.MINUTES_PER_DAY;
+
+    /**
+     * Vrijednost koja označava da stanica još nije dostignuta.
+     */
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    /**
+     * Algoritam kojem se prosljeđuju kriterijumi različiti od "time".
+     */
+    private final RoutingEngine fallbackEngine;
+
+    /**
+     * Kompajlirani vozni red transportne mape.
+     */
+    private final CompiledTimetable timetable;
+
+    /**
+     * Tabela presjedanja unutar gradova.
+     */
+    private final CityTransferTable transfers;
+
+    /**
+     * Skeniranje unazad koje bira najjeftinije među najbržim putovanjima.
+     */
+    private final BoundedArrivalScan boundedArrivalScan;
+
+    /**
+     * Konstruktor koji kao rezervni algoritam koristi {@link KShortestRouteFinder}.
+     *
+     * @param transportMap Transportna mapa koja se koristi za pretragu.
+     */
+    public ClusteredRouteFinder(TransportMap transportMap) {
+        this(new CompiledTimetable(transportMap));
+    }
+
+    /**
+     * Konstruktor koji kao rezervni algoritam koristi {@link KShortestRouteFinder}
+     * nad istim kompajliranim voznim redom.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     */
+    public ClusteredRouteFinder(CompiledTimetable timetable) {
+        this(timetable, new KShortestRouteFinder(timetable));
+    }
+
+    /**
+     * Konstruktor koji izračunava tabelu presjedanja za sve gradove.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     * @param fallbackEngine Algoritam koji se koristi za kriterijume različite od "time".
+     */
+    public ClusteredRouteFinder(CompiledTimetable timetable, RoutingEngine fallbackEngine) {
+        this(timetable, new CityTransferTable(timetable), fallbackEngine);
+    }
+
+    /**
+     * Konstruktor koji koristi već izračunatu tabelu presjedanja.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     * @param transfers Tabela presjedanja izračunata nad istim voznim redom.
+     * @param fallbackEngine Algoritam koji se koristi za kriterijume različite od "time".
+     */
+    public ClusteredRouteFinder(CompiledTimetable timetable, CityTransferTable transfers, RoutingEngine fallbackEngine) {
+        this.timetable = timetable;
+        this.transfers = transfers;
+        this.fallbackEngine = fallbackEngine;
+        this.boundedArrivalScan = new BoundedArrivalScan(timetable);
+    }
+
+    /**
+     * Pronalazi najbolju rutu po kriterijumu "time".
+     * <p>
+     * Pretrage najranijeg dolaska nad sažetim grafom daju najkraće trajanje, a
+     * {@link BoundedArrivalScan} među putovanjima tog trajanja bira najjeftinije, pa
+     * ono sa najmanje vožnji. Upiti za više ruta i za ostale kriterijume se
+     * prosljeđuju rezervnom algoritmu.
+     * </p>
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @return Lista pronađenih {@link Path} objekata, sortirana po kriterijumu.
+     */
+    @Override
+    public List<Path> findTopNRoutes(City startCity, City endCity, String optimizationCriterion, int limit) {
+        if (!"time".equalsIgnoreCase(optimizationCriterion) || limit != 1) {
+            return fallbackEngine.findTopNRoutes(startCity, endCity, optimizationCriterion, limit);
+        }
+
+        int stationCount = timetable.stationCount();
+        int[] sources = timetable.stationsInCity(startCity);
+        boolean[] isTarget = timetable.cityMask(endCity);
+
+        boolean[] isStartMinute = new boolean[MINUTES_PER_DAY];
+        for (int source : sources) {
+            for (int d = timetable.firstDeparture(source); d < timetable.endDeparture(source); d++) {
+                if (transfers.cluster(timetable.departureTo(d)) != transfers.cluster(source)) {
+                    isStartMinute[timetable.departureMinute(d)] = true;
+                }
+            }
+        }
+
+        SearchState state = new SearchState(stationCount);
+        int[] duration = new int[MINUTES_PER_DAY];
+        Arrays.fill(duration, UNREACHED);
+        int bestDuration = UNREACHED;
+        for (int startMinute = 0; startMinute < MINUTES_PER_DAY; startMinute++) {
+            if (!isStartMinute[startMinute]) continue;
+
+            int target = searchEarliestArrival(startMinute, sources, isTarget, state);
+            if (target < 0) continue;
+            duration[startMinute] = state.arrival[target] - startMinute;
+            bestDuration = Math.min(bestDuration, duration[startMinute]);
+        }
+        return boundedArrivalScan.findBestOfShortest(timetable.cityMask(startCity), isTarget, duration, bestDuration,
+                OptimizationCriterion.TIME);
+    }
+
+    /**
+     * Vraća tabelu presjedanja koju pretraga koristi.
+     *
+     * @return {@link CityTransferTable} voznog reda.
+     */
+    public CityTransferTable getTransferTable() {
+        return transfers;
+    }
+
+    /**
+     * Pretraga najranijeg dolaska od zadate minute, u kojoj su sve stanice početnog
+     * grada dostupne. Pretraga se zaustavlja na prvoj obrađenoj stanici odredišnog grada.
+     *
+     * @param startMinute Minuta u danu od koje su stanice početnog grada dostupne.
+     * @param sources Stanice početnog grada.
+     * @param isTarget Oznake stanica odredišnog grada.
+     * @param state Nizovi pretrage, koji se ovdje ponovo inicijalizuju.
+     * @return Interni ID najranije dostignute stanice odredišnog grada, ili -1.
+     */
+    private int searchEarliestArrival(int startMinute, int[] sources, boolean[] isTarget, SearchState state) {
+        state.reset();
+        IndexedLongHeap heap = state.heap;
+        for (int source : sources) {
+            state.arrival[source] = startMinute;
+            state.viaTransfer[source] = true;
+            heap.insert(source, startMinute);
+        }
+
+        while (!heap.isEmpty()) {
+            int station = heap.poll();
+            int time = state.arrival[station];
+            if (isTarget[station] && state.firstDepartureMinute[station] >= 0) {
+                return station;
+            }
+            int minuteOfDay = time % MINUTES_PER_DAY;
+
+            // Međugradski polasci, po susjedu i redoslijedom čekanja
+            for (int group = timetable.firstGroup(station); group < timetable.endGroup(station); group++) {
+                int next = timetable.groupTarget(group);
+                if (transfers.cluster(next) == transfers.cluster(station)) continue;
+                int groupStart = timetable.firstInGroup(group);
+                int groupSize = timetable.endInGroup(group) - groupStart;
+                int first = timetable.firstInGroupAtOrAfter(group, minuteOfDay);
+                for (int i = 0; i < groupSize; i++) {
+                    int position = groupStart + (first - groupStart + i) % groupSize;
+                    int departure = timetable.groupedDeparture(position);
+                    int departureMinute = time + Math.floorMod(timetable.departureMinute(departure) - minuteOfDay, MINUTES_PER_DAY);
+                    if (departureMinute >= state.arrival[next]) break;
+                    relax(state, station, next, departureMinute, departureMinute + timetable.rideMinutes(departure));
+                }
+            }
+
+            // Presjedanje na ostale stanice grada u jednom koraku
+            if (state.viaTransfer[station]) continue;
+            for (int transfer = transfers.firstTransfer(station); transfer < transfers.endTransfer(station); transfer++) {
+                int next = transfers.transferTarget(transfer);
+                int entry = transfers.entryAtOrAfter(transfer, minuteOfDay);
+                int departureMinute = time + Math.floorMod(transfers.entryMinute(entry) - minuteOfDay, MINUTES_PER_DAY);
+                if (relax(state, station, next, departureMinute, departureMinute + transfers.entryDuration(entry))) {
+                    state.viaTransfer[next] = true;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Poboljšava dolazak na stanicu ako je novi dolazak raniji.
+     *
+     * @param state Nizovi pretrage.
+     * @param from Stanica sa koje se polazi.
+     * @param to Stanica na koju se stiže.
+     * @param departureMinute Apsolutna minuta polaska.
+     * @param arrivalMinute Apsolutna minuta dolaska.
+     * @return {@code true} ako je dolazak poboljšan.
+     */
+    private static boolean relax(SearchState state, int from, int to, int departureMinute, int arrivalMinute) {
+        if (arrivalMinute >= state.arrival[to]) {
+            return false;
+        }
+        state.arrival[to] = arrivalMinute;
+        state.viaTransfer[to] = false;
+        state.firstDepartureMinute[to] = state.firstDepartureMinute[from] >= 0
+                ? state.firstDepartureMinute[from] : departureMinute;
+        state.heap.insertOrDecrease(to, arrivalMinute);
+        return true;
+    }
+
+    /**
+     * Nizovi jedne pretrage najranijeg dolaska, koji se koriste za sve minute polaska.
+     */
+    private static final class SearchState {
+        private final int[] arrival;
+        private final int[] firstDepartureMinute;
+        private final boolean[] viaTransfer;
+        private final IndexedLongHeap heap;
+
+        SearchState(int stationCount) {
+            this.arrival = new int[stationCount];
+            this.firstDepartureMinute = new int[stationCount];
+            this.viaTransfer = new boolean[stationCount];
+            this.heap = new IndexedLongHeap(stationCount);
+        }
+
+        void reset() {
+            Arrays.fill(arrival, UNREACHED);
+            Arrays.fill(firstDepartureMinute, -1);
+            Arrays.fill(viaTransfer, false);
+            heap.clear();
+        }
+    }
+}
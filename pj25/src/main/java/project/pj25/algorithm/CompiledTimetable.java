@@ -0,0 +1,681 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nepromjenljivi, "kompajlirani" vozni red izgrađen jednom iz {@link TransportMap}.
+ * <p>
+ * Stanice dobijaju gusti interni ID (indeks u nizu stanica sortiranih po ID-u), a
+ * polasci se smještaju u nizove u CSR (compressed sparse row) obliku: polasci stanice
+ * {@code s} su na pozicijama od {@link #firstDeparture(int)} do {@link #endDeparture(int)}
+ * (isključivo), sortirani po minuti polaska. Za svaki polazak čuvaju se polazna i
+ * dolazna stanica, minuta polaska i dolaska, trajanje vožnje, cijena u feninzima i
+ * vrsta prevoza. Isti polasci su grupisani i po dolaznoj stanici, za pretrage unazad.
+ * </p>
+ * <p>
+ * Polasci svake stanice su dodatno podijeljeni u grupe po susjednoj (dolaznoj) stanici,
+ * sortirane po minuti polaska. Binarna pretraga ({@link #firstDepartureAtOrAfter(int, int)},
+ * {@link #firstInGroupAtOrAfter(int, int)}) tako u {@code O(log n)} pronalazi prvi polazak
+ * koji se može uhvatiti u trenutku {@code t}, pa pretraga polaske prema svakom susjedu
+ * obilazi redoslijedom čekanja, počevši od prvog narednog.
+ * </p>
+ * <p>
+ * Algoritmi pretrage rade nad ovim nizovima, pa u unutrašnjoj petlji nema traženja
+ * stanica po String ključu u {@link java.util.HashMap}, alokacije {@code LocalTime}
+ * objekata niti obilaska lista objekata. Originalni {@link Station} i {@link Departure}
+ * objekti koriste se samo na granici API-ja, za rekonstrukciju pronađenih ruta.
+ * Polasci prema stanicama koje ne postoje u mapi se izostavljaju. Objekat se ne mijenja
+ * nakon kreiranja, pa ga više algoritama (i niti) mogu dijeliti.
+ * </p>
+ * <p>
+ * Vrijeme na putovanju se računa u apsolutnim minutama od ponoći prvog dana putovanja,
+ * pa minuta {@code 1500} znači 01:00 narednog dana. Polazak je periodičan: kreće u istoj
+ * minuti svakog dana u kojem saobraća, a {@link #nextDepartureMinute(int, int)} i
+ * {@link #nextDepartureMinute(int, int, int)} pretvaraju minutu u danu u apsolutnu minutu
+ * prvog polaska koji se može uhvatiti. Dani saobraćanja se čuvaju kao maska od 7 bitova
+ * po polasku (bit 0 je ponedjeljak).
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see TransportMap
+ * @see RoutingEngine
+ */
+public final class CompiledTimetable {
+
+    /**
+     * Broj minuta u jednom danu.
+     */
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Oznaka vrste prevoza za autobuske polaske.
+     */
+    public static final int MODE_BUS = 0;
+
+    /**
+     * Oznaka vrste prevoza za željezničke polaske.
+     */
+    public static final int MODE_TRAIN = 1;
+
+    /**
+     * Sve stanice mape, sortirane po ID-u; indeks u nizu je interni ID stanice.
+     */
+    private final Station[] stations;
+
+    /**
+     * Interni ID svake stanice.
+     */
+    private final Map<Station, Integer> stationIndex;
+
+    /**
+     * Interni ID-evi stanica svakog grada, rastuće.
+     */
+    private final Map<City, int[]> cityStations;
+
+    /**
+     * Za stanicu {@code s}, polasci su na pozicijama od {@code firstDeparture[s]}
+     * do {@code firstDeparture[s + 1]} (isključivo).
+     */
+    private final int[] firstDeparture;
+
+    /**
+     * Polazna stanica (interni ID) svakog polaska.
+     */
+    private final int[] departureFrom;
+
+    /**
+     * Dolazna stanica (interni ID) svakog polaska.
+     */
+    private final int[] departureTo;
+
+    /**
+     * Minuta u danu u kojoj polazak kreće.
+     */
+    private final int[] departureMinute;
+
+    /**
+     * Minuta u danu u kojoj polazak stiže.
+     */
+    private final int[] arrivalMinute;
+
+    /**
+     * Trajanje vožnje u minutama (uzimajući u obzir prelazak preko ponoći).
+     */
+    private final int[] rideMinutes;
+
+    /**
+     * Cijena vožnje u feninzima.
+     */
+    private final int[] priceCents;
+
+    /**
+     * Vrsta prevoza ({@link #MODE_BUS} ili {@link #MODE_TRAIN}).
+     */
+    private final byte[] mode;
+
+    /**
+     * Dani u sedmici u kojima polazak saobraća, kao bitovi (bit 0 je ponedjeljak).
+     */
+    private final byte[] serviceDays;
+
+    /**
+     * Da li svi polasci saobraćaju svaki dan.
+     */
+    private final boolean daily;
+
+    /**
+     * Originalni {@link Departure} objekti, potrebni za rekonstrukciju rute.
+     */
+    private final Departure[] departures;
+
+    /**
+     * Za stanicu {@code s}, dolazni polasci su u {@code incomingDepartures} na pozicijama
+     * od {@code firstIncoming[s]} do {@code firstIncoming[s + 1]} (isključivo).
+     */
+    private final int[] firstIncoming;
+
+    /**
+     * Indeksi polazaka grupisani po dolaznoj stanici, sortirani po minuti dolaska.
+     */
+    private final int[] incomingDepartures;
+
+    /**
+     * Za stanicu {@code s}, grupe polazaka po dolaznoj stanici su od {@code firstGroup[s]}
+     * do {@code firstGroup[s + 1]} (isključivo).
+     */
+    private final int[] firstGroup;
+
+    /**
+     * Dolazna stanica (interni ID) svake grupe.
+     */
+    private final int[] groupTarget;
+
+    /**
+     * Za grupu {@code g}, polasci su u {@code groupedDepartures} na pozicijama od
+     * {@code firstInGroup[g]} do {@code firstInGroup[g + 1]} (isključivo).
+     */
+    private final int[] firstInGroup;
+
+    /**
+     * Indeksi polazaka grupisani po (polazna stanica, dolazna stanica), sortirani po minuti polaska.
+     */
+    private final int[] groupedDepartures;
+
+    /**
+     * Konstruktor koji kompajlira vozni red iz transportne mape.
+     *
+     * @param transportMap Transportna mapa čiji se vozni red kompajlira.
+     */
+    public CompiledTimetable(TransportMap transportMap) {
+        List<Station> stationList = new ArrayList<>(transportMap.getAllStations().values());
+        stationList.sort(Comparator.comparing(Station::getId));
+        this.stations = stationList.toArray(new Station[0]);
+        this.stationIndex = new HashMap<>();
+        Map<City, List<Integer>> cityStationLists = new HashMap<>();
+        for (int i = 0; i < stations.length; i++) {
+            stationIndex.put(stations[i], i);
+            cityStationLists.computeIfAbsent(stations[i].getCity(), c -> new ArrayList<>()).add(i);
+        }
+        this.cityStations = new HashMap<>();
+        cityStationLists.forEach((city, list) ->
+                cityStations.put(city, list.stream().mapToInt(Integer::intValue).toArray()));
+
+        List<Departure> departureList = new ArrayList<>();
+        List<Integer> targetList = new ArrayList<>();
+        this.firstDeparture = new int[stations.length + 1];
+        for (int s = 0; s < stations.length; s++) {
+            firstDeparture[s] = departureList.size();
+            List<Departure> stationDepartures = new ArrayList<>();
+            for (Departure departure : stations[s].getDepartures()) {
+                if (transportMap.getStation(departure.getArrivalStationId()) != null) {
+                    stationDepartures.add(departure);
+                }
+            }
+            // Stabilno sortiranje: polasci u istoj minuti zadržavaju redoslijed iz mape
+            stationDepartures.sort(Comparator.comparing(Departure::getDepartureTime));
+            for (Departure departure : stationDepartures) {
+                departureList.add(departure);
+                targetList.add(stationIndex.get(transportMap.getStation(departure.getArrivalStationId())));
+            }
+        }
+        firstDeparture[stations.length] = departureList.size();
+
+        int count = departureList.size();
+        this.departures = departureList.toArray(new Departure[0]);
+        this.departureFrom = new int[count];
+        this.departureTo = new int[count];
+        this.departureMinute = new int[count];
+        this.arrivalMinute = new int[count];
+        this.rideMinutes = new int[count];
+        this.priceCents = new int[count];
+        this.mode = new byte[count];
+        this.serviceDays = new byte[count];
+        boolean allDaily = true;
+        for (int s = 0; s < stations.length; s++) {
+            Arrays.fill(departureFrom, firstDeparture[s], firstDeparture[s + 1], s);
+        }
+        for (int d = 0; d < count; d++) {
+            Departure departure = departures[d];
+            departureTo[d] = targetList.get(d);
+            departureMinute[d] = departure.getDepartureTime().toSecondOfDay() / 60;
+            arrivalMinute[d] = departure.getArrivalTime().toSecondOfDay() / 60;
+            rideMinutes[d] = Math.floorMod(arrivalMinute[d] - departureMinute[d], MINUTES_PER_DAY);
+            priceCents[d] = Math.toIntExact(OptimizationCriterion.toCents(departure.getPrice()));
+            mode[d] = (byte) ("voz".equalsIgnoreCase(departure.getType()) ? MODE_TRAIN : MODE_BUS);
+            serviceDays[d] = (byte) departure.getServiceDays();
+            allDaily &= departure.getServiceDays() == Departure.ALL_DAYS;
+        }
+        this.daily = allDaily;
+
+        // Dolazni polasci: sortiranje po (dolazna stanica, minuta dolaska, indeks polaska)
+        long[] order = new long[count];
+        for (int d = 0; d < count; d++) {
+            order[d] = ((long) departureTo[d] * MINUTES_PER_DAY + arrivalMinute[d]) << 32 | d;
+        }
+        Arrays.sort(order);
+        this.firstIncoming = new int[stations.length + 1];
+        this.incomingDepartures = new int[count];
+        for (int i = 0; i < count; i++) {
+            incomingDepartures[i] = (int) order[i];
+            firstIncoming[departureTo[incomingDepartures[i]] + 1]++;
+        }
+        for (int s = 0; s < stations.length; s++) {
+            firstIncoming[s + 1] += firstIncoming[s];
+        }
+
+        // Grupe po susjedu: polasci stanice su već sortirani po minuti, pa je dovoljno
+        // sortirati ih unutar stanice po (dolazna stanica, indeks polaska)
+        for (int d = 0; d < count; d++) {
+            order[d] = (long) departureTo[d] << 32 | d;
+        }
+        this.groupedDepartures = new int[count];
+        int[] groupStart = new int[count + 1];
+        int[] target = new int[count];
+        int groups = 0;
+        this.firstGroup = new int[stations.length + 1];
+        for (int s = 0; s < stations.length; s++) {
+            firstGroup[s] = groups;
+            Arrays.sort(order, firstDeparture[s], firstDeparture[s + 1]);
+            for (int i = firstDeparture[s]; i < firstDeparture[s + 1]; i++) {
+                int d = (int) order[i];
+                groupedDepartures[i] = d;
+                if (i == firstDeparture[s] || departureTo[d] != departureTo[groupedDepartures[i - 1]]) {
+                    groupStart[groups] = i;
+                    target[groups] = departureTo[d];
+                    groups++;
+                }
+            }
+        }
+        firstGroup[stations.length] = groups;
+        groupStart[groups] = count;
+        this.groupTarget = Arrays.copyOf(target, groups);
+        this.firstInGroup = Arrays.copyOf(groupStart, groups + 1);
+    }
+
+    /**
+     * Vraća broj stanica.
+     *
+     * @return Broj stanica u voznom redu.
+     */
+    public int stationCount() {
+        return stations.length;
+    }
+
+    /**
+     * Vraća broj polazaka.
+     *
+     * @return Broj polazaka u voznom redu.
+     */
+    public int departureCount() {
+        return departures.length;
+    }
+
+    /**
+     * Vraća stanicu sa zadatim internim ID-em.
+     *
+     * @param station Interni ID stanice.
+     * @return {@link Station} objekat.
+     */
+    public Station getStation(int station) {
+        return stations[station];
+    }
+
+    /**
+     * Vraća interni ID stanice.
+     *
+     * @param station Stanica.
+     * @return Interni ID, ili -1 ako stanica nije u voznom redu.
+     */
+    public int indexOf(Station station) {
+        Integer index = stationIndex.get(station);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Vraća interne ID-eve svih stanica u datom gradu, rastuće.
+     * <p>
+     * Niz se izračunava jednom, pri kompajliranju, i dijeli između svih poziva, pa ga
+     * pozivalac ne smije mijenjati.
+     * </p>
+     *
+     * @param city Grad.
+     * @return Niz internih ID-eva stanica (prazan ako grad nema stanica).
+     */
+    public int[] stationsInCity(City city) {
+        int[] result = cityStations.get(city);
+        return result != null ? result : new int[0];
+    }
+
+    /**
+     * Vraća oznake stanica koje pripadaju datom gradu.
+     *
+     * @param city Grad.
+     * @return Niz u kojem je {@code true} na pozicijama stanica tog grada.
+     */
+    public boolean[] cityMask(City city) {
+        boolean[] mask = new boolean[stations.length];
+        for (int s : stationsInCity(city)) {
+            mask[s] = true;
+        }
+        return mask;
+    }
+
+    /**
+     * Vraća indeks prvog polaska stanice.
+     *
+     * @param station Interni ID stanice.
+     * @return Indeks prvog polaska.
+     */
+    public int firstDeparture(int station) {
+        return firstDeparture[station];
+    }
+
+    /**
+     * Vraća indeks iza posljednjeg polaska stanice.
+     *
+     * @param station Interni ID stanice.
+     * @return Indeks iza posljednjeg polaska.
+     */
+    public int endDeparture(int station) {
+        return firstDeparture[station + 1];
+    }
+
+    /**
+     * Vraća polaznu stanicu polaska.
+     *
+     * @param departure Indeks polaska.
+     * @return Interni ID polazne stanice.
+     */
+    public int departureFrom(int departure) {
+        return departureFrom[departure];
+    }
+
+    /**
+     * Vraća dolaznu stanicu polaska.
+     *
+     * @param departure Indeks polaska.
+     * @return Interni ID dolazne stanice.
+     */
+    public int departureTo(int departure) {
+        return departureTo[departure];
+    }
+
+    /**
+     * Vraća minutu u danu u kojoj polazak kreće.
+     *
+     * @param departure Indeks polaska.
+     * @return Minuta polaska, od 0 do 1439.
+     */
+    public int departureMinute(int departure) {
+        return departureMinute[departure];
+    }
+
+    /**
+     * Vraća minutu u danu u kojoj polazak stiže.
+     *
+     * @param departure Indeks polaska.
+     * @return Minuta dolaska, od 0 do 1439.
+     */
+    public int arrivalMinute(int departure) {
+        return arrivalMinute[departure];
+    }
+
+    /**
+     * Vraća trajanje vožnje u minutama.
+     *
+     * @param departure Indeks polaska.
+     * @return Trajanje vožnje.
+     */
+    public int rideMinutes(int departure) {
+        return rideMinutes[departure];
+    }
+
+    /**
+     * Vraća cijenu vožnje u feninzima.
+     *
+     * @param departure Indeks polaska.
+     * @return Cijena u feninzima.
+     */
+    public int priceCents(int departure) {
+        return priceCents[departure];
+    }
+
+    /**
+     * Vraća vrstu prevoza polaska.
+     *
+     * @param departure Indeks polaska.
+     * @return {@link #MODE_BUS} ili {@link #MODE_TRAIN}.
+     */
+    public int mode(int departure) {
+        return mode[departure];
+    }
+
+    /**
+     * Provjerava da li svi polasci saobraćaju svaki dan u sedmici.
+     *
+     * @return {@code true} ako nijedan polazak nema ograničene dane saobraćanja.
+     */
+    public boolean isDaily() {
+        return daily;
+    }
+
+    /**
+     * Provjerava da li polazak saobraća zadatog dana u sedmici.
+     *
+     * @param departure Indeks polaska.
+     * @param dayOfWeek Dan u sedmici, od 0 (ponedjeljak) do 6 (nedjelja); veće i negativne
+     *                  vrijednosti se svode po modulu 7.
+     * @return {@code true} ako polazak tog dana saobraća.
+     */
+    public boolean runsOn(int departure, int dayOfWeek) {
+        return (serviceDays[departure] & (1 << Math.floorMod(dayOfWeek, 7))) != 0;
+    }
+
+    /**
+     * Vraća apsolutnu minutu prvog polaska koji se može uhvatiti u minuti {@code readyMinute}
+     * ili kasnije, ne gledajući dane saobraćanja.
+     *
+     * @param departure Indeks polaska.
+     * @param readyMinute Apsolutna minuta od ponoći prvog dana putovanja.
+     * @return Apsolutna minuta polaska, najviše jedan dan nakon {@code readyMinute}.
+     */
+    public int nextDepartureMinute(int departure, int readyMinute) {
+        return readyMinute + Math.floorMod(departureMinute[departure] - readyMinute, MINUTES_PER_DAY);
+    }
+
+    /**
+     * Vraća apsolutnu minutu prvog polaska koji se može uhvatiti u minuti {@code readyMinute}
+     * ili kasnije, i to samo u dane u kojima polazak saobraća.
+     *
+     * @param departure Indeks polaska.
+     * @param readyMinute Apsolutna minuta od ponoći prvog dana putovanja.
+     * @param firstDayOfWeek Dan u sedmici prvog dana putovanja, od 0 (ponedjeljak) do 6.
+     * @return Apsolutna minuta polaska, ili -1 ako polazak ne saobraća nijedan dan.
+     */
+    public int nextDepartureMinute(int departure, int readyMinute, int firstDayOfWeek) {
+        int minute = nextDepartureMinute(departure, readyMinute);
+        for (int day = 0; day < 7; day++, minute += MINUTES_PER_DAY) {
+            if (runsOn(departure, firstDayOfWeek + Math.floorDiv(minute, MINUTES_PER_DAY))) {
+                return minute;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Vraća originalni objekat polaska.
+     *
+     * @param departure Indeks polaska.
+     * @return {@link Departure} objekat.
+     */
+    public Departure getDeparture(int departure) {
+        return departures[departure];
+    }
+
+    /**
+     * Pronalazi prvi polazak sa stanice u minuti {@code minute} ili kasnije, uz prelazak
+     * na naredni dan (prvi polazak stanice) ako tog dana više nema polazaka.
+     *
+     * @param station Interni ID stanice.
+     * @param minute Minuta u danu.
+     * @return Indeks polaska, ili -1 ako stanica nema polazaka.
+     */
+    public int firstDepartureAtOrAfter(int station, int minute) {
+        int low = firstDeparture[station];
+        int end = firstDeparture[station + 1];
+        if (low == end) {
+            return -1;
+        }
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departureMinute[mid] < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < end ? low : firstDeparture[station];
+    }
+
+    /**
+     * Vraća prvu grupu polazaka stanice.
+     *
+     * @param station Interni ID stanice.
+     * @return Indeks prve grupe.
+     */
+    public int firstGroup(int station) {
+        return firstGroup[station];
+    }
+
+    /**
+     * Vraća indeks iza posljednje grupe polazaka stanice.
+     *
+     * @param station Interni ID stanice.
+     * @return Indeks iza posljednje grupe.
+     */
+    public int endGroup(int station) {
+        return firstGroup[station + 1];
+    }
+
+    /**
+     * Vraća dolaznu stanicu svih polazaka grupe.
+     *
+     * @param group Indeks grupe.
+     * @return Interni ID dolazne stanice.
+     */
+    public int groupTarget(int group) {
+        return groupTarget[group];
+    }
+
+    /**
+     * Vraća prvu poziciju grupe u {@link #groupedDeparture(int)}.
+     *
+     * @param group Indeks grupe.
+     * @return Prva pozicija.
+     */
+    public int firstInGroup(int group) {
+        return firstInGroup[group];
+    }
+
+    /**
+     * Vraća poziciju iza posljednjeg polaska grupe.
+     *
+     * @param group Indeks grupe.
+     * @return Pozicija iza posljednjeg polaska.
+     */
+    public int endInGroup(int group) {
+        return firstInGroup[group + 1];
+    }
+
+    /**
+     * Vraća indeks polaska na zadatoj poziciji u grupama.
+     *
+     * @param position Pozicija između {@link #firstInGroup(int)} i {@link #endInGroup(int)}.
+     * @return Indeks polaska.
+     */
+    public int groupedDeparture(int position) {
+        return groupedDepartures[position];
+    }
+
+    /**
+     * Pronalazi poziciju prvog polaska grupe u minuti {@code minute} ili kasnije, uz
+     * prelazak na prvi polazak grupe (naredni dan) ako tog dana više nema polazaka.
+     *
+     * @param group Indeks grupe.
+     * @param minute Minuta u danu.
+     * @return Pozicija polaska u grupama.
+     */
+    public int firstInGroupAtOrAfter(int group, int minute) {
+        int low = firstInGroup[group];
+        int end = firstInGroup[group + 1];
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departureMinute[groupedDepartures[mid]] < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < end ? low : firstInGroup[group];
+    }
+
+    /**
+     * Vraća početnu poziciju dolaznih polazaka stanice u {@link #incomingDeparture(int)}.
+     *
+     * @param station Interni ID stanice.
+     * @return Prva pozicija.
+     */
+    public int firstIncoming(int station) {
+        return firstIncoming[station];
+    }
+
+    /**
+     * Vraća poziciju iza posljednjeg dolaznog polaska stanice.
+     *
+     * @param station Interni ID stanice.
+     * @return Pozicija iza posljednjeg dolaznog polaska.
+     */
+    public int endIncoming(int station) {
+        return firstIncoming[station + 1];
+    }
+
+    /**
+     * Vraća indeks dolaznog polaska na zadatoj poziciji.
+     *
+     * @param position Pozicija između {@link #firstIncoming(int)} i {@link #endIncoming(int)}.
+     * @return Indeks polaska.
+     */
+    public int incomingDeparture(int position) {
+        return incomingDepartures[position];
+    }
+
+    /**
+     * Rekonstruiše putanju od niza polazaka. Prva vožnja kreće prvog dana putovanja,
+     * a svaka naredna prvi put kada se može uhvatiti nakon dolaska prethodne.
+     *
+     * @param departureIndices Indeksi polazaka, redom od prve vožnje.
+     * @return Nova {@link Path}.
+     */
+    public Path toPath(int[] departureIndices) {
+        int[] departureMinutes = new int[departureIndices.length];
+        int minute = 0;
+        for (int i = 0; i < departureIndices.length; i++) {
+            int d = departureIndices[i];
+            departureMinutes[i] = i == 0 ? departureMinute[d] : nextDepartureMinute(d, minute);
+            minute = departureMinutes[i] + rideMinutes[d];
+        }
+        return toPath(departureIndices, departureMinutes);
+    }
+
+    /**
+     * Rekonstruiše putanju od niza polazaka sa poznatim apsolutnim minutama polaska.
+     *
+     * @param departureIndices Indeksi polazaka, redom od prve vožnje.
+     * @param departureMinutes Apsolutna minuta polaska svake vožnje, od ponoći prvog dana putovanja.
+     * @return Nova {@link Path}.
+     */
+    public Path toPath(int[] departureIndices, int[] departureMinutes) {
+        Path path = new Path();
+        for (int i = 0; i < departureIndices.length; i++) {
+            int d = departureIndices[i];
+            path.addSegment(new RouteSegment(
+                    departures[d],
+                    stations[departureFrom[d]],
+                    stations[departureTo[d]],
+                    departureMinutes[i],
+                    departureMinutes[i] + rideMinutes[d]
+            ));
+        }
+        return path;
+    }
+}
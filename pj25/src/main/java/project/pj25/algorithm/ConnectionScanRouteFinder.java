@@ -0,0 +1,742 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Klasa za pronalazak ruta pomoću Connection Scan algoritma (CSA).
+ * <p>
+ * Umjesto prioritetnog reda, svi polasci iz {@link CompiledTimetable} se prilikom
+ * kreiranja objekta smještaju u jedan ravan niz sortiran po minuti polaska.
+ * Pretraga zatim prolazi kroz taj niz redom i za svaki polazak samo provjerava
+ * da li je polazna stanica dostignuta na vrijeme i da li polazak poboljšava
+ * vrijeme dolaska na dolaznu stanicu. Pošto se vozni red ponavlja svakog dana,
+ * niz se po potrebi skenira više puta, uz pomak od 24h za svaki naredni dan.
+ * </p>
+ * <p>
+ * Algoritam rješava kriterijum "time" za jednu rutu: za svako vrijeme polaska iz
+ * početnog grada računa najraniji dolazak u odredišni grad, a najbolja je ruta sa
+ * najkraćim ukupnim trajanjem. Pravila su ista kao u {@link RouteFinder}: polazak se
+ * može uhvatiti od trenutka dolaska na stanicu, a polazak koji je ranije u toku dana
+ * se čeka do narednog dana. Upiti za više ruta i za ostale kriterijume se
+ * prosljeđuju rezervnom algoritmu.
+ * </p>
+ * <p>
+ * Polasci koji ne mijenjaju nijedan dolazak preskaču se pomoću {@link ConnectionScanner};
+ * uz opciju {@code vectorized}, modul {@code jdk.incubator.vector} i build sa Maven
+ * profilom {@code vector} ta provjera se izvršava vektorski, za više polazaka odjednom,
+ * a rezultat je isti kao kod skalarne.
+ * </p>
+ * <p>
+ * Metoda {@link #findProfile(City, City)} jednim prolazom kroz minute polaska računa
+ * {@link JourneyProfile}, tj. najbolje rute za svako vrijeme polaska u toku dana.
+ * Upiti za zadato vrijeme ({@link #findDepartingAfter(City, City, LocalTime, int)} i
+ * {@link #findArrivingBy(City, City, LocalTime, int)}) skeniraju samo dio dana između
+ * zadatog vremena i najboljeg pronađenog putovanja; upit "dolazak do" skenira polaske
+ * unazad, po vremenu dolaska. Upit sa datumom
+ * ({@link #findDepartingAfter(City, City, LocalDateTime, int)}) koristi samo polaske koji
+ * saobraćaju u dane putovanja.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RoutingEngine
+ * @see RouteFinder
+ */
+public class ConnectionScanRouteFinder implements RoutingEngine {
+
+    /**
+     * Broj minuta u jednom danu.
+     */
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Vrijednost koja označava da stanica još nije dostignuta.
+     */
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    /**
+     * Oznaka da skeniranje ne provjerava dane saobraćanja polazaka.
+     */
+    private static final int ANY_DAY = -1;
+
+    /**
+     * Algoritam kojem se prosljeđuju kriterijumi koje CSA ne podržava.
+     */
+    private final RoutingEngine fallbackEngine;
+
+    /**
+     * Kompajlirani vozni red iz kojeg je izgrađen niz polazaka.
+     */
+    private final CompiledTimetable timetable;
+
+    /**
+     * Polazna stanica (interni ID) svakog polaska u sortiranom nizu.
+     */
+    private final int[] connectionFrom;
+
+    /**
+     * Dolazna stanica (interni ID) svakog polaska u sortiranom nizu.
+     */
+    private final int[] connectionTo;
+
+    /**
+     * Minuta u danu u kojoj polazak kreće; niz je sortiran rastuće.
+     */
+    private final int[] connectionDepartureMinute;
+
+    /**
+     * Trajanje vožnje u minutama (uzimajući u obzir prelazak preko ponoći).
+     */
+    private final int[] connectionDuration;
+
+    /**
+     * Indeks polaska u {@link CompiledTimetable}, potreban za rekonstrukciju rute.
+     */
+    private final int[] connectionDeparture;
+
+    /**
+     * Skener koji preskače polaske bez poboljšanja.
+     */
+    private final ConnectionScanner scanner;
+
+    /**
+     * Skeniranje unazad koje bira najjeftinije među najbržim putovanjima.
+     */
+    private final BoundedArrivalScan boundedArrivalScan;
+
+    /**
+     * Indeksi polazaka u sortiranom nizu, poredani po minuti dolaska u danu.
+     */
+    private final int[] connectionsByArrival;
+
+    /**
+     * Minuta dolaska u danu za svaki polazak iz {@link #connectionsByArrival}; niz je sortiran rastuće.
+     */
+    private final int[] arrivalMinuteByArrival;
+
+    /**
+     * Konstruktor koji kao rezervni algoritam koristi {@link KShortestRouteFinder}.
+     *
+     * @param transportMap Transportna mapa koja se koristi za pretragu.
+     */
+    public ConnectionScanRouteFinder(TransportMap transportMap) {
+        this(new CompiledTimetable(transportMap));
+    }
+
+    /**
+     * Konstruktor koji kao rezervni algoritam koristi {@link KShortestRouteFinder}
+     * nad istim kompajliranim voznim redom.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     */
+    public ConnectionScanRouteFinder(CompiledTimetable timetable) {
+        this(timetable, new KShortestRouteFinder(timetable));
+    }
+
+    /**
+     * Konstruktor koji gradi sortirani niz svih polazaka iz transportne mape.
+     *
+     * @param transportMap Transportna mapa koja se koristi za pretragu.
+     * @param fallbackEngine Algoritam koji se koristi za kriterijume različite od "time".
+     */
+    public ConnectionScanRouteFinder(TransportMap transportMap, RoutingEngine fallbackEngine) {
+        this(new CompiledTimetable(transportMap), fallbackEngine);
+    }
+
+    /**
+     * Konstruktor koji gradi sortirani niz svih polazaka iz kompajliranog voznog reda.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     * @param fallbackEngine Algoritam koji se koristi za kriterijume različite od "time".
+     */
+    public ConnectionScanRouteFinder(CompiledTimetable timetable, RoutingEngine fallbackEngine) {
+        this(timetable, fallbackEngine, false);
+    }
+
+    /**
+     * Konstruktor koji gradi sortirani niz svih polazaka iz kompajliranog voznog reda,
+     * uz izbor vektorskog skeniranja.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     * @param fallbackEngine Algoritam koji se koristi za kriterijume različite od "time".
+     * @param vectorized Da li treba koristiti Vector API, ako je dostupan pri pokretanju.
+     */
+    public ConnectionScanRouteFinder(CompiledTimetable timetable, RoutingEngine fallbackEngine, boolean vectorized) {
+        this.fallbackEngine = fallbackEngine;
+        this.timetable = timetable;
+
+        // Sortiranje po minuti polaska; redoslijed u voznom redu razrješava jednakosti
+        int count = timetable.departureCount();
+        long[] order = new long[count];
+        for (int d = 0; d < count; d++) {
+            order[d] = ((long) timetable.departureMinute(d) << 32) | d;
+        }
+        Arrays.sort(order);
+
+        this.connectionFrom = new int[count];
+        this.connectionTo = new int[count];
+        this.connectionDepartureMinute = new int[count];
+        this.connectionDuration = new int[count];
+        this.connectionDeparture = new int[count];
+        for (int i = 0; i < count; i++) {
+            int d = (int) order[i];
+            connectionFrom[i] = timetable.departureFrom(d);
+            connectionTo[i] = timetable.departureTo(d);
+            connectionDepartureMinute[i] = timetable.departureMinute(d);
+            connectionDuration[i] = timetable.rideMinutes(d);
+            connectionDeparture[i] = d;
+        }
+
+        // Isti polasci poredani po minuti dolaska, za skeniranje unazad
+        for (int i = 0; i < count; i++) {
+            int arrivalMinute = (connectionDepartureMinute[i] + connectionDuration[i]) % MINUTES_PER_DAY;
+            order[i] = ((long) arrivalMinute << 32) | i;
+        }
+        Arrays.sort(order);
+        this.connectionsByArrival = new int[count];
+        this.arrivalMinuteByArrival = new int[count];
+        for (int k = 0; k < count; k++) {
+            connectionsByArrival[k] = (int) order[k];
+            arrivalMinuteByArrival[k] = (int) (order[k] >>> 32);
+        }
+
+        this.boundedArrivalScan = new BoundedArrivalScan(timetable);
+        this.scanner = ConnectionScanner.create(connectionFrom, connectionTo, connectionDepartureMinute,
+                connectionDuration, vectorized);
+    }
+
+    /**
+     * Provjerava da li se skeniranje izvršava vektorski.
+     *
+     * @return {@code true} ako je tražen i dostupan Vector API.
+     */
+    public boolean isVectorized() {
+        return scanner.isVectorized();
+    }
+
+    /**
+     * Pronalazi najbolju rutu po kriterijumu "time".
+     * <p>
+     * Za svaku različitu minutu polaska sa stanica početnog grada pokreće se jedno
+     * skeniranje niza polazaka koje daje najraniji dolazak u odredišni grad, a time i
+     * najkraće trajanje putovanja. Među putovanjima sa najkraćim trajanjem
+     * {@link BoundedArrivalScan} bira najjeftinije, pa ono sa najmanje vožnji, kao
+     * {@link RouteFinder}. Jedno skeniranje daje samo jedno putovanje po minuti
+     * polaska, pa CSA odgovara samo na upit za jednu rutu; upiti za više ruta i za
+     * ostale kriterijume se prosljeđuju rezervnom algoritmu.
+     * </p>
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @return Lista pronađenih {@link Path} objekata, sortirana po kriterijumu.
+     */
+    @Override
+    public List<Path> findTopNRoutes(City startCity, City endCity, String optimizationCriterion, int limit) {
+        if (!"time".equalsIgnoreCase(optimizationCriterion) || limit != 1) {
+            return fallbackEngine.findTopNRoutes(startCity, endCity, optimizationCriterion, limit);
+        }
+
+        int stationCount = timetable.stationCount();
+        boolean[] isSource = timetable.cityMask(startCity);
+        boolean[] isTarget = timetable.cityMask(endCity);
+
+        boolean[] isStartMinute = new boolean[MINUTES_PER_DAY];
+        for (int i = 0; i < connectionFrom.length; i++) {
+            if (isSource[connectionFrom[i]]) {
+                isStartMinute[connectionDepartureMinute[i]] = true;
+            }
+        }
+
+        int[] arrival = new int[stationCount];
+        int[] inConnection = new int[stationCount];
+        int[] inDepartureMinute = new int[stationCount];
+        int[] duration = new int[MINUTES_PER_DAY];
+        Arrays.fill(duration, UNREACHED);
+        int bestDuration = UNREACHED;
+        for (int startMinute = 0; startMinute < MINUTES_PER_DAY; startMinute++) {
+            if (!isStartMinute[startMinute]) continue;
+
+            int target = scanEarliestArrival(startMinute, isSource, isTarget, arrival, inConnection, inDepartureMinute,
+                    ANY_DAY);
+            if (target < 0) continue;
+            duration[startMinute] = arrival[target] - startMinute;
+            bestDuration = Math.min(bestDuration, duration[startMinute]);
+        }
+        return boundedArrivalScan.findBestOfShortest(isSource, isTarget, duration, bestDuration, OptimizationCriterion.TIME);
+    }
+
+    /**
+     * Računa profil putovanja: najbolje rute od početnog do odredišnog grada za svako
+     * vrijeme polaska u toku dana.
+     * <p>
+     * Minute polaska sa stanica početnog grada se obrađuju od kasnije ka ranijoj, kao
+     * u profilnim varijantama CSA i rRAPTOR algoritma. Dolasci se između skeniranja
+     * ne brišu: ono što je dostižno polaskom u kasnijoj minuti dostižno je i uz raniji
+     * polazak (uz čekanje), pa raniji dolasci ostaju važeće gornje granice i skeniranje
+     * ranije minute obrađuje samo polaske koji nešto poboljšavaju. Ruta se dodaje u
+     * profil samo ako stiže ranije od svih ruta sa kasnijim polaskom.
+     * </p>
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @return {@link JourneyProfile} sa Pareto skupom ruta u toku dana.
+     */
+    public JourneyProfile findProfile(City startCity, City endCity) {
+        int stationCount = timetable.stationCount();
+        boolean[] isSource = timetable.cityMask(startCity);
+        boolean[] isTarget = timetable.cityMask(endCity);
+
+        boolean[] isStartMinute = new boolean[MINUTES_PER_DAY];
+        for (int i = 0; i < connectionFrom.length; i++) {
+            if (isSource[connectionFrom[i]]) {
+                isStartMinute[connectionDepartureMinute[i]] = true;
+            }
+        }
+
+        int[] arrival = new int[stationCount];
+        int[] inConnection = new int[stationCount];
+        int[] inDepartureMinute = new int[stationCount];
+        Arrays.fill(arrival, UNREACHED);
+        Arrays.fill(inConnection, -1);
+
+        // Profil se puni od najkasnijeg polaska, pa su liste obrnutog redoslijeda
+        List<Integer> departureMinutes = new ArrayList<>();
+        List<Integer> arrivalMinutes = new ArrayList<>();
+        List<Path> routes = new ArrayList<>();
+        int target = -1;
+        int profileArrival = UNREACHED;
+
+        for (int startMinute = MINUTES_PER_DAY - 1; startMinute >= 0; startMinute--) {
+            if (!isStartMinute[startMinute]) continue;
+
+            for (int i = 0; i < stationCount; i++) {
+                if (isSource[i]) {
+                    arrival[i] = startMinute;
+                    inConnection[i] = -1;
+                }
+            }
+            target = scan(startMinute, isTarget, target, arrival, inConnection, inDepartureMinute, ANY_DAY);
+            if (target < 0 || arrival[target] >= profileArrival) continue;
+
+            int[] journey = journeyConnections(target, inConnection);
+            if (journey.length == 0) continue;
+            int departureMinute = inDepartureMinute[connectionTo[journey[0]]];
+            if (departureMinute >= MINUTES_PER_DAY) continue;
+
+            profileArrival = arrival[target];
+            departureMinutes.add(departureMinute);
+            arrivalMinutes.add(profileArrival);
+            routes.add(toPath(journey));
+        }
+
+        int size = routes.size();
+        int[] departureArray = new int[size];
+        int[] arrivalArray = new int[size];
+        List<Path> routeList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            departureArray[i] = departureMinutes.get(size - 1 - i);
+            arrivalArray[i] = arrivalMinutes.get(size - 1 - i);
+            routeList.add(routes.get(size - 1 - i));
+        }
+        return new JourneyProfile(departureArray, arrivalArray, routeList);
+    }
+
+    /**
+     * Pronalazi do N narednih putovanja sa polaskom u zadato vrijeme ili kasnije.
+     * <p>
+     * Prvo putovanje je ono sa najranijim dolaskom za polazak od zadatog vremena;
+     * svako naredno je najranije putovanje koje kreće bar minutu nakon polaska
+     * prethodnog. Skeniranje za jedno putovanje staje na njegovom dolasku, pa upit
+     * ne prolazi kroz sve minute dana kao {@link #findTopNRoutes(City, City, String, int)}.
+     * Traže se najviše putovanja sa polaskom u narednih 24h. Dani saobraćanja
+     * polazaka se ne provjeravaju, tj. vozni red se smatra istim svakog dana.
+     * </p>
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param departureTime Najranije vrijeme polaska.
+     * @param limit Maksimalan broj putovanja koje treba vratiti.
+     * @return Lista putovanja, redom po vremenu polaska.
+     */
+    public List<Path> findDepartingAfter(City startCity, City endCity, LocalTime departureTime, int limit) {
+        int stationCount = timetable.stationCount();
+        boolean[] isSource = timetable.cityMask(startCity);
+        boolean[] isTarget = timetable.cityMask(endCity);
+        int[] arrival = new int[stationCount];
+        int[] inConnection = new int[stationCount];
+        int[] inDepartureMinute = new int[stationCount];
+        int firstMinute = toMinute(departureTime);
+
+        List<Path> journeys = new ArrayList<>();
+        for (int offset = 0; journeys.size() < limit && offset < MINUTES_PER_DAY; ) {
+            int startMinute = (firstMinute + offset) % MINUTES_PER_DAY;
+            int target = scanEarliestArrival(startMinute, isSource, isTarget, arrival, inConnection, inDepartureMinute,
+                    ANY_DAY);
+            if (target < 0) break;
+            int[] journey = journeyConnections(target, inConnection);
+            if (journey.length == 0) break;
+
+            journeys.add(toPath(journey));
+            offset += inDepartureMinute[connectionTo[journey[0]]] - startMinute + 1;
+        }
+        return journeys;
+    }
+
+    /**
+     * Pronalazi do N narednih putovanja sa polaskom od zadatog datuma i vremena,
+     * koristeći samo polaske koji saobraćaju u dane putovanja.
+     * <p>
+     * Putovanja se biraju kao u {@link #findDepartingAfter(City, City, LocalTime, int)},
+     * ali se polazak preskače ako ne saobraća dana u kojem bi bio uhvaćen. Putovanje
+     * tako može čekati i više dana na polazak koji ne saobraća svakodnevno. Vremena u
+     * vraćenim rutama su apsolutne minute od ponoći zadatog datuma
+     * ({@link Path#getStartMinute()}, {@link RouteSegment#getDepartureDay()}).
+     * </p>
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param departureDateTime Najraniji datum i vrijeme polaska.
+     * @param limit Maksimalan broj putovanja koje treba vratiti.
+     * @return Lista putovanja, redom po vremenu polaska.
+     */
+    public List<Path> findDepartingAfter(City startCity, City endCity, LocalDateTime departureDateTime, int limit) {
+        int stationCount = timetable.stationCount();
+        boolean[] isSource = timetable.cityMask(startCity);
+        boolean[] isTarget = timetable.cityMask(endCity);
+        int[] arrival = new int[stationCount];
+        int[] inConnection = new int[stationCount];
+        int[] inDepartureMinute = new int[stationCount];
+        int firstMinute = toMinute(departureDateTime.toLocalTime());
+        int firstDayOfWeek = departureDateTime.getDayOfWeek().getValue() - 1;
+
+        List<Path> journeys = new ArrayList<>();
+        for (int offset = 0; journeys.size() < limit && offset < MINUTES_PER_DAY; ) {
+            int startDay = (firstMinute + offset) / MINUTES_PER_DAY;
+            int startMinute = (firstMinute + offset) % MINUTES_PER_DAY;
+            int target = scanEarliestArrival(startMinute, isSource, isTarget, arrival, inConnection, inDepartureMinute,
+                    firstDayOfWeek + startDay);
+            if (target < 0) break;
+            int[] journey = journeyConnections(target, inConnection);
+            if (journey.length == 0) break;
+
+            int[] departures = new int[journey.length];
+            int[] departureMinutes = new int[journey.length];
+            for (int i = 0; i < journey.length; i++) {
+                departures[i] = connectionDeparture[journey[i]];
+                departureMinutes[i] = startDay * MINUTES_PER_DAY + inDepartureMinute[connectionTo[journey[i]]];
+            }
+            journeys.add(timetable.toPath(departures, departureMinutes));
+            offset += inDepartureMinute[connectionTo[journey[0]]] - startMinute + 1;
+        }
+        return journeys;
+    }
+
+    /**
+     * Pronalazi do N putovanja sa dolaskom u zadato vrijeme ili ranije.
+     * <p>
+     * Prvo putovanje je ono sa najkasnijim polaskom koje stiže do zadatog vremena;
+     * svako naredno je najkasnije putovanje koje stiže bar minutu prije dolaska
+     * prethodnog. Putovanja se traže skeniranjem polazaka unazad, od zadatog vremena
+     * dolaska ka ranijim dolascima, i skeniranje staje na polasku najboljeg putovanja.
+     * Traže se najviše putovanja sa dolaskom u prethodnih 24h.
+     * </p>
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param arrivalTime Najkasnije vrijeme dolaska.
+     * @param limit Maksimalan broj putovanja koje treba vratiti.
+     * @return Lista putovanja, od najkasnijeg dolaska ka ranijim.
+     */
+    public List<Path> findArrivingBy(City startCity, City endCity, LocalTime arrivalTime, int limit) {
+        int stationCount = timetable.stationCount();
+        boolean[] isSource = timetable.cityMask(startCity);
+        boolean[] isTarget = timetable.cityMask(endCity);
+        int[] latestDeparture = new int[stationCount];
+        int[] outConnection = new int[stationCount];
+        int lastMinute = toMinute(arrivalTime);
+
+        List<Path> journeys = new ArrayList<>();
+        for (int offset = 0; journeys.size() < limit && offset < MINUTES_PER_DAY; ) {
+            int endMinute = Math.floorMod(lastMinute - offset, MINUTES_PER_DAY);
+            int source = scanLatestDeparture(endMinute, isSource, isTarget, latestDeparture, outConnection);
+            if (source < 0) break;
+
+            List<Integer> connections = new ArrayList<>();
+            int station = source;
+            int journeyArrival = endMinute;
+            while (outConnection[station] >= 0) {
+                int c = outConnection[station];
+                connections.add(c);
+                journeyArrival = latestDeparture[station] + connectionDuration[c];
+                station = connectionTo[c];
+            }
+            if (connections.isEmpty()) break;
+
+            int[] journey = new int[connections.size()];
+            for (int i = 0; i < journey.length; i++) {
+                journey[i] = connections.get(i);
+            }
+            journeys.add(toPath(journey));
+            offset += endMinute - journeyArrival + 1;
+        }
+        return journeys;
+    }
+
+    /**
+     * Skenira polaske unazad, po vremenu dolaska, i računa za svaku stanicu najkasniji
+     * trenutak u kojem se sa nje može krenuti i stići u odredišni grad do zadate minute.
+     * <p>
+     * Simetrično skeniranju unaprijed: polazak se koristi ako stiže na dolaznu stanicu
+     * najkasnije u trenutku u kojem se sa nje mora krenuti, a poboljšava polaznu
+     * stanicu ako kreće kasnije od njenog dosadašnjeg najkasnijeg polaska. Skeniranje
+     * se prekida čim polazak stiže prije najkasnijeg pronađenog polaska iz početnog
+     * grada, ili nakon dva uzastopna dana bez poboljšanja.
+     * </p>
+     *
+     * @param endMinute Minuta u danu do koje treba stići u odredišni grad.
+     * @param isSource Oznake stanica početnog grada.
+     * @param isTarget Oznake stanica odredišnog grada.
+     * @param latestDeparture Najkasniji polazak sa svake stanice (apsolutne minute; prethodni dani su negativni).
+     * @param outConnection Indeks polaska kojim se sa stanice nastavlja, ili -1.
+     * @return Interni ID stanice početnog grada sa najkasnijim polaskom, ili -1.
+     */
+    private int scanLatestDeparture(int endMinute, boolean[] isSource, boolean[] isTarget,
+                                    int[] latestDeparture, int[] outConnection) {
+        Arrays.fill(latestDeparture, Integer.MIN_VALUE);
+        Arrays.fill(outConnection, -1);
+        for (int i = 0; i < isTarget.length; i++) {
+            if (isTarget[i]) {
+                latestDeparture[i] = endMinute;
+            }
+        }
+
+        int bestSource = -1;
+        int bestDeparture = Integer.MIN_VALUE;
+        int lastConnection = firstArrivalAfter(endMinute);
+        int daysWithoutImprovement = 0;
+
+        for (int day = 0; daysWithoutImprovement < 2; day++) {
+            int dayOffset = -day * MINUTES_PER_DAY;
+            boolean improved = false;
+
+            for (int k = (day == 0 ? lastConnection : connectionsByArrival.length) - 1; k >= 0; k--) {
+                int arrivalMinute = dayOffset + arrivalMinuteByArrival[k];
+                if (arrivalMinute <= bestDeparture) {
+                    return bestSource;
+                }
+                int c = connectionsByArrival[k];
+                if (arrivalMinute > latestDeparture[connectionTo[c]]) continue;
+
+                int departureMinute = arrivalMinute - connectionDuration[c];
+                int from = connectionFrom[c];
+                if (departureMinute > latestDeparture[from]) {
+                    latestDeparture[from] = departureMinute;
+                    outConnection[from] = c;
+                    improved = true;
+                    if (isSource[from] && departureMinute > bestDeparture) {
+                        bestDeparture = departureMinute;
+                        bestSource = from;
+                    }
+                }
+            }
+
+            if (day > 0) {
+                daysWithoutImprovement = improved ? 0 : daysWithoutImprovement + 1;
+            }
+        }
+        return bestSource;
+    }
+
+    /**
+     * Skenira niz polazaka od zadate minute i računa najranije dolaske na sve stanice.
+     *
+     * @param startMinute Minuta u danu od koje su stanice početnog grada dostupne.
+     * @param isSource Oznake stanica početnog grada.
+     * @param isTarget Oznake stanica odredišnog grada.
+     * @param arrival Niz najranijih dolazaka (apsolutne minute od početka prvog dana).
+     * @param inConnection Indeks polaska kojim je stanica dostignuta, ili -1.
+     * @param inDepartureMinute Apsolutna minuta u kojoj je taj polazak krenuo.
+     * @param firstDayOfWeek Dan u sedmici prvog dana (0 je ponedjeljak), ili {@link #ANY_DAY}.
+     * @return Interni ID najranije dostignute stanice odredišnog grada, ili -1.
+     */
+    private int scanEarliestArrival(int startMinute, boolean[] isSource, boolean[] isTarget,
+                                    int[] arrival, int[] inConnection, int[] inDepartureMinute,
+                                    int firstDayOfWeek) {
+        Arrays.fill(arrival, UNREACHED);
+        Arrays.fill(inConnection, -1);
+        for (int i = 0; i < isSource.length; i++) {
+            if (isSource[i]) {
+                arrival[i] = startMinute;
+            }
+        }
+        return scan(startMinute, isTarget, -1, arrival, inConnection, inDepartureMinute, firstDayOfWeek);
+    }
+
+    /**
+     * Skenira niz polazaka od zadate minute, nad već postavljenim dolascima.
+     * <p>
+     * Skeniranje se prekida čim polazak kreće kasnije od najboljeg dolaska u odredišni
+     * grad. Polasci koji ne mijenjaju nijedan dolazak se preskaču skenerom, a samo
+     * pronađeni polasci se obrađuju ovdje. Ako odredište nije dostižno, prekida se
+     * nakon dva uzastopna dana bez ijednog poboljšanja, jer tada ni naredni dani ne
+     * mogu ništa promijeniti.
+     * </p>
+     * <p>
+     * Ako je zadat dan u sedmici, pronađeni polazak se koristi samo ako saobraća tog
+     * dana skeniranja. Vozni red se tada ponavlja tek nakon sedmice, pa se skeniranje
+     * prekida nakon osam dana bez poboljšanja.
+     * </p>
+     *
+     * @param startMinute Minuta u danu od koje su stanice početnog grada dostupne.
+     * @param isTarget Oznake stanica odredišnog grada.
+     * @param bestTarget Već dostignuta stanica odredišnog grada sa najranijim dolaskom, ili -1.
+     * @param arrival Niz najranijih dolazaka (apsolutne minute od početka prvog dana).
+     * @param inConnection Indeks polaska kojim je stanica dostignuta, ili -1.
+     * @param inDepartureMinute Apsolutna minuta u kojoj je taj polazak krenuo.
+     * @param firstDayOfWeek Dan u sedmici prvog dana (0 je ponedjeljak), ili {@link #ANY_DAY}.
+     * @return Interni ID najranije dostignute stanice odredišnog grada, ili -1.
+     */
+    private int scan(int startMinute, boolean[] isTarget, int bestTarget,
+                     int[] arrival, int[] inConnection, int[] inDepartureMinute, int firstDayOfWeek) {
+        int bestArrival = bestTarget < 0 ? UNREACHED : arrival[bestTarget];
+        int firstConnection = firstConnectionAtOrAfter(startMinute);
+        boolean checkServiceDays = firstDayOfWeek != ANY_DAY && !timetable.isDaily();
+        int idleDaysLimit = checkServiceDays ? 8 : 2;
+        int daysWithoutImprovement = 0;
+
+        for (int day = 0; daysWithoutImprovement < idleDaysLimit; day++) {
+            int dayOffset = day * MINUTES_PER_DAY;
+            boolean improved = false;
+
+            // Polasci od najboljeg dolaska u odredište nadalje ne mogu ništa poboljšati
+            int end = scanEnd(bestArrival, dayOffset);
+            int i = scanner.nextImproving(day == 0 ? firstConnection : 0, end, dayOffset, arrival);
+            for (; i < end; i = scanner.nextImproving(i + 1, end, dayOffset, arrival)) {
+                if (checkServiceDays && !timetable.runsOn(connectionDeparture[i], firstDayOfWeek + day)) continue;
+                int departureMinute = dayOffset + connectionDepartureMinute[i];
+                int arrivalMinute = departureMinute + connectionDuration[i];
+                int to = connectionTo[i];
+                arrival[to] = arrivalMinute;
+                inConnection[to] = i;
+                inDepartureMinute[to] = departureMinute;
+                improved = true;
+                if (isTarget[to] && arrivalMinute < bestArrival) {
+                    bestArrival = arrivalMinute;
+                    bestTarget = to;
+                    end = scanEnd(bestArrival, dayOffset);
+                }
+            }
+            if (end < connectionFrom.length) {
+                return bestTarget;
+            }
+
+            if (day > 0) {
+                daysWithoutImprovement = improved ? 0 : daysWithoutImprovement + 1;
+            }
+        }
+        return bestTarget;
+    }
+
+    /**
+     * Prati polaske kojima su stanice dostignute unazad od zadate stanice.
+     *
+     * @param target Interni ID stanice odredišnog grada.
+     * @param inConnection Indeks polaska kojim je stanica dostignuta, ili -1.
+     * @return Indeksi polazaka u sortiranom nizu, redom od prve vožnje.
+     */
+    private int[] journeyConnections(int target, int[] inConnection) {
+        List<Integer> reversed = new ArrayList<>();
+        for (int station = target; inConnection[station] >= 0; station = connectionFrom[inConnection[station]]) {
+            reversed.add(inConnection[station]);
+        }
+        int[] journey = new int[reversed.size()];
+        for (int i = 0; i < journey.length; i++) {
+            journey[i] = reversed.get(journey.length - 1 - i);
+        }
+        return journey;
+    }
+
+    /**
+     * Pretvara polaske iz sortiranog niza u {@link Path}.
+     *
+     * @param journey Indeksi polazaka u sortiranom nizu, redom od prve vožnje.
+     * @return Rekonstruisana {@link Path}.
+     */
+    private Path toPath(int[] journey) {
+        int[] departures = new int[journey.length];
+        for (int i = 0; i < journey.length; i++) {
+            departures[i] = connectionDeparture[journey[i]];
+        }
+        return timetable.toPath(departures);
+    }
+
+    /**
+     * Vraća granicu skeniranja jednog dana: prvi polazak koji ne kreće prije najboljeg
+     * dolaska u odredišni grad.
+     *
+     * @param bestArrival Najbolji dolazak u odredišni grad (apsolutna minuta), ili {@link #UNREACHED}.
+     * @param dayOffset Pomak dana u minutama.
+     * @return Indeks prvog polaska koji se više ne skenira.
+     */
+    private int scanEnd(int bestArrival, int dayOffset) {
+        if (bestArrival - dayOffset >= MINUTES_PER_DAY) {
+            return connectionFrom.length;
+        }
+        return firstConnectionAtOrAfter(bestArrival - dayOffset);
+    }
+
+    /**
+     * Binarnom pretragom pronalazi prvi polazak (po vremenu dolaska) koji stiže nakon zadate minute.
+     *
+     * @param minuteOfDay Minuta u danu.
+     * @return Pozicija prvog takvog polaska u {@link #connectionsByArrival}, ili broj polazaka ako ga nema.
+     */
+    private int firstArrivalAfter(int minuteOfDay) {
+        int low = 0;
+        int high = arrivalMinuteByArrival.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (arrivalMinuteByArrival[mid] <= minuteOfDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Pretvara vrijeme u minutu u danu.
+     */
+    private static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Binarnom pretragom pronalazi prvi polazak koji kreće u zadatoj minuti ili kasnije.
+     *
+     * @param minuteOfDay Minuta u danu.
+     * @return Indeks prvog takvog polaska, ili broj polazaka ako ga nema.
+     */
+    private int firstConnectionAtOrAfter(int minuteOfDay) {
+        int low = 0;
+        int high = connectionDepartureMinute.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (connectionDepartureMinute[mid] < minuteOfDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,136 @@
+package project.pj25.algorithm;
+
+import java.util.Optional;
+
+/**
+ * Pronalazi naredni polazak u nizu {@link ConnectionScanRouteFinder} koji može
+ * poboljšati neki dolazak.
+ * <p>
+ * Većina polazaka u skeniranju ili kreće sa stanice do koje se još nije stiglo, ili
+ * ne poboljšava dolazak na dolaznu stanicu, pa ne mijenja ništa. Skener preskače
+ * takve polaske i vraća prvi polazak za koji važi "polazna stanica je dostignuta do
+ * minute polaska, a dolazak je raniji od trenutnog dolaska na dolaznu stanicu". Do
+ * tog polaska se nijedan dolazak ne mijenja, pa je preskakanje tačno i kada se uslov
+ * provjerava za više polazaka odjednom; sam polazak obrađuje pozivalac.
+ * </p>
+ * <p>
+ * Ova klasa provjerava polaske jedan po jedan. Ako je pri pokretanju dostupan modul
+ * {@code jdk.incubator.vector} (opcija {@code --add-modules jdk.incubator.vector}),
+ * {@link #create(int[], int[], int[], int[], boolean)} može vratiti
+ * {@link VectorConnectionScanner}, koji uslov provjerava za cijeli blok polazaka SIMD
+ * instrukcijama. Modul je u inkubaciji, pa ga {@code module-info} ne navodi, a
+ * vektorski skener se prevodi samo uz Maven profil {@code vector}; ovdje se učitava
+ * preko refleksije, nakon što modul aplikacije dobije pristup modulu Vector API-ja.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see ConnectionScanRouteFinder
+ * @see VectorConnectionScanner
+ */
+class ConnectionScanner {
+
+    /**
+     * Naziv modula sa Vector API-jem.
+     */
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * Puno ime klase vektorskog skenera.
+     */
+    private static final String VECTOR_SCANNER = "project.pj25.algorithm.VectorConnectionScanner";
+
+    /**
+     * Polazna stanica svakog polaska u sortiranom nizu.
+     */
+    final int[] connectionFrom;
+
+    /**
+     * Dolazna stanica svakog polaska u sortiranom nizu.
+     */
+    final int[] connectionTo;
+
+    /**
+     * Minuta u danu u kojoj polazak kreće.
+     */
+    final int[] connectionDepartureMinute;
+
+    /**
+     * Trajanje vožnje u minutama.
+     */
+    final int[] connectionDuration;
+
+    /**
+     * Kreira skener nad nizovima polazaka; nizovi se ne kopiraju.
+     *
+     * @param connectionFrom Polazna stanica svakog polaska.
+     * @param connectionTo Dolazna stanica svakog polaska.
+     * @param connectionDepartureMinute Minuta polaska u danu.
+     * @param connectionDuration Trajanje vožnje u minutama.
+     */
+    ConnectionScanner(int[] connectionFrom, int[] connectionTo, int[] connectionDepartureMinute,
+                      int[] connectionDuration) {
+        this.connectionFrom = connectionFrom;
+        this.connectionTo = connectionTo;
+        this.connectionDepartureMinute = connectionDepartureMinute;
+        this.connectionDuration = connectionDuration;
+    }
+
+    /**
+     * Kreira skener, vektorski ako je to traženo i ako je Vector API dostupan.
+     *
+     * @param connectionFrom Polazna stanica svakog polaska.
+     * @param connectionTo Dolazna stanica svakog polaska.
+     * @param connectionDepartureMinute Minuta polaska u danu.
+     * @param connectionDuration Trajanje vožnje u minutama.
+     * @param vectorized Da li treba pokušati sa vektorskim skenerom.
+     * @return Vektorski skener, ili skalarni ako vektorski nije tražen ili nije dostupan.
+     * @throws IllegalStateException ako je vektorski skener preveden, ali se ne može kreirati.
+     */
+    static ConnectionScanner create(int[] connectionFrom, int[] connectionTo, int[] connectionDepartureMinute,
+                                    int[] connectionDuration, boolean vectorized) {
+        Optional<Module> vectorModule = ModuleLayer.boot().findModule(VECTOR_MODULE);
+        if (vectorized && vectorModule.isPresent()) {
+            ConnectionScanner.class.getModule().addReads(vectorModule.get());
+            try {
+                return (ConnectionScanner) Class.forName(VECTOR_SCANNER)
+                        .getDeclaredConstructor(int[].class, int[].class, int[].class, int[].class)
+                        .newInstance(connectionFrom, connectionTo, connectionDepartureMinute, connectionDuration);
+            } catch (ClassNotFoundException e) {
+                // Vektorski skener nije preveden (build bez profila "vector"); koristi se skalarna provjera
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Vektorski skener se ne može kreirati", e);
+            }
+        }
+        return new ConnectionScanner(connectionFrom, connectionTo, connectionDepartureMinute, connectionDuration);
+    }
+
+    /**
+     * Vraća prvi polazak u opsegu koji kreće sa dostignute stanice i poboljšava dolazak.
+     *
+     * @param start Indeks prvog polaska koji se provjerava.
+     * @param end Indeks iza posljednjeg polaska koji se provjerava.
+     * @param dayOffset Pomak dana u minutama koji se dodaje minuti polaska.
+     * @param arrival Najraniji dolasci po stanicama (apsolutne minute).
+     * @return Indeks takvog polaska, ili {@code end} ako ga nema.
+     */
+    int nextImproving(int start, int end, int dayOffset, int[] arrival) {
+        for (int i = start; i < end; i++) {
+            int departureMinute = dayOffset + connectionDepartureMinute[i];
+            if (arrival[connectionFrom[i]] <= departureMinute
+                    && departureMinute + connectionDuration[i] < arrival[connectionTo[i]]) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Provjerava da li skener koristi SIMD instrukcije.
+     *
+     * @return {@code true} za vektorski skener.
+     */
+    boolean isVectorized() {
+        return false;
+    }
+}
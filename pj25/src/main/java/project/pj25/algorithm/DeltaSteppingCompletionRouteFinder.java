@@ -0,0 +1,303 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Varijanta klase {@link KShortestRouteFinder} koja nastavke do odredišta računa
+ * paralelno, delta-stepping algoritmom; sama pretraga K putovanja je sekvencijalna.
+ * <p>
+ * Za jedan upit na velikoj mreži najveći dio posla {@link KShortestRouteFinder} je
+ * pretraga unazad po grafu događaja (dva čvora po polasku), koja izračunava najbolji
+ * nastavak od svakog čvora; pretraga K putovanja sa tačnom procjenom zatim obrađuje
+ * samo oznake na najboljim rutama, pa se ona izvršava na niti pozivaoca, kao u
+ * osnovnoj klasi. Paralelna je samo pretraga unazad, kao pretraga sa ispravljanjem
+ * oznaka: čvorovi se raspoređuju u "kante" po primarnoj vrijednosti ključa (širine
+ * {@code delta}: sat vremena, 10 KM ili jedno presjedanje), a čvorovi najniže kante se
+ * obrađuju zajedno u {@link ForkJoinPool}-u. Ključ čvora se poboljšava atomskim
+ * {@code compareAndSet}, a poboljšani čvorovi se nakon svake faze vraćaju u svoju
+ * kantu, sve dok se kanta ne isprazni. Ubrzanje zato postoji samo pri prvom upitu za
+ * par (odredišni grad, kriterijum); naredni upiti koriste sačuvane nastavke.
+ * </p>
+ * <p>
+ * Ključevi su leksikografski pakovane vrijednosti (vrijeme, cijena, broj vožnji), pa
+ * je zbir ključa čvora i ključa grane ključ produžene putanje. Najmanji ključ svakog
+ * čvora je jedinstven, pa su izračunati nastavci, a time i pronađene rute, identični
+ * sekvencijalnoj pretrazi za sve kriterijume, bez obzira na broj niti i redoslijed
+ * obrade.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see KShortestRouteFinder
+ * @see RouteFinder
+ */
+public class DeltaSteppingCompletionRouteFinder extends KShortestRouteFinder {
+
+    /**
+     * Broj minuta u jednom danu.
+     */
+    private static final int MINUTES_PER_DAY = CompiledTimetable.MINUTES_PER_DAY;
+
+    /**
+     * Ključ čvora koji još nije dostignut.
+     */
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    /**
+     * Najveći broj čvorova koje obrađuje jedan podzadatak faze.
+     */
+    private static final int NODES_PER_TASK = 512;
+
+    /**
+     * Kompajlirani vozni red nad kojim se gradi graf događaja.
+     */
+    private final CompiledTimetable timetable;
+
+    /**
+     * Pool niti u kojem se obrađuju faze.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Konstruktor koji koristi zajednički {@link ForkJoinPool#commonPool()}.
+     *
+     * @param transportMap Transportna mapa koja se koristi za pretragu.
+     */
+    public DeltaSteppingCompletionRouteFinder(TransportMap transportMap) {
+        this(new CompiledTimetable(transportMap));
+    }
+
+    /**
+     * Konstruktor koji koristi zajednički {@link ForkJoinPool#commonPool()}.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     */
+    public DeltaSteppingCompletionRouteFinder(CompiledTimetable timetable) {
+        this(timetable, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Konstruktor koji koristi zadati pool niti.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     * @param pool Pool niti u kojem se obrađuju faze pretrage unazad.
+     */
+    public DeltaSteppingCompletionRouteFinder(CompiledTimetable timetable, ForkJoinPool pool) {
+        super(timetable);
+        this.timetable = timetable;
+        this.pool = pool;
+    }
+
+    /**
+     * Računa najbolji nastavak do odredišnog grada za svaki čvor grafa događaja,
+     * paralelnom delta-stepping pretragom unazad.
+     *
+     * @param endCity Odredišni grad.
+     * @param criterion Kriterijum optimizacije.
+     * @param deadlineNanos Rok izračunat metodom {@link SearchBudget#deadlineNanos(long)}; provjerava se po kanti.
+     * @return Izračunati {@link KShortestRouteFinder.Completion}, isti kao kod sekvencijalne pretrage,
+     *         ili {@code null} ako je rok istekao prije kraja.
+     */
+    @Override
+    Completion computeCompletion(City endCity, OptimizationCriterion criterion, long deadlineNanos) {
+        int count = timetable.departureCount();
+        boolean[] isEndStation = timetable.cityMask(endCity);
+        AtomicLongArray keys = new AtomicLongArray(2 * count);
+        for (int node = 0; node < 2 * count; node++) {
+            keys.set(node, UNREACHED);
+        }
+
+        // Kante po primarnoj vrijednosti ključa; čvor može biti u više kanti, važi samo najniža
+        long delta = deltaFor(criterion);
+        TreeMap<Long, IntList> buckets = new TreeMap<>();
+        for (int d = 0; d < count; d++) {
+            if (isEndStation[timetable.departureTo(d)]) {
+                keys.set(count + d, 0);
+                buckets.computeIfAbsent(0L, b -> new IntList()).add(count + d);
+            }
+        }
+
+        long[] processedKey = new long[2 * count];
+        Arrays.fill(processedKey, UNREACHED);
+        int[] frontierPhase = new int[2 * count];
+        int phase = 0;
+
+        while (!buckets.isEmpty()) {
+            if (SearchBudget.isPast(deadlineNanos)) {
+                return null;
+            }
+            Map.Entry<Long, IntList> entry = buckets.pollFirstEntry();
+            long bucket = entry.getKey();
+            IntList pending = entry.getValue();
+
+            while (pending.size > 0) {
+                phase++;
+                IntList frontier = new IntList();
+                long[] frontierKeys = new long[pending.size];
+                for (int i = 0; i < pending.size; i++) {
+                    int node = pending.values[i];
+                    long key = keys.get(node);
+                    if (criterion.primaryOf(key) / delta != bucket || processedKey[node] == key
+                            || frontierPhase[node] == phase) {
+                        continue;
+                    }
+                    frontierPhase[node] = phase;
+                    processedKey[node] = key;
+                    frontierKeys[frontier.size] = key;
+                    frontier.add(node);
+                }
+
+                // Male faze se obrađuju direktno, bez predaje pool-u
+                RelaxTask task = new RelaxTask(frontier.values, frontierKeys, 0, frontier.size,
+                        keys, isEndStation, criterion);
+                IntList improved = frontier.size > NODES_PER_TASK ? pool.invoke(task) : task.compute();
+
+                pending = new IntList();
+                for (int i = 0; i < improved.size; i++) {
+                    int node = improved.values[i];
+                    long nodeBucket = criterion.primaryOf(keys.get(node)) / delta;
+                    if (nodeBucket == bucket) {
+                        pending.add(node);
+                    } else {
+                        buckets.computeIfAbsent(nodeBucket, b -> new IntList()).add(node);
+                    }
+                }
+            }
+        }
+
+        Completion best = new Completion(2 * count, endCity, criterion, isEndStation);
+        for (int node = 0; node < 2 * count; node++) {
+            long key = keys.get(node);
+            if (key != UNREACHED) {
+                best.set(node, criterion.minutesOf(key), criterion.centsOf(key), (int) criterion.transfersOf(key));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Vraća širinu kante za kriterijum: sat vremena, 10 KM ili jedno presjedanje.
+     *
+     * @param criterion Kriterijum optimizacije.
+     * @return Širina kante u jedinicama primarne vrijednosti.
+     */
+    private static long deltaFor(OptimizationCriterion criterion) {
+        switch (criterion) {
+            case TIME: return 60;
+            case PRICE: return 1000;
+            default: return 1;
+        }
+    }
+
+    /**
+     * Podzadatak koji obrađuje dio čvorova jedne faze i vraća čvorove čiji je ključ poboljšan.
+     */
+    private final class RelaxTask extends RecursiveTask<IntList> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] nodes;
+        private final long[] nodeKeys;
+        private final int from;
+        private final int to;
+        private final AtomicLongArray keys;
+        private final boolean[] isEndStation;
+        private final OptimizationCriterion criterion;
+
+        RelaxTask(int[] nodes, long[] nodeKeys, int from, int to, AtomicLongArray keys,
+                  boolean[] isEndStation, OptimizationCriterion criterion) {
+            this.nodes = nodes;
+            this.nodeKeys = nodeKeys;
+            this.from = from;
+            this.to = to;
+            this.keys = keys;
+            this.isEndStation = isEndStation;
+            this.criterion = criterion;
+        }
+
+        @Override
+        protected IntList compute() {
+            if (to - from > NODES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                RelaxTask right = new RelaxTask(nodes, nodeKeys, middle, to, keys, isEndStation, criterion);
+                right.fork();
+                IntList improved = new RelaxTask(nodes, nodeKeys, from, middle, keys, isEndStation, criterion).compute();
+                improved.addAll(right.join());
+                return improved;
+            }
+
+            IntList improved = new IntList();
+            int count = timetable.departureCount();
+            for (int i = from; i < to; i++) {
+                int node = nodes[i];
+                long key = nodeKeys[i];
+
+                if (node >= count) {
+                    // Dolazak polaskom d: prethodi mu polazak d
+                    int d = node - count;
+                    relax(d, key + criterion.packKey(timetable.rideMinutes(d), timetable.priceCents(d), 1), improved);
+                    continue;
+                }
+
+                int s = timetable.departureFrom(node);
+                int previous = node > timetable.firstDeparture(s) ? node - 1 : timetable.endDeparture(s) - 1;
+                if (previous != node) {
+                    long waitingMinutes = Math.floorMod(
+                            timetable.departureMinute(node) - timetable.departureMinute(previous), MINUTES_PER_DAY);
+                    relax(previous, key + criterion.packKey(waitingMinutes, 0, 0), improved);
+                }
+                for (int w = firstWaitingArrival(node); w < firstWaitingArrival(node + 1); w++) {
+                    int d = waitingArrival(w);
+                    if (isEndStation[timetable.departureTo(d)]) continue;
+                    long waitingMinutes = Math.floorMod(
+                            timetable.departureMinute(node) - timetable.arrivalMinute(d), MINUTES_PER_DAY);
+                    relax(count + d, key + criterion.packKey(waitingMinutes, 0, 0), improved);
+                }
+            }
+            return improved;
+        }
+
+        /**
+         * Atomski smanjuje ključ čvora ako je novi ključ manji.
+         */
+        private void relax(int node, long key, IntList improved) {
+            long current = keys.get(node);
+            while (key < current) {
+                if (keys.compareAndSet(node, current, key)) {
+                    improved.add(node);
+                    return;
+                }
+                current = keys.get(node);
+            }
+        }
+    }
+
+    /**
+     * Jednostavna lista {@code int} vrijednosti bez pakovanja u objekte.
+     */
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+    }
+}
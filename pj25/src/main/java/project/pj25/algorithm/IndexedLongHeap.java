@@ -0,0 +1,250 @@
+package project.pj25.algorithm;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binarni min-heap cjelobrojnih identifikatora sa {@code long} ključevima.
+ * <p>
+ * Za razliku od {@link java.util.PriorityQueue}, elementi su obični {@code int}
+ * identifikatori (npr. indeks oznake ili čvora), a ključevi se čuvaju u nizu, pa
+ * poređenje ne poziva nikakve metode i ne alocira memoriju. Heap pamti poziciju
+ * svakog identifikatora, što omogućava smanjenje ključa ({@link #decreaseKey(int, long)})
+ * bez dupliranja elemenata u redu. Elementi sa jednakim ključem izlaze redoslijedom
+ * identifikatora, pa je redoslijed obrade deterministički.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see OptimizationCriterion
+ * @see RouteFinder
+ */
+final class IndexedLongHeap {
+
+    /**
+     * Pozicija identifikatora koji nije u heapu.
+     */
+    private static final int ABSENT = -1;
+
+    /**
+     * Identifikatori po pozicijama u heapu.
+     */
+    private int[] heap;
+
+    /**
+     * Pozicija svakog identifikatora u heapu, ili {@link #ABSENT}.
+     */
+    private int[] position;
+
+    /**
+     * Ključ svakog identifikatora.
+     */
+    private long[] keys;
+
+    /**
+     * Broj elemenata u heapu.
+     */
+    private int size;
+
+    /**
+     * Kreira prazan heap.
+     *
+     * @param initialCapacity Početni broj identifikatora za koje se alocira prostor.
+     */
+    IndexedLongHeap(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(position, ABSENT);
+    }
+
+    /**
+     * Dodaje identifikator sa zadatim ključem.
+     *
+     * @param id Identifikator (nenegativan).
+     * @param key Ključ.
+     * @throws IllegalArgumentException ako je identifikator već u heapu.
+     */
+    void insert(int id, long key) {
+        ensureCapacity(id + 1);
+        if (position[id] != ABSENT) {
+            throw new IllegalArgumentException("Identifikator je već u heapu: " + id);
+        }
+        keys[id] = key;
+        heap[size] = id;
+        position[id] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Smanjuje ključ identifikatora koji je već u heapu.
+     *
+     * @param id Identifikator.
+     * @param key Novi ključ, koji ne smije biti veći od trenutnog.
+     * @throws IllegalArgumentException ako identifikator nije u heapu ili je ključ veći.
+     */
+    void decreaseKey(int id, long key) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("Identifikator nije u heapu: " + id);
+        }
+        if (key > keys[id]) {
+            throw new IllegalArgumentException("Novi ključ je veći od trenutnog za identifikator: " + id);
+        }
+        keys[id] = key;
+        siftUp(position[id]);
+    }
+
+    /**
+     * Dodaje identifikator, ili mu smanjuje ključ ako je već u heapu sa većim ključem.
+     *
+     * @param id Identifikator.
+     * @param key Ključ.
+     * @return {@code true} ako je heap promijenjen.
+     */
+    boolean insertOrDecrease(int id, long key) {
+        if (!contains(id)) {
+            insert(id, key);
+            return true;
+        }
+        if (key < keys[id]) {
+            decreaseKey(id, key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Uklanja i vraća identifikator sa najmanjim ključem.
+     *
+     * @return Identifikator sa najmanjim ključem.
+     * @throws NoSuchElementException ako je heap prazan.
+     */
+    int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap je prazan.");
+        }
+        int min = heap[0];
+        position[min] = ABSENT;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Vraća identifikator sa najmanjim ključem bez uklanjanja.
+     *
+     * @return Identifikator sa najmanjim ključem.
+     * @throws NoSuchElementException ako je heap prazan.
+     */
+    int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap je prazan.");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Vraća ključ identifikatora (i nakon što je uklonjen iz heapa).
+     *
+     * @param id Identifikator.
+     * @return Posljednji ključ identifikatora.
+     */
+    long keyOf(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Provjerava da li je identifikator trenutno u heapu.
+     *
+     * @param id Identifikator.
+     * @return {@code true} ako je u heapu.
+     */
+    boolean contains(int id) {
+        return id < position.length && position[id] != ABSENT;
+    }
+
+    /**
+     * Provjerava da li je heap prazan.
+     *
+     * @return {@code true} ako nema elemenata.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Vraća broj elemenata u heapu.
+     *
+     * @return Broj elemenata.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Uklanja sve elemente iz heapa, bez smanjivanja alociranih nizova. Cijena je
+     * proporcionalna broju elemenata koji su trenutno u heapu.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    /**
+     * Poredi elemente na dvije pozicije po ključu, a zatim po identifikatoru.
+     */
+    private boolean less(int i, int j) {
+        int a = heap[i];
+        int b = heap[j];
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(i, parent)) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) break;
+            int smallest = left + 1 < size && less(left + 1, left) ? left + 1 : left;
+            if (!less(smallest, i)) break;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int a = heap[i];
+        int b = heap[j];
+        heap[i] = b;
+        heap[j] = a;
+        position[b] = i;
+        position[a] = j;
+    }
+
+    /**
+     * Proširuje nizove tako da prime identifikatore manje od {@code capacity}.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= position.length) return;
+        int newCapacity = Math.max(capacity, position.length * 2);
+        heap = Arrays.copyOf(heap, newCapacity);
+        keys = Arrays.copyOf(keys, newCapacity);
+        int oldLength = position.length;
+        position = Arrays.copyOf(position, newCapacity);
+        Arrays.fill(position, oldLength, newCapacity, ABSENT);
+    }
+}
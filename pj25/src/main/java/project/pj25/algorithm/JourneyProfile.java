@@ -0,0 +1,151 @@
+package project.pj25.algorithm;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Profil putovanja između dva grada: najbolje rute za svako vrijeme polaska u toku dana.
+ * <p>
+ * Profil čuva Pareto skup parova (minuta polaska, minuta dolaska), sortiran po
+ * polasku: ruta iz profila kreće kasnije od prethodne samo ako i stiže kasnije, a
+ * nijedna ruta ne stiže kasnije od prve rute narednog dana. Za bilo koje vrijeme
+ * {@code t} najbolja ruta je zato prva ruta profila koja kreće u {@code t} ili
+ * kasnije (ciklično, preko ponoći), pa se pronalazi binarnom pretragom u
+ * {@code O(log n)}.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see ConnectionScanRouteFinder#findProfile(project.pj25.model.City, project.pj25.model.City)
+ */
+public class JourneyProfile {
+
+    /**
+     * Broj minuta u jednom danu.
+     */
+    private static final int MINUTES_PER_DAY = CompiledTimetable.MINUTES_PER_DAY;
+
+    /**
+     * Minuta polaska u danu za svaku rutu profila, rastuće.
+     */
+    private final int[] departureMinutes;
+
+    /**
+     * Minuta dolaska za svaku rutu, računata od početka dana polaska.
+     */
+    private final int[] arrivalMinutes;
+
+    /**
+     * Rute profila, istim redoslijedom kao minute polaska.
+     */
+    private final List<Path> routes;
+
+    /**
+     * Kreira profil od ruta sortiranih rastuće po polasku, u kojima kasniji polazak
+     * znači i kasniji dolazak. Rute koje ne stižu prije prve rute narednog dana se
+     * odbacuju.
+     *
+     * @param departureMinutes Minute polaska u danu, rastuće.
+     * @param arrivalMinutes Minute dolaska od početka dana polaska, rastuće.
+     * @param routes Rute, istim redoslijedom.
+     */
+    JourneyProfile(int[] departureMinutes, int[] arrivalMinutes, List<Path> routes) {
+        int size = departureMinutes.length;
+        while (size > 1 && arrivalMinutes[size - 1] >= arrivalMinutes[0] + MINUTES_PER_DAY) {
+            size--;
+        }
+        this.departureMinutes = Arrays.copyOf(departureMinutes, size);
+        this.arrivalMinutes = Arrays.copyOf(arrivalMinutes, size);
+        this.routes = Collections.unmodifiableList(new ArrayList<>(routes.subList(0, size)));
+    }
+
+    /**
+     * Vraća broj ruta u profilu.
+     *
+     * @return Broj Pareto-optimalnih ruta u toku dana.
+     */
+    public int size() {
+        return routes.size();
+    }
+
+    /**
+     * Provjerava da li je profil prazan, tj. da odredište nije dostižno.
+     *
+     * @return {@code true} ako profil nema nijednu rutu.
+     */
+    public boolean isEmpty() {
+        return routes.isEmpty();
+    }
+
+    /**
+     * Vraća sve rute profila, sortirane po vremenu polaska.
+     *
+     * @return Nepromjenljiva lista {@link Path} objekata.
+     */
+    public List<Path> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * Vraća najbolju rutu za polazak u zadato vrijeme ili kasnije.
+     *
+     * @param departureTime Najranije vrijeme polaska.
+     * @return Ruta sa najranijim dolaskom, ili {@code null} ako je profil prazan.
+     */
+    public Path getBestRoute(LocalTime departureTime) {
+        int index = indexAtOrAfter(toMinute(departureTime));
+        return index < 0 ? null : routes.get(index);
+    }
+
+    /**
+     * Vraća ukupno trajanje od zadatog vremena do dolaska najboljom rutom,
+     * uključujući čekanje na prvi polazak.
+     *
+     * @param departureTime Najranije vrijeme polaska.
+     * @return Trajanje do dolaska, ili {@code null} ako je profil prazan.
+     */
+    public Duration getDurationUntilArrival(LocalTime departureTime) {
+        int minute = toMinute(departureTime);
+        int index = indexAtOrAfter(minute);
+        if (index < 0) {
+            return null;
+        }
+        int waitingMinutes = Math.floorMod(departureMinutes[index] - minute, MINUTES_PER_DAY);
+        return Duration.ofMinutes(waitingMinutes + arrivalMinutes[index] - departureMinutes[index]);
+    }
+
+    /**
+     * Binarnom pretragom pronalazi prvu rutu koja kreće u zadatoj minuti ili kasnije,
+     * odnosno prvu rutu narednog dana.
+     *
+     * @param minuteOfDay Minuta u danu.
+     * @return Indeks rute, ili -1 ako je profil prazan.
+     */
+    int indexAtOrAfter(int minuteOfDay) {
+        if (departureMinutes.length == 0) {
+            return -1;
+        }
+        int low = 0;
+        int high = departureMinutes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departureMinutes[mid] < minuteOfDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == departureMinutes.length ? 0 : low;
+    }
+
+    /**
+     * Pretvara vrijeme u minutu u danu.
+     */
+    private static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
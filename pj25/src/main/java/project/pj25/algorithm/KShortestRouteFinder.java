@@ -0,0 +1,472 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pretraga K najkraćih putovanja sa tačnom procjenom preostalog puta.
+ * <p>
+ * {@link RouteFinder} obrađuje svaki čvor (stanica, vrijeme dolaska) najviše N puta,
+ * pa je prvih N putanja do odredišta upravo N najboljih različitih ruta. Ova klasa
+ * tome dodaje tačnu vrijednost najboljeg nastavka od svakog čvora do odredišnog
+ * grada, izračunatu jednom pretragom unazad po događajima voznog reda. Sa tačnom
+ * procjenom se iz reda uzimaju samo putanje koje zaista leže na nekoj od najboljih
+ * ruta, pa broj obrađenih oznaka raste približno linearno sa N i ostaje mali i za
+ * nekoliko stotina ruta.
+ * </p>
+ * <p>
+ * Graf događaja ima dvije vrste čvorova: polazak (putnik čeka na polazak {@code d})
+ * i dolazak (putnik je stigao polaskom {@code d}). Iz polaska se ide vožnjom u
+ * dolazak, ili čekanjem u naredni polazak sa iste stanice; iz dolaska se ide čekanjem
+ * u prvi naredni polazak sa stanice, a dolazak u odredišni grad završava putovanje.
+ * Vrijednosti su leksikografske po kriterijumu (vrijeme, cijena, broj vožnji), pa je
+ * zbir putanje i nastavka tačno ključ najbolje rute kroz to stanje.
+ * </p>
+ * <p>
+ * Nastavci se računaju prije pretrage i poštuju vremenski rok budžeta: ako rok istekne
+ * prije nego što su izračunati, pretraga se ne pokreće i vraća se prazan, neoptimalan
+ * rezultat. Prekinuti nastavci se ne čuvaju, pa ih naredni upit računa ispočetka.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RouteFinder
+ * @see NodeState
+ */
+public class KShortestRouteFinder extends RouteFinder {
+
+    /**
+     * Broj minuta u jednom danu.
+     */
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Procjena vremena za stanja iz kojih odredište nije dostižno.
+     */
+    private static final long UNREACHABLE_MINUTES = Long.MAX_VALUE / 4;
+
+    /**
+     * Najveći broj sačuvanih nastavaka (parova odredišni grad, kriterijum).
+     */
+    private static final int MAX_COMPLETIONS = 8;
+
+    /**
+     * Rok se pri računanju nastavaka provjerava jednom na ovoliko obrađenih čvorova (maska).
+     */
+    private static final int DEADLINE_CHECK_MASK = 1023;
+
+    /**
+     * Kompajlirani vozni red nad kojim se gradi graf događaja.
+     */
+    private final CompiledTimetable timetable;
+
+    /**
+     * Prvi polazak sa dolazne stanice koji se može uhvatiti nakon dolaska ovim polaskom, ili -1.
+     */
+    private final int[] nextDepartureAfterArrival;
+
+    /**
+     * Za polazak {@code x}, dolasci čiji je prvi naredni polazak upravo {@code x} su na
+     * pozicijama od {@code firstWaitingArrival[x]} do {@code firstWaitingArrival[x + 1]}.
+     */
+    private final int[] firstWaitingArrival;
+
+    /**
+     * Dolasci grupisani po prvom narednom polasku.
+     */
+    private final int[] waitingArrivals;
+
+    /**
+     * Najbolji nastavci po odredišnom gradu i kriterijumu, od najdavnije do posljednje
+     * korištenih. Vrijednost se upisuje prije računanja, pa nastavke za isti par računa
+     * samo jedna nit, dok ostale čekaju njen rezultat; pretrage za druge parove ne čekaju.
+     */
+    private final LinkedHashMap<CompletionKey, CompletableFuture<Completion>> completions =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Posljednji nastavci koje je nit koristila, da se oznake jedne pretrage ne
+     * sinhronizuju na zajedničkoj mapi. Objekat je nepromjenljiv nakon računanja.
+     */
+    private final ThreadLocal<Completion> lastCompletion = new ThreadLocal<>();
+
+    /**
+     * Konstruktor koji gradi graf događaja voznog reda.
+     *
+     * @param transportMap Transportna mapa koja se koristi za pretragu.
+     */
+    public KShortestRouteFinder(TransportMap transportMap) {
+        this(new CompiledTimetable(transportMap));
+    }
+
+    /**
+     * Konstruktor koji gradi graf događaja nad već kompajliranim voznim redom.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     */
+    public KShortestRouteFinder(CompiledTimetable timetable) {
+        super(timetable);
+        this.timetable = timetable;
+
+        int count = timetable.departureCount();
+        this.nextDepartureAfterArrival = new int[count];
+        int[] waitingCount = new int[count + 1];
+        for (int d = 0; d < count; d++) {
+            nextDepartureAfterArrival[d] = timetable.firstDepartureAtOrAfter(timetable.departureTo(d), timetable.arrivalMinute(d));
+            if (nextDepartureAfterArrival[d] >= 0) {
+                waitingCount[nextDepartureAfterArrival[d] + 1]++;
+            }
+        }
+        this.firstWaitingArrival = new int[count + 1];
+        for (int x = 0; x < count; x++) {
+            firstWaitingArrival[x + 1] = firstWaitingArrival[x] + waitingCount[x + 1];
+        }
+        this.waitingArrivals = new int[firstWaitingArrival[count]];
+        int[] fill = Arrays.copyOf(firstWaitingArrival, count);
+        for (int d = 0; d < count; d++) {
+            if (nextDepartureAfterArrival[d] >= 0) {
+                waitingArrivals[fill[nextDepartureAfterArrival[d]]++] = d;
+            }
+        }
+    }
+
+    /**
+     * Računa nastavke do odredišnog grada uz rok budžeta, pa pokreće pretragu.
+     *
+     * @param sources Interni ID-evi početnih stanica.
+     * @param endCity Odredišni grad, ili {@code null} za pretragu do svih stanica.
+     * @param criterion Kriterijum optimizacije.
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @param budget Ograničenje pretrage.
+     * @param deadlineNanos Rok izračunat metodom {@link SearchBudget#deadlineNanos(long)}.
+     * @return {@link RouteSearchResult} pretrage, ili prazan neoptimalan rezultat ako je rok
+     *         istekao prije nego što su nastavci izračunati.
+     */
+    @Override
+    RouteSearchResult search(int[] sources, City endCity, OptimizationCriterion criterion,
+                             int limit, SearchBudget budget, long deadlineNanos) {
+        if (endCity != null && completionFor(endCity, criterion, deadlineNanos) == null) {
+            return new RouteSearchResult(Collections.emptyList(), false, new SearchStatistics(0, 0, 0, 0, false));
+        }
+        return super.search(sources, endCity, criterion, limit, budget, deadlineNanos);
+    }
+
+    /**
+     * Kreira stanje čvora sa tačnom vrijednošću najboljeg nastavka do odredišta.
+     *
+     * @param previous Prethodno stanje, ili {@code null} za početno stanje.
+     * @param station Interni ID stanice stanja.
+     * @param departure Indeks polaska iz prethodnog stanja do stanice, ili -1 za početno stanje.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije.
+     * @return Novo {@link NodeState} sa vrijednostima nastavka.
+     */
+    @Override
+    protected NodeState createNodeState(NodeState previous, int station, int departure,
+                                        City endCity, OptimizationCriterion optimizationCriterion) {
+        Completion best = completionFor(endCity, optimizationCriterion, Long.MAX_VALUE);
+
+        if (departure < 0) {
+            // Prva vožnja kreće bez čekanja, a ne dodaje presjedanje
+            int bestDeparture = -1;
+            for (int d = timetable.firstDeparture(station); d < timetable.endDeparture(station); d++) {
+                if (best.isReachable(d) && (bestDeparture < 0 || best.key[d] < best.key[bestDeparture])) {
+                    bestDeparture = d;
+                }
+            }
+            if (bestDeparture < 0) {
+                return unreachableState(previous, station, departure, optimizationCriterion);
+            }
+            return new NodeState(timetable, previous, station, departure, optimizationCriterion,
+                    best.time[bestDeparture], best.cents[bestDeparture], best.rides[bestDeparture] - 1);
+        }
+
+        if (best.isEndStation[station]) {
+            return new NodeState(timetable, previous, station, departure, optimizationCriterion);
+        }
+
+        int arrival = timetable.arrivalMinute(departure);
+        int next = timetable.firstDepartureAtOrAfter(station, arrival);
+        if (next < 0 || !best.isReachable(next)) {
+            return unreachableState(previous, station, departure, optimizationCriterion);
+        }
+        long waitingMinutes = Math.floorMod(timetable.departureMinute(next) - arrival, MINUTES_PER_DAY);
+        return new NodeState(timetable, previous, station, departure, optimizationCriterion,
+                waitingMinutes + best.time[next], best.cents[next], best.rides[next]);
+    }
+
+    /**
+     * Vraća početnu poziciju dolazaka čiji je prvi naredni polazak {@code departure}.
+     *
+     * @param departure Indeks polaska; za {@code departureCount()} vraća kraj posljednjeg opsega.
+     * @return Pozicija u {@link #waitingArrival(int)}.
+     */
+    int firstWaitingArrival(int departure) {
+        return firstWaitingArrival[departure];
+    }
+
+    /**
+     * Vraća dolazak (indeks polaska kojim se stiglo) na zadatoj poziciji.
+     *
+     * @param position Pozicija između {@code firstWaitingArrival(x)} i {@code firstWaitingArrival(x + 1)}.
+     * @return Indeks polaska.
+     */
+    int waitingArrival(int position) {
+        return waitingArrivals[position];
+    }
+
+    /**
+     * Kreira stanje iz kojeg odredište nije dostižno; takvo stanje dolazi na kraj reda.
+     *
+     * @param previous Prethodno stanje, ili {@code null} za početno stanje.
+     * @param station Interni ID stanice stanja.
+     * @param departure Indeks polaska iz prethodnog stanja do stanice, ili -1 za početno stanje.
+     * @param optimizationCriterion Kriterijum optimizacije.
+     * @return {@link NodeState} sa vrlo velikim procjenama.
+     */
+    private NodeState unreachableState(NodeState previous, int station, int departure,
+                                       OptimizationCriterion optimizationCriterion) {
+        return new NodeState(timetable, previous, station, departure, optimizationCriterion,
+                UNREACHABLE_MINUTES, Long.MAX_VALUE / 4, Integer.MAX_VALUE / 4);
+    }
+
+    /**
+     * Vraća najbolje nastavke za zadati odredišni grad i kriterijum, računajući ih po potrebi.
+     *
+     * @param endCity Odredišni grad.
+     * @param criterion Kriterijum optimizacije.
+     * @param deadlineNanos Rok izračunat metodom {@link SearchBudget#deadlineNanos(long)}.
+     * @return {@link Completion} za zadate parametre, ili {@code null} ako je rok istekao.
+     */
+    private Completion completionFor(City endCity, OptimizationCriterion criterion, long deadlineNanos) {
+        Completion current = lastCompletion.get();
+        if (current == null || !current.matches(endCity, criterion)) {
+            current = sharedCompletion(endCity, criterion, deadlineNanos);
+            if (current != null) {
+                lastCompletion.set(current);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Vraća nastavke iz zajedničke mape, a ako ih nema, računa ih van zaključavanja i
+     * izbacuje najdavnije korištene nastavke preko ograničenja.
+     * <p>
+     * Nit koja čeka nastavke druge niti čeka najduže do svog roka. Ako je nit koja ih
+     * računa prekinuta svojim rokom, nastavci se uklanjaju iz mape, a nit čiji rok još
+     * nije istekao ih računa ponovo.
+     * </p>
+     *
+     * @param endCity Odredišni grad.
+     * @param criterion Kriterijum optimizacije.
+     * @param deadlineNanos Rok izračunat metodom {@link SearchBudget#deadlineNanos(long)}.
+     * @return {@link Completion} za zadate parametre, ili {@code null} ako je rok istekao.
+     */
+    private Completion sharedCompletion(City endCity, OptimizationCriterion criterion, long deadlineNanos) {
+        CompletionKey key = new CompletionKey(endCity, criterion);
+        while (true) {
+            CompletableFuture<Completion> future;
+            boolean owner = false;
+            synchronized (completions) {
+                future = completions.get(key);
+                if (future == null) {
+                    future = new CompletableFuture<>();
+                    completions.put(key, future);
+                    owner = true;
+                    Iterator<CompletableFuture<Completion>> eldest = completions.values().iterator();
+                    while (completions.size() > MAX_COMPLETIONS) {
+                        eldest.next();
+                        eldest.remove();
+                    }
+                }
+            }
+
+            if (owner) {
+                Completion computed;
+                try {
+                    computed = computeCompletion(endCity, criterion, deadlineNanos);
+                } catch (RuntimeException | Error e) {
+                    synchronized (completions) {
+                        completions.remove(key, future);
+                    }
+                    future.completeExceptionally(e);
+                    throw e;
+                }
+                if (computed == null) {
+                    synchronized (completions) {
+                        completions.remove(key, future);
+                    }
+                }
+                future.complete(computed);
+                return computed;
+            }
+
+            Completion shared = await(future, deadlineNanos);
+            if (shared != null || SearchBudget.isPast(deadlineNanos) || Thread.currentThread().isInterrupted()) {
+                return shared;
+            }
+        }
+    }
+
+    /**
+     * Čeka nastavke koje računa druga nit, najduže do roka.
+     *
+     * @param future Nastavci koji se računaju.
+     * @param deadlineNanos Rok izračunat metodom {@link SearchBudget#deadlineNanos(long)}.
+     * @return Izračunati {@link Completion}, ili {@code null} ako je rok istekao, nit je
+     *         prekinuta ili je računanje prekinuto rokom druge niti.
+     */
+    private static Completion await(CompletableFuture<Completion> future, long deadlineNanos) {
+        if (deadlineNanos == Long.MAX_VALUE) {
+            return future.join();
+        }
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * Računa najbolji nastavak do odredišnog grada za svaki čvor grafa događaja,
+     * Dijkstrinom pretragom unazad od dolazaka u odredišni grad. Red je indeksirani
+     * heap sa pakovanim ključevima, pa se poboljšani čvor ažurira na mjestu umjesto
+     * da se u red dodaje novi element. Izvedene klase mogu nastavke računati drugačije
+     * (npr. paralelno, {@link DeltaSteppingCompletionRouteFinder}), ali vrijednosti moraju biti iste.
+     *
+     * @param endCity Odredišni grad.
+     * @param criterion Kriterijum optimizacije.
+     * @param deadlineNanos Rok izračunat metodom {@link SearchBudget#deadlineNanos(long)}.
+     * @return Izračunati {@link Completion}, ili {@code null} ako je rok istekao prije kraja.
+     */
+    Completion computeCompletion(City endCity, OptimizationCriterion criterion, long deadlineNanos) {
+        int count = timetable.departureCount();
+        // Čvorovi 0..count-1 su polasci, a count..2*count-1 dolasci
+        Completion best = new Completion(2 * count, endCity, criterion, timetable.cityMask(endCity));
+        IndexedLongHeap heap = new IndexedLongHeap(2 * count);
+
+        for (int d = 0; d < count; d++) {
+            if (best.isEndStation[timetable.departureTo(d)]) {
+                best.set(count + d, 0, 0, 0);
+                heap.insert(count + d, best.key[count + d]);
+            }
+        }
+
+        long polled = 0;
+        while (!heap.isEmpty()) {
+            if ((polled++ & DEADLINE_CHECK_MASK) == 0 && SearchBudget.isPast(deadlineNanos)) {
+                return null;
+            }
+            int node = heap.poll();
+            long time = best.time[node];
+            long cents = best.cents[node];
+            int rides = best.rides[node];
+
+            if (node >= count) {
+                // Dolazak polaskom d: prethodi mu polazak d
+                int d = node - count;
+                relax(best, heap, d, time + timetable.rideMinutes(d), cents + timetable.priceCents(d), rides + 1);
+                continue;
+            }
+
+            int s = timetable.departureFrom(node);
+            int previous = node > timetable.firstDeparture(s) ? node - 1 : timetable.endDeparture(s) - 1;
+            if (previous != node) {
+                long waitingMinutes = Math.floorMod(
+                        timetable.departureMinute(node) - timetable.departureMinute(previous), MINUTES_PER_DAY);
+                relax(best, heap, previous, time + waitingMinutes, cents, rides);
+            }
+            for (int i = firstWaitingArrival[node]; i < firstWaitingArrival[node + 1]; i++) {
+                int d = waitingArrivals[i];
+                if (best.isEndStation[timetable.departureTo(d)]) continue;
+                long waitingMinutes = Math.floorMod(
+                        timetable.departureMinute(node) - timetable.arrivalMinute(d), MINUTES_PER_DAY);
+                relax(best, heap, count + d, time + waitingMinutes, cents, rides);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Ažurira vrijednost čvora ako je nova vrijednost bolja i dodaje ga u red,
+     * odnosno smanjuje mu ključ ako je već u redu.
+     *
+     * @param best Trenutne vrijednosti čvorova.
+     * @param heap Red pretrage unazad.
+     * @param node Čvor koji se ažurira.
+     * @param time Vrijeme nastavka u minutama.
+     * @param cents Cijena nastavka u feninzima.
+     * @param rides Broj vožnji nastavka.
+     */
+    private static void relax(Completion best, IndexedLongHeap heap, int node, long time, long cents, int rides) {
+        long key = best.criterion.packKey(time, cents, rides);
+        if (!best.isReachable(node) || key < best.key[node]) {
+            best.set(node, time, cents, rides);
+            heap.insertOrDecrease(node, key);
+        }
+    }
+
+    /**
+     * Ključ sačuvanih nastavaka.
+     *
+     * @param endCity Odredišni grad.
+     * @param criterion Kriterijum optimizacije.
+     */
+    private record CompletionKey(City endCity, OptimizationCriterion criterion) {
+    }
+
+    /**
+     * Najbolji nastavci do odredišta za sve čvorove grafa događaja, zajedno sa
+     * pakovanim ključem po kriterijumu.
+     */
+    static final class Completion {
+        final long[] time;
+        final long[] cents;
+        final int[] rides;
+        final long[] key;
+        final City endCity;
+        final OptimizationCriterion criterion;
+        final boolean[] isEndStation;
+
+        Completion(int nodeCount, City endCity, OptimizationCriterion criterion, boolean[] isEndStation) {
+            this.time = new long[nodeCount];
+            this.cents = new long[nodeCount];
+            this.rides = new int[nodeCount];
+            this.key = new long[nodeCount];
+            this.endCity = endCity;
+            this.criterion = criterion;
+            this.isEndStation = isEndStation;
+            Arrays.fill(time, -1);
+        }
+
+        boolean matches(City city, OptimizationCriterion otherCriterion) {
+            return endCity.equals(city) && criterion == otherCriterion;
+        }
+
+        boolean isReachable(int node) {
+            return time[node] >= 0;
+        }
+
+        void set(int node, long nodeTime, long nodeCents, int nodeRides) {
+            time[node] = nodeTime;
+            cents[node] = nodeCents;
+            rides[node] = nodeRides;
+            key[node] = criterion.packKey(nodeTime, nodeCents, nodeRides);
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package project.pj25.algorithm;
 
 import project.pj25.model.*;
-import java.time.LocalTime;
 import java.util.Objects;
 
 /**
- * Pomoćna klasa koja predstavlja stanje čvora u algoritmu pretrage rute.
+ * Pomoćna klasa koja predstavlja stanje čvora (oznaku) u algoritmu pretrage rute.
  *
  * <p>Ova klasa čuva trenutno stanje tokom pretrage: stanicu, vrijeme dolaska
- * na tu stanicu i putanju do te tačke. Implementira interfejs {@link Comparable}
+ * na tu stanicu i način na koji se do nje stiglo. Implementira interfejs {@link Comparable}
  * kako bi se omogućilo poređenje stanja na osnovu različitih kriterijuma
  * (vrijeme, cijena, presjedanja). Ovo je ključno za rad algoritma sa prioritetnim redom.</p>
  *
+ * <p>Stanje ne sadrži kopiju putanje, nego pokazivač na prethodno stanje i polazak
+ * kojim se iz njega stiglo, zajedno sa kumulativnim vrijednostima putanje. Sva stanja
+ * jedne pretrage tako čine stablo u kojem produžavanje putanje za jednu vožnju zauzima
+ * konstantnu memoriju, a {@link Path} se gradi tek za pronađene rute
+ * ({@link #getCurrentPath()}). Stanica i polazak se čuvaju kao indeksi u
+ * {@link CompiledTimetable}.</p>
+ *
+ * <p>Sve vrijednosti su cijeli brojevi: vrijeme je broj minuta od ponoći dana prvog
+ * polaska (dan putovanja je {@code minuta / 1440}), cijena je u feninzima, a broj
+ * presjedanja je broj vožnji umanjen za jedan. Vrijednosti putanje i granice se pri
+ * kreiranju stanja pakuju u jedan {@code long} ključ
+ * ({@link OptimizationCriterion#packKey(long, long, long)}), pa poređenje dva stanja
+ * ne prolazi kroz segmente putanje, ne poredi stringove i ne alocira {@code LocalTime}
+ * ni {@code Duration} objekte.</p>
+ *
  * @author bratsale
  * @version 1.0
  * @see RouteFinder
@@ -19,50 +33,229 @@ import java.util.Objects;
  */
 public class NodeState implements Comparable<NodeState> {
     /**
-     * Trenutna stanica na kojoj se stanje nalazi.
+     * Broj minuta u jednom danu.
+     */
+    private static final int MINUTES_PER_DAY = CompiledTimetable.MINUTES_PER_DAY;
+    /**
+     * Kompajlirani vozni red kojem pripadaju stanica i polazak stanja.
+     */
+    private final CompiledTimetable timetable;
+    /**
+     * Interni ID stanice na kojoj se stanje nalazi.
+     */
+    private final int station;
+    /**
+     * Prethodno stanje, ili {@code null} za početno stanje.
+     */
+    private final NodeState previous;
+    /**
+     * Indeks polaska kojim se iz prethodnog stanja stiglo na stanicu, ili -1 za početno stanje.
      */
-    private Station station;
+    private final int departure;
     /**
-     * Vrijeme dolaska na ovu stanicu.
+     * Minuta polaska prve vožnje u prvom danu putovanja (0 za početno stanje).
      */
-    private LocalTime arrivalTime;
+    private final int startMinute;
     /**
-     * Kumulativna putanja do trenutnog stanja.
+     * Minuta dolaska na ovu stanicu, računata od ponoći prvog dana putovanja (0 za početno stanje).
      */
-    private Path currentPath;
+    private final int arrivalMinute;
+    /**
+     * Ukupna cijena putanje u feninzima.
+     */
+    private final int totalCents;
+    /**
+     * Broj vožnji na putanji.
+     */
+    private final int segmentCount;
     /**
      * Kriterijum optimizacije koji se koristi za poređenje stanja.
      */
-    private String optimizationCriterion;
+    private final OptimizationCriterion optimizationCriterion;
+    /**
+     * Pakovani leksikografski ključ procijenjene ukupne vrijednosti po kriterijumu.
+     */
+    private final long key;
 
     /**
      * Konstruktor za kreiranje novog stanja čvora.
      *
-     * @param station Trenutna stanica.
-     * @param arrivalTime Vrijeme dolaska.
-     * @param currentPath Kumulativna putanja do trenutnog stanja.
-     * @param optimizationCriterion Kriterijum optimizacije (npr. "time", "price", "transfers").
+     * @param timetable Kompajlirani vozni red.
+     * @param previous Prethodno stanje, ili {@code null} za početno stanje.
+     * @param station Interni ID stanice na koju se stiglo.
+     * @param departure Indeks polaska iz prethodnog stanja do stanice, ili -1 za početno stanje.
+     * @param optimizationCriterion Kriterijum optimizacije.
      */
-    public NodeState(Station station, LocalTime arrivalTime, Path currentPath, String optimizationCriterion) {
+    public NodeState(CompiledTimetable timetable, NodeState previous, int station, int departure,
+                     OptimizationCriterion optimizationCriterion) {
+        this(timetable, previous, station, departure, optimizationCriterion, 0, 0, 0);
+    }
+
+    /**
+     * Konstruktor za kreiranje stanja čvora sa donjim granicama preostalog puta do odredišta.
+     * <p>Granice se dodaju na vrijednosti putanje prilikom poređenja, što omogućava
+     * ciljno usmjerenu (A*) pretragu. Granice moraju biti dopustive, tj. nikada veće
+     * od stvarnog preostalog troška.</p>
+     * <p>Vrijednosti putanje se računaju iz prethodnog stanja: prva vožnja kreće bez
+     * čekanja prvog dana, a svaka naredna kreće u prvom terminu polaska nakon prethodnog
+     * dolaska (narednog dana ako je polazak ranije u danu) i dodaje jedno presjedanje.</p>
+     *
+     * @param timetable Kompajlirani vozni red.
+     * @param previous Prethodno stanje, ili {@code null} za početno stanje.
+     * @param station Interni ID stanice na koju se stiglo.
+     * @param departure Indeks polaska iz prethodnog stanja do stanice, ili -1 za početno stanje.
+     * @param optimizationCriterion Kriterijum optimizacije.
+     * @param remainingMinutesBound Donja granica preostalog vremena putovanja u minutama.
+     * @param remainingCentsBound Donja granica preostale cijene u feninzima.
+     * @param remainingTransfersBound Donja granica preostalog broja presjedanja.
+     * @throws IllegalArgumentException ako stanje ima samo prethodno stanje ili samo polazak.
+     */
+    public NodeState(CompiledTimetable timetable, NodeState previous, int station, int departure,
+                     OptimizationCriterion optimizationCriterion,
+                     long remainingMinutesBound, long remainingCentsBound, int remainingTransfersBound) {
+        if ((previous == null) != (departure < 0)) {
+            throw new IllegalArgumentException("Stanje mora imati i prethodno stanje i polazak, ili nijedno od njih.");
+        }
+        this.timetable = timetable;
         this.station = station;
-        this.arrivalTime = arrivalTime;
-        this.currentPath = currentPath;
+        this.previous = previous;
+        this.departure = departure;
         this.optimizationCriterion = optimizationCriterion;
+
+        if (departure < 0) {
+            this.startMinute = 0;
+            this.arrivalMinute = 0;
+            this.totalCents = 0;
+            this.segmentCount = 0;
+        } else {
+            int departureMinuteOfDay = timetable.departureMinute(departure);
+            int departureMinute;
+            if (previous.isStart()) {
+                departureMinute = departureMinuteOfDay;
+                this.startMinute = departureMinuteOfDay;
+            } else {
+                departureMinute = timetable.nextDepartureMinute(departure, previous.arrivalMinute);
+                this.startMinute = previous.startMinute;
+            }
+            this.arrivalMinute = departureMinute + timetable.rideMinutes(departure);
+            this.totalCents = previous.totalCents + timetable.priceCents(departure);
+            this.segmentCount = previous.segmentCount + 1;
+        }
+
+        this.key = optimizationCriterion.packKey(
+                getTravelMinutes() + remainingMinutesBound,
+                totalCents + remainingCentsBound,
+                getTransfers() + (long) remainingTransfersBound);
     }
 
-    // Getteri i setteri
+    // Getteri
 
     /**
      * Vraća stanicu trenutnog stanja.
      * @return {@link Station} objekat.
      */
-    public Station getStation() { return station; }
+    public Station getStation() { return timetable.getStation(station); }
+
+    /**
+     * Vraća interni ID stanice trenutnog stanja.
+     * @return Interni ID stanice u {@link CompiledTimetable}.
+     */
+    public int getStationIndex() { return station; }
+
+    /**
+     * Vraća prethodno stanje.
+     * @return Prethodni {@code NodeState}, ili {@code null} za početno stanje.
+     */
+    public NodeState getPrevious() { return previous; }
+
+    /**
+     * Vraća polazak kojim se stiglo na stanicu.
+     * @return {@link Departure} objekat, ili {@code null} za početno stanje.
+     */
+    public Departure getDeparture() { return departure < 0 ? null : timetable.getDeparture(departure); }
+
+    /**
+     * Vraća indeks polaska kojim se stiglo na stanicu.
+     * @return Indeks polaska u {@link CompiledTimetable}, ili -1 za početno stanje.
+     */
+    public int getDepartureIndex() { return departure; }
 
     /**
-     * Vraća putanju do trenutnog stanja.
+     * Provjerava da li je ovo početno stanje, tj. stanje sa praznom putanjom.
+     * @return {@code true} ako na putanji nema nijedne vožnje.
+     */
+    public boolean isStart() { return departure < 0; }
+
+    /**
+     * Vraća minutu dolaska na stanicu, računatu od ponoći prvog dana putovanja.
+     * @return Minuta dolaska (0 za početno stanje).
+     */
+    public int getArrivalMinute() { return arrivalMinute; }
+
+    /**
+     * Vraća minutu u danu u kojoj se stiglo na stanicu.
+     * @return Minuta dolaska u danu, od 0 do 1439.
+     */
+    public int getArrivalMinuteOfDay() { return arrivalMinute % MINUTES_PER_DAY; }
+
+    /**
+     * Vraća redni broj dana putovanja (počevši od 0) u kojem se stiglo na stanicu.
+     * @return Dan dolaska.
+     */
+    public int getArrivalDay() { return arrivalMinute / MINUTES_PER_DAY; }
+
+    /**
+     * Vraća ukupno vrijeme putovanja u minutama.
+     * @return Vrijeme od prvog polaska do dolaska na stanicu.
+     */
+    public int getTravelMinutes() { return arrivalMinute - startMinute; }
+
+    /**
+     * Vraća ukupnu cijenu putanje u feninzima.
+     * @return Ukupna cijena u feninzima.
+     */
+    public int getTotalCents() { return totalCents; }
+
+    /**
+     * Vraća broj vožnji na putanji.
+     * @return Broj vožnji.
+     */
+    public int getSegmentCount() { return segmentCount; }
+
+    /**
+     * Vraća broj presjedanja na putanji.
+     * @return Broj vožnji umanjen za jedan (0 za praznu putanju).
+     */
+    public int getTransfers() { return Math.max(0, segmentCount - 1); }
+
+    /**
+     * Rekonstruiše putanju do trenutnog stanja prolaskom kroz prethodna stanja.
+     * <p>Svaki poziv gradi novi {@link Path}, pa se metoda koristi samo za pronađene rute.</p>
      * @return {@link Path} objekat.
      */
-    public Path getCurrentPath() { return currentPath; }
+    public Path getCurrentPath() {
+        int[] departures = new int[segmentCount];
+        NodeState state = this;
+        for (int i = segmentCount - 1; i >= 0; i--) {
+            departures[i] = state.departure;
+            state = state.previous;
+        }
+        return timetable.toPath(departures);
+    }
+
+    /**
+     * Vraća pakovani ključ stanja; manji ključ znači bolje stanje po kriterijumu.
+     * @return Ključ za prioritetni red.
+     */
+    long getKey() { return key; }
+
+    /**
+     * Vraća pakovani ključ same putanje, bez granica preostalog puta.
+     * @return Ključ putanje po kriterijumu stanja.
+     */
+    long getPathKey() {
+        return optimizationCriterion.packKey(getTravelMinutes(), totalCents, getTransfers());
+    }
 
     /**
      * Vraća numeričku vrijednost troška putanje na osnovu kriterijuma optimizacije.
@@ -70,18 +263,15 @@ public class NodeState implements Comparable<NodeState> {
      * metriku za poređenje putanja.
      *
      * @return Trošak putanje kao double vrijednost.
-     * @throws IllegalArgumentException ako je kriterijum optimizacije nepoznat.
      */
     public double getCost() {
-        switch (this.optimizationCriterion.toLowerCase()) {
-            case "time":
-                return this.currentPath.getTotalTravelTime().toMinutes();
-            case "price":
-                return this.currentPath.getTotalCost();
-            case "transfers":
-                return this.currentPath.getTransfers();
+        switch (this.optimizationCriterion) {
+            case TIME:
+                return getTravelMinutes();
+            case PRICE:
+                return totalCents / 100.0;
             default:
-                throw new IllegalArgumentException("Nepoznat kriterijum optimizacije: " + optimizationCriterion);
+                return getTransfers();
         }
     }
 
@@ -99,52 +289,17 @@ public class NodeState implements Comparable<NodeState> {
      * <li><b>"transfers"</b>: Primarno se poredi broj presjedanja. Ako je jednak,
      * porede se vremena putovanja, a zatim cijene.</li>
      * </ul>
+     * Svaka vrijednost se prije poređenja uvećava za odgovarajuću donju granicu
+     * preostalog puta (podrazumijevano 0), a cijena se poredi u feninzima.
      * </p>
      *
      * @param other Drugi objekat {@code NodeState} za poređenje.
      * @return Negativan cijeli broj, nula, ili pozitivan cijeli broj ako je ovaj
      * objekat manji od, jednak, ili veći od navedenog objekta.
-     * @throws IllegalArgumentException ako je kriterijum optimizacije nepoznat.
      */
     @Override
     public int compareTo(NodeState other) {
-        switch (this.optimizationCriterion.toLowerCase()) {
-            case "time":
-                int timeCmp = this.currentPath.getTotalTravelTime().compareTo(other.currentPath.getTotalTravelTime());
-                if (timeCmp == 0) {
-                    int costCmp = Double.compare(this.currentPath.getTotalCost(), other.currentPath.getTotalCost());
-                    if (costCmp == 0) {
-                        return Integer.compare(this.currentPath.getTransfers(), other.currentPath.getTransfers());
-                    }
-                    return costCmp;
-                }
-                return timeCmp;
-
-            case "price":
-                int costCmp = Double.compare(this.currentPath.getTotalCost(), other.currentPath.getTotalCost());
-                if (costCmp == 0) {
-                    int timeCmpSecondary = this.currentPath.getTotalTravelTime().compareTo(other.currentPath.getTotalTravelTime());
-                    if (timeCmpSecondary == 0) {
-                        return Integer.compare(this.currentPath.getTransfers(), other.currentPath.getTransfers());
-                    }
-                    return timeCmpSecondary;
-                }
-                return costCmp;
-
-            case "transfers":
-                int transfersCmp = Integer.compare(this.currentPath.getTransfers(), other.currentPath.getTransfers());
-                if (transfersCmp == 0) {
-                    int timeCmpSecondary = this.currentPath.getTotalTravelTime().compareTo(other.currentPath.getTotalTravelTime());
-                    if (timeCmpSecondary == 0) {
-                        return Double.compare(this.currentPath.getTotalCost(), other.currentPath.getTotalCost());
-                    }
-                    return timeCmpSecondary;
-                }
-                return transfersCmp;
-
-            default:
-                throw new IllegalArgumentException("Nepoznat kriterijum optimizacije: " + optimizationCriterion);
-        }
+        return Long.compare(this.key, other.key);
     }
 
     /**
@@ -158,7 +313,7 @@ public class NodeState implements Comparable<NodeState> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         NodeState nodeState = (NodeState) o;
-        return Objects.equals(station.getId(), nodeState.station.getId());
+        return Objects.equals(getStation().getId(), nodeState.getStation().getId());
     }
 
     /**
@@ -168,6 +323,6 @@ public class NodeState implements Comparable<NodeState> {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(station.getId());
+        return Objects.hash(getStation().getId());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,201 @@
+package project.pj25.algorithm;
+
+/**
+ * Kriterijum optimizacije sa leksikografskim poretkom vrijednosti putanje.
+ * <p>
+ * Svaki kriterijum pakuje vrijeme (u minutama), cijenu (u feninzima) i broj
+ * presjedanja u jedan nenegativan {@code long} ključ, tako da je poređenje dva
+ * ključa isto što i poređenje putanja po kriterijumu: primarna vrijednost je u
+ * najvišim bitovima, a zatim slijede sekundarna i tercijarna. Vrijednosti veće
+ * od širine polja se zasićuju na najveću vrijednost polja.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see NodeState
+ * @see IndexedLongHeap
+ */
+public enum OptimizationCriterion {
+
+    /**
+     * Vrijeme, zatim cijena, zatim broj presjedanja.
+     */
+    TIME,
+
+    /**
+     * Cijena, zatim vrijeme, zatim broj presjedanja.
+     */
+    PRICE,
+
+    /**
+     * Broj presjedanja, zatim vrijeme, zatim cijena.
+     */
+    TRANSFERS;
+
+    /**
+     * Broj bitova za vrijeme u minutama (oko 15 godina).
+     */
+    private static final int TIME_BITS = 23;
+
+    /**
+     * Broj bitova za cijenu u feninzima (oko 2,6 miliona KM).
+     */
+    private static final int COST_BITS = 28;
+
+    /**
+     * Broj bitova za broj presjedanja.
+     */
+    private static final int TRANSFER_BITS = 12;
+
+    /**
+     * Pretvara naziv kriterijuma ("time", "price", "transfers") u vrijednost enumeracije.
+     *
+     * @param name Naziv kriterijuma, bez obzira na velika i mala slova.
+     * @return Odgovarajući {@code OptimizationCriterion}.
+     * @throws IllegalArgumentException ako je kriterijum nepoznat.
+     */
+    public static OptimizationCriterion fromName(String name) {
+        switch (name.toLowerCase()) {
+            case "time": return TIME;
+            case "price": return PRICE;
+            case "transfers": return TRANSFERS;
+            default: throw new IllegalArgumentException("Nepoznat kriterijum optimizacije: " + name);
+        }
+    }
+
+    /**
+     * Pakuje vrijednosti putanje u jedan ključ po ovom kriterijumu.
+     *
+     * @param minutes Ukupno vrijeme u minutama.
+     * @param cents Ukupna cijena u feninzima.
+     * @param transfers Broj presjedanja.
+     * @return Nenegativan ključ; manji ključ znači bolju putanju.
+     */
+    public long packKey(long minutes, long cents, long transfers) {
+        long time = saturate(minutes, TIME_BITS);
+        long cost = saturate(cents, COST_BITS);
+        long changes = saturate(transfers, TRANSFER_BITS);
+        switch (this) {
+            case TIME:
+                return (time << (COST_BITS + TRANSFER_BITS)) | (cost << TRANSFER_BITS) | changes;
+            case PRICE:
+                return (cost << (TIME_BITS + TRANSFER_BITS)) | (time << TRANSFER_BITS) | changes;
+            default:
+                return (changes << (TIME_BITS + COST_BITS)) | (time << COST_BITS) | cost;
+        }
+    }
+
+    /**
+     * Pakuje vrijednosti gotove putanje u ključ ovog kriterijuma. Cijena se računa kao
+     * zbir cijena segmenata u feninzima, isto kao u oznakama pretrage, pa je ključ
+     * jednak ključu oznake kojom je putanja pronađena.
+     *
+     * @param path Putanja.
+     * @return Ključ putanje; manji ključ znači bolju putanju.
+     */
+    long keyOf(Path path) {
+        long cents = 0;
+        for (RouteSegment segment : path.getSegments()) {
+            cents += toCents(segment.getPrice());
+        }
+        return packKey(path.getEndMinute() - path.getStartMinute(), cents, path.getTransfers());
+    }
+
+    /**
+     * Vraća vrijeme u minutama iz ključa ovog kriterijuma.
+     *
+     * @param key Ključ dobijen metodom {@link #packKey(long, long, long)}.
+     * @return Vrijeme u minutama (zasićeno na širinu polja).
+     */
+    long minutesOf(long key) {
+        switch (this) {
+            case TIME:
+                return field(key, COST_BITS + TRANSFER_BITS, TIME_BITS);
+            case PRICE:
+                return field(key, TRANSFER_BITS, TIME_BITS);
+            default:
+                return field(key, COST_BITS, TIME_BITS);
+        }
+    }
+
+    /**
+     * Vraća cijenu u feninzima iz ključa ovog kriterijuma.
+     *
+     * @param key Ključ dobijen metodom {@link #packKey(long, long, long)}.
+     * @return Cijena u feninzima (zasićena na širinu polja).
+     */
+    long centsOf(long key) {
+        switch (this) {
+            case TIME:
+                return field(key, TRANSFER_BITS, COST_BITS);
+            case PRICE:
+                return field(key, TIME_BITS + TRANSFER_BITS, COST_BITS);
+            default:
+                return field(key, 0, COST_BITS);
+        }
+    }
+
+    /**
+     * Vraća broj presjedanja (ili vožnji, zavisno od toga šta je upakovano) iz ključa.
+     *
+     * @param key Ključ dobijen metodom {@link #packKey(long, long, long)}.
+     * @return Treća vrijednost ključa (zasićena na širinu polja).
+     */
+    long transfersOf(long key) {
+        switch (this) {
+            case TIME:
+            case PRICE:
+                return field(key, 0, TRANSFER_BITS);
+            default:
+                return field(key, TIME_BITS + COST_BITS, TRANSFER_BITS);
+        }
+    }
+
+    /**
+     * Vraća primarnu vrijednost ključa (vrijeme, cijenu ili broj presjedanja).
+     *
+     * @param key Ključ dobijen metodom {@link #packKey(long, long, long)}.
+     * @return Vrijednost najviših bitova ključa.
+     */
+    long primaryOf(long key) {
+        switch (this) {
+            case TIME: return minutesOf(key);
+            case PRICE: return centsOf(key);
+            default: return transfersOf(key);
+        }
+    }
+
+    /**
+     * Pretvara cijenu u feninge, zaokruživanjem na najbliži fening.
+     *
+     * @param price Cijena u KM.
+     * @return Cijena u feninzima.
+     */
+    static long toCents(double price) {
+        return Math.round(price * 100.0);
+    }
+
+    /**
+     * Izdvaja polje zadate širine iz ključa.
+     *
+     * @param key Ključ.
+     * @param shift Pozicija najnižeg bita polja.
+     * @param bits Širina polja u bitovima.
+     * @return Vrijednost polja.
+     */
+    private static long field(long key, int shift, int bits) {
+        return (key >>> shift) & ((1L << bits) - 1);
+    }
+
+    /**
+     * Ograničava vrijednost na opseg polja zadate širine.
+     *
+     * @param value Vrijednost.
+     * @param bits Širina polja u bitovima.
+     * @return Vrijednost između 0 i najveće vrijednosti polja.
+     */
+    private static long saturate(long value, int bits) {
+        long max = (1L << bits) - 1;
+        return value < 0 ? 0 : Math.min(value, max);
+    }
+}
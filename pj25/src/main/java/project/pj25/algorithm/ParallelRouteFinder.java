@@ -0,0 +1,198 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+/**
+ * Paralelna pretraga ruta sa više početnih stanica.
+ * <p>
+ * Umjesto jednog reda u koji se stavljaju sve stanice početnog grada, za svaku početnu
+ * stanicu se u {@link ForkJoinPool}-u pokreće posebna pretraga osnovnog algoritma
+ * ({@link RouteFinder} ili izvedene klase) sa samo tom stanicom. Svaka ruta kreće sa
+ * tačno jedne stanice, pa je svaka od N najboljih ruta grada ujedno među N najboljih
+ * ruta svoje stanice; spajanjem lista po stanicama i uzimanjem prvih N dobija se isti
+ * skup ključeva kao u sekvencijalnoj pretrazi. Liste se spajaju stabilnim sortiranjem
+ * po pakovanom ključu rute ({@link OptimizationCriterion#packKey(long, long, long)}),
+ * redoslijedom stanica, pa je rezultat isti bez obzira na broj niti i redoslijed
+ * završetka podzadataka.
+ * </p>
+ * <p>
+ * Podzadaci ne dijele odbacivanje dominiranih oznaka, pa ukupno obrađuju nešto više
+ * oznaka od sekvencijalne pretrage; ubrzanje zato zavisi od broja stanica u početnom
+ * gradu i broja jezgara. Vremenski rok budžeta važi za cijelu pretragu, a broj oznaka
+ * se dijeli na podzadatke, pa ukupan broj obrađenih oznaka ne prelazi budžet (osim ako
+ * je budžet manji od broja stanica, jer svaki podzadatak dobija bar jednu oznaku). Statistika rezultata je zbir statistika podzadataka.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RouteFinder
+ * @see RoutingEngine
+ */
+public class ParallelRouteFinder implements RoutingEngine {
+
+    /**
+     * Osnovni algoritam koji izvršava pretragu za svaku početnu stanicu.
+     */
+    private final RouteFinder routeFinder;
+
+    /**
+     * Pool niti u kojem se izvršavaju podzadaci.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Konstruktor koji koristi zajednički {@link ForkJoinPool#commonPool()}.
+     *
+     * @param routeFinder Osnovni algoritam pretrage.
+     */
+    public ParallelRouteFinder(RouteFinder routeFinder) {
+        this(routeFinder, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Konstruktor koji koristi zadati pool niti.
+     *
+     * @param routeFinder Osnovni algoritam pretrage.
+     * @param pool Pool niti u kojem se izvršavaju podzadaci.
+     */
+    public ParallelRouteFinder(RouteFinder routeFinder, ForkJoinPool pool) {
+        this.routeFinder = routeFinder;
+        this.pool = pool;
+    }
+
+    /**
+     * Pronalazi do N optimalnih ruta paralelnom pretragom po početnim stanicama.
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @return Lista pronađenih {@link Path} objekata, sortirana po kriterijumu.
+     */
+    @Override
+    public List<Path> findTopNRoutes(City startCity, City endCity, String optimizationCriterion, int limit) {
+        return findTopNRoutes(startCity, endCity, optimizationCriterion, limit, SearchBudget.unlimited()).getRoutes();
+    }
+
+    /**
+     * Pronalazi do N optimalnih ruta paralelnom pretragom uz ograničeno vrijeme ili
+     * ukupan broj obrađenih oznaka, podijeljen na podzadatke.
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @param budget Ograničenje pretrage.
+     * @return {@link RouteSearchResult} sa spojenim rutama, oznakom optimalnosti i zbirnom statistikom.
+     */
+    @Override
+    public RouteSearchResult findTopNRoutes(City startCity, City endCity, String optimizationCriterion,
+                                            int limit, SearchBudget budget) {
+        OptimizationCriterion criterion = OptimizationCriterion.fromName(optimizationCriterion);
+        int[] sources = routeFinder.getTimetable().stationsInCity(startCity);
+        long deadlineNanos = budget.deadlineNanos(System.nanoTime());
+
+        List<RouteSearchResult> results = pool.invoke(
+                new SourceSearch(sources, 0, sources.length, endCity, criterion, limit, budget, deadlineNanos));
+
+        // Rezultati su poredani po stanicama, pa stabilno sortiranje po tačnom ključu
+        // daje deterministički redoslijed
+        boolean optimal = true;
+        long polled = 0;
+        long pushed = 0;
+        long dominated = 0;
+        long saved = 0;
+        boolean terminatedEarly = false;
+        List<Path> candidates = new ArrayList<>();
+        for (RouteSearchResult result : results) {
+            candidates.addAll(result.getRoutes());
+            optimal &= result.isOptimal();
+            SearchStatistics statistics = result.getStatistics();
+            polled += statistics.getPolledLabels();
+            pushed += statistics.getPushedLabels();
+            dominated += statistics.getDominatedLabels();
+            saved += statistics.getSavedLabels();
+            terminatedEarly |= statistics.isTerminatedEarly();
+        }
+
+        List<Path> topRoutes = candidates.stream()
+                .sorted(Comparator.comparingLong(criterion::keyOf))
+                .limit(limit)
+                .collect(Collectors.toList());
+        return new RouteSearchResult(topRoutes, optimal,
+                new SearchStatistics(polled, pushed, dominated, saved, terminatedEarly));
+    }
+
+    /**
+     * Vraća dio budžeta oznaka za jedan podzadatak. Oznake se dijele ravnomjerno, a
+     * ostatak dobijaju prvi podzadaci; vremenski rok se ne dijeli.
+     *
+     * @param budget Budžet cijele pretrage.
+     * @param parts Broj podzadataka.
+     * @param index Redni broj podzadatka.
+     * @return Budžet podzadatka sa bar jednom oznakom.
+     */
+    static SearchBudget labelShare(SearchBudget budget, int parts, int index) {
+        long labelLimit = budget.getLabelLimit();
+        if (labelLimit == Long.MAX_VALUE) {
+            return budget;
+        }
+        long share = labelLimit / parts + (index < labelLimit % parts ? 1 : 0);
+        return SearchBudget.of(budget.getTimeLimit(), Math.max(1, share));
+    }
+
+    /**
+     * Podzadatak koji pretražuje opseg početnih stanica, dijeleći ga na polovine dok
+     * ne ostane jedna stanica.
+     */
+    private final class SourceSearch extends RecursiveTask<List<RouteSearchResult>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sources;
+        private final int from;
+        private final int to;
+        private final City endCity;
+        private final OptimizationCriterion criterion;
+        private final int limit;
+        private final SearchBudget budget;
+        private final long deadlineNanos;
+
+        SourceSearch(int[] sources, int from, int to, City endCity, OptimizationCriterion criterion,
+                     int limit, SearchBudget budget, long deadlineNanos) {
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.endCity = endCity;
+            this.criterion = criterion;
+            this.limit = limit;
+            this.budget = budget;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        protected List<RouteSearchResult> compute() {
+            List<RouteSearchResult> results = new ArrayList<>();
+            if (to - from <= 1) {
+                if (to > from) {
+                    results.add(routeFinder.search(new int[]{sources[from]}, endCity, criterion,
+                            limit, labelShare(budget, sources.length, from), deadlineNanos));
+                }
+                return results;
+            }
+            int middle = (from + to) >>> 1;
+            SourceSearch left = new SourceSearch(sources, from, middle, endCity, criterion, limit, budget, deadlineNanos);
+            SourceSearch right = new SourceSearch(sources, middle, to, endCity, criterion, limit, budget, deadlineNanos);
+            right.fork();
+            results.addAll(left.compute());
+            results.addAll(right.join());
+            return results;
+        }
+    }
+}
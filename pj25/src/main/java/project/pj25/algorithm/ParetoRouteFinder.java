@@ -0,0 +1,254 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Klasa za višekriterijumsku pretragu ruta koja u jednom prolazu pronalazi
+ * kompletan Pareto skup po vremenu, cijeni i broju presjedanja.
+ * <p>
+ * Za svaku stanicu čuva se skup (tzv. "bag") međusobno nedominiranih oznaka.
+ * Oznaka se odbacuje ako je dominirana nekom već obrađenom oznakom na istoj
+ * stanici ili nekom već pronađenom rutom do odredišta. Pošto se vozni red
+ * ponavlja svakog dana, oznaka A dominira oznakom B na istoj stanici ako A
+ * može da sačeka do trenutka dolaska oznake B i da i dalje ne bude lošija:
+ * {@code trajanje(A) + čekanje(A -> B) <= trajanje(B)}, uz cijenu i broj vožnji
+ * koji nisu veći.
+ * </p>
+ * <p>
+ * Rezultat jedne pretrage odgovara na sva tri kriterijuma: rute za kriterijum
+ * "time", "price" ili "transfers" dobijaju se samo drugačijim sortiranjem
+ * istog skupa, bez ponovnog pokretanja pretrage.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RoutingEngine
+ * @see RouteFinder
+ */
+public class ParetoRouteFinder implements RoutingEngine {
+
+    /**
+     * Broj minuta u jednom danu.
+     */
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Kompajlirani vozni red transportne mape na kojoj se vrši pretraga.
+     */
+    private final CompiledTimetable timetable;
+
+    /**
+     * Konstruktor za kreiranje objekta {@code ParetoRouteFinder}.
+     *
+     * @param transportMap Transportna mapa koja se koristi za pretragu.
+     */
+    public ParetoRouteFinder(TransportMap transportMap) {
+        this(new CompiledTimetable(transportMap));
+    }
+
+    /**
+     * Konstruktor koji koristi već kompajlirani vozni red.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     */
+    public ParetoRouteFinder(CompiledTimetable timetable) {
+        this.timetable = timetable;
+    }
+
+    /**
+     * Pronalazi Pareto skup ruta i vraća prvih N po zadatom kriterijumu.
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @return Lista pronađenih {@link Path} objekata, sortirana po kriterijumu.
+     */
+    @Override
+    public List<Path> findTopNRoutes(City startCity, City endCity, String optimizationCriterion, int limit) {
+        return rankRoutes(findParetoRoutes(startCity, endCity), optimizationCriterion, limit);
+    }
+
+    /**
+     * Sortira već pronađeni skup ruta po zadatom kriterijumu i vraća prvih N.
+     * <p>
+     * Koristi se kada korisnik promijeni kriterijum, a početni i odredišni grad su isti,
+     * pa nije potrebno ponovo pokretati pretragu.
+     * </p>
+     *
+     * @param routes Skup ruta (npr. rezultat {@link #findParetoRoutes(City, City)}).
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @return Nova lista ruta sortirana po kriterijumu.
+     */
+    public static List<Path> rankRoutes(List<Path> routes, String optimizationCriterion, int limit) {
+        return routes.stream()
+                .sorted((p1, p2) -> RouteFinder.comparePaths(p1, p2, optimizationCriterion))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Pronalazi sve Pareto optimalne rute (po vremenu, cijeni i broju presjedanja)
+     * između dva grada.
+     * <p>
+     * Oznake se obrađuju redoslijedom (trajanje, cijena, broj vožnji), pa oznaka koja
+     * je jednom prihvaćena na stanici više ne može biti dominirana kasnijom oznakom.
+     * Ista osobina važi i za rute do odredišta, pa se rezultat samo dopunjava.
+     * </p>
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @return Lista međusobno nedominiranih {@link Path} objekata, sortirana po vremenu.
+     */
+    public List<Path> findParetoRoutes(City startCity, City endCity) {
+        List<List<Label>> bags = new ArrayList<>(Collections.nCopies(timetable.stationCount(), null));
+        boolean[] isSource = timetable.cityMask(startCity);
+        boolean[] isTarget = timetable.cityMask(endCity);
+        List<Label> results = new ArrayList<>();
+        PriorityQueue<Label> pq = new PriorityQueue<>(Comparator
+                .comparingInt(Label::getDuration)
+                .thenComparingInt(label -> label.cents)
+                .thenComparingInt(label -> label.rides));
+
+        for (int startStation = 0; startStation < isSource.length; startStation++) {
+            if (!isSource[startStation]) continue;
+            // Prva vožnja može krenuti u bilo kojem trenutku, pa se čekanje ne računa
+            for (int d = timetable.firstDeparture(startStation); d < timetable.endDeparture(startStation); d++) {
+                int nextStation = timetable.departureTo(d);
+                if (isSource[nextStation]) continue;
+                int departureMinute = timetable.departureMinute(d);
+                pq.add(new Label(nextStation, null, d, departureMinute,
+                        departureMinute + timetable.rideMinutes(d), timetable.priceCents(d), 1));
+            }
+        }
+
+        while (!pq.isEmpty()) {
+            Label current = pq.poll();
+            List<Label> bag = bags.get(current.station);
+            if (bag == null) {
+                bag = new ArrayList<>();
+                bags.set(current.station, bag);
+            }
+            if (isDominated(current, bag) || isDominatedByResult(current, results)) {
+                continue;
+            }
+            bag.add(current);
+
+            if (isTarget[current.station]) {
+                // Svako produženje rute do odredišta je lošije po sva tri kriterijuma
+                results.add(current);
+                continue;
+            }
+
+            for (int d = timetable.firstDeparture(current.station); d < timetable.endDeparture(current.station); d++) {
+                int nextStation = timetable.departureTo(d);
+                // Povratak u početni grad je uvijek dominiran kasnijim polaskom iz njega
+                if (isSource[nextStation]) continue;
+
+                int waitingMinutes = Math.floorMod(timetable.departureMinute(d) - current.arrivalMinute, MINUTES_PER_DAY);
+                int arrivalMinute = current.arrivalMinute + waitingMinutes + timetable.rideMinutes(d);
+
+                Label next = new Label(nextStation, current, d, current.startMinute,
+                        arrivalMinute, current.cents + timetable.priceCents(d), current.rides + 1);
+                List<Label> nextBag = bags.get(nextStation);
+                if ((nextBag != null && isDominated(next, nextBag)) || isDominatedByResult(next, results)) {
+                    continue;
+                }
+                pq.add(next);
+            }
+        }
+
+        List<Path> paretoRoutes = new ArrayList<>();
+        for (Label result : results) {
+            paretoRoutes.add(result.toPath(timetable));
+        }
+        return paretoRoutes;
+    }
+
+    /**
+     * Provjerava da li je oznaka dominirana nekom oznakom iz skupa na istoj stanici,
+     * uzimajući u obzir čekanje do trenutka njenog dolaska.
+     *
+     * @param label Oznaka koja se provjerava.
+     * @param bag Prihvaćene oznake na stanici.
+     * @return {@code true} ako postoji oznaka koja nije lošija ni po jednom kriterijumu.
+     */
+    private boolean isDominated(Label label, List<Label> bag) {
+        for (Label other : bag) {
+            int waitingMinutes = Math.floorMod(label.arrivalMinute - other.arrivalMinute, MINUTES_PER_DAY);
+            if (other.getDuration() + waitingMinutes <= label.getDuration()
+                    && other.cents <= label.cents
+                    && other.rides <= label.rides) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Provjerava da li je oznaka dominirana nekom već pronađenom rutom do odredišta.
+     * Pošto svako produženje samo povećava trajanje, cijenu i broj vožnji, takvu oznaku
+     * nema smisla dalje razvijati.
+     *
+     * @param label Oznaka koja se provjerava.
+     * @param results Do sada pronađene rute do odredišta.
+     * @return {@code true} ako je oznaka dominirana.
+     */
+    private boolean isDominatedByResult(Label label, List<Label> results) {
+        for (Label result : results) {
+            if (result.getDuration() <= label.getDuration()
+                    && result.cents <= label.cents
+                    && result.rides <= label.rides) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Oznaka u višekriterijumskoj pretrazi: jedna djelimična ruta do stanice,
+     * sa pokazivačem na prethodnu oznaku.
+     */
+    private static final class Label {
+        final int station;
+        final Label parent;
+        final int departure;
+        final int startMinute;
+        final int arrivalMinute;
+        final int cents;
+        final int rides;
+
+        Label(int station, Label parent, int departure, int startMinute,
+              int arrivalMinute, int cents, int rides) {
+            this.station = station;
+            this.parent = parent;
+            this.departure = departure;
+            this.startMinute = startMinute;
+            this.arrivalMinute = arrivalMinute;
+            this.cents = cents;
+            this.rides = rides;
+        }
+
+        int getDuration() {
+            return arrivalMinute - startMinute;
+        }
+
+        Path toPath(CompiledTimetable timetable) {
+            int[] departures = new int[rides];
+            Label label = this;
+            for (int i = rides - 1; i >= 0; i--) {
+                departures[i] = label.departure;
+                label = label.parent;
+            }
+            return timetable.toPath(departures);
+        }
+    }
+}
@@ -14,6 +14,12 @@ import java.util.stream.Collectors;
  * i broj presjedanja. Ova klasa se koristi u algoritmima za pretragu
  * najoptimalnije rute.
  * </p>
+ * <p>
+ * Vremena se prate u apsolutnim minutama od ponoći prvog dana putovanja, pa je
+ * čekanje na presjedanje obična razlika minuta, a putovanje može trajati više dana.
+ * Segment koji kreće prije dolaska prethodnog se pomjera na prvi naredni dan u kojem
+ * se može uhvatiti.
+ * </p>
  *
  * @author bratsale
  * @version 1.0
@@ -37,6 +43,16 @@ public class Path implements Comparable<Path> {
      */
     private LocalTime endTime;
 
+    /**
+     * Apsolutna minuta polaska prve dionice.
+     */
+    private int startMinute;
+
+    /**
+     * Apsolutna minuta dolaska na konačnu destinaciju.
+     */
+    private int endMinute;
+
     /**
      * Ukupna kumulativna cijena putovanja.
      */
@@ -74,6 +90,8 @@ public class Path implements Comparable<Path> {
         this.segments = new ArrayList<>(other.segments);
         this.startTime = other.startTime;
         this.endTime = other.endTime;
+        this.startMinute = other.startMinute;
+        this.endMinute = other.endMinute;
         this.totalCost = other.totalCost;
         this.transfers = other.transfers;
         this.totalTravelTime = other.totalTravelTime;
@@ -88,41 +106,19 @@ public class Path implements Comparable<Path> {
     public void addSegment(RouteSegment segment) {
         if (this.segments.isEmpty()) {
             this.startTime = segment.getActualDepartureTime();
-            this.totalTravelTime = segment.getSegmentDuration();
+            this.startMinute = segment.getDepartureMinute();
         } else {
-            LocalTime prevArrivalTime = this.endTime;
-            LocalTime currentDepartureTime = segment.getActualDepartureTime();
-            Duration waitingDuration = calculateWaitingDuration(prevArrivalTime, currentDepartureTime);
-            this.totalTravelTime = this.totalTravelTime.plus(waitingDuration).plus(segment.getSegmentDuration());
+            segment = segment.atOrAfter(this.endMinute);
             this.transfers++;
         }
 
         this.segments.add(segment);
         this.endTime = segment.getActualArrivalTime();
+        this.endMinute = segment.getArrivalMinute();
+        this.totalTravelTime = Duration.ofMinutes(endMinute - startMinute);
         this.totalCost += segment.getDeparture().getPrice();
     }
 
-    /**
-     * Pomoćna metoda za izračunavanje vremena čekanja između dva vremena
-     * ({@link LocalTime}), uzimajući u obzir prelazak preko ponoći.
-     *
-     * @param prevArrivalTime Vrijeme dolaska prethodnog segmenta.
-     * @param currentDepartureTime Vrijeme polaska tekućeg segmenta.
-     * @return Trajanje čekanja kao {@link Duration}.
-     */
-    private Duration calculateWaitingDuration(LocalTime prevArrivalTime, LocalTime currentDepartureTime) {
-        long prevArrivalMinutes = prevArrivalTime.toSecondOfDay() / 60;
-        long currentDepartureMinutes = currentDepartureTime.toSecondOfDay() / 60;
-
-        long waitingMinutes;
-        if (currentDepartureMinutes < prevArrivalMinutes) {
-            waitingMinutes = (currentDepartureMinutes + (24 * 60)) - prevArrivalMinutes;
-        } else {
-            waitingMinutes = currentDepartureMinutes - prevArrivalMinutes;
-        }
-        return Duration.ofMinutes(waitingMinutes);
-    }
-
     // Getteri
 
     /**
@@ -149,6 +145,31 @@ public class Path implements Comparable<Path> {
         return endTime;
     }
 
+    /**
+     * Vraća apsolutnu minutu polaska prve dionice.
+     * @return Minuta polaska od ponoći prvog dana putovanja.
+     */
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    /**
+     * Vraća apsolutnu minutu dolaska na konačnu destinaciju.
+     * @return Minuta dolaska od ponoći prvog dana putovanja.
+     */
+    public int getEndMinute() {
+        return endMinute;
+    }
+
+    /**
+     * Vraća koliko dana nakon dana polaska putovanje završava.
+     * @return 0 ako se stiže istog dana, 1 ako se stiže narednog dana, itd.
+     */
+    public int getArrivalDayOffset() {
+        return Math.floorDiv(endMinute, CompiledTimetable.MINUTES_PER_DAY)
+                - Math.floorDiv(startMinute, CompiledTimetable.MINUTES_PER_DAY);
+    }
+
     /**
      * Vraća ukupnu cijenu putovanja.
      * @return Ukupna cijena.
@@ -189,13 +210,11 @@ public class Path implements Comparable<Path> {
                     .append(" (grad ").append(s.getDepartureStationCityName()).append(")")
                     .append(" -> ").append(s.getDeparture().getArrivalStationId())
                     .append(" (grad ").append(s.getArrivalStationCityName()).append(")")
-                    .append(" | Polazak: ").append(s.getActualDepartureTime())
-                    .append(", Dolazak: ").append(s.getActualArrivalTime())
+                    .append(" | Polazak: ").append(RouteSegment.formatTime(s.getActualDepartureTime(), s.getDepartureDay()))
+                    .append(", Dolazak: ").append(RouteSegment.formatTime(s.getActualArrivalTime(), s.getArrivalDay()))
                     .append(", Cijena: ").append(String.format("%.2f KM", s.getDeparture().getPrice())).append("\n");
             if (i < segments.size() - 1) {
-                LocalTime arrivalPrev = segments.get(i).getActualArrivalTime();
-                LocalTime departureNext = segments.get(i+1).getActualDepartureTime();
-                Duration wait = calculateWaitingDuration(arrivalPrev, departureNext);
+                Duration wait = Duration.ofMinutes(segments.get(i + 1).getDepartureMinute() - s.getArrivalMinute());
                 sb.append("     [Čekanje na presjedanje: ").append(formatDuration(wait)).append("]\n");
             }
         }
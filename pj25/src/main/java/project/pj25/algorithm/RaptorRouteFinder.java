@@ -0,0 +1,270 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Klasa za pronalazak ruta sa najmanjim brojem presjedanja pomoću RAPTOR algoritma
+ * (Round-bAsed Public Transit Optimized Router).
+ * <p>
+ * Pretraga se odvija u rundama: runda k računa najraniji dolazak na svaku stanicu
+ * koristeći najviše k vožnji, odnosno najviše k-1 presjedanja. U svakoj rundi se
+ * obrađuju samo polasci sa stanica čiji se dolazak poboljšao u prethodnoj rundi.
+ * Broj presjedanja je tako upravo redni broj runde, pa je za kriterijum "transfers"
+ * dovoljno nekoliko prolaza umjesto pretrage prioritetnim redom.
+ * </p>
+ * <p>
+ * Za svaku minutu polaska sa stanica početnog grada izvršava se jedna RAPTOR pretraga,
+ * koja daje najmanji broj vožnji i najraniji dolazak sa tim brojem vožnji. Najbolje
+ * putovanje sa najmanjim brojem vožnji i najkraćim trajanjem bira se skeniranjem
+ * polazaka unazad ({@link BoundedArrivalScan}), pa je rezultat isti kao ključ u
+ * {@link RouteFinder}. Pretraga daje jedno putovanje po minuti polaska, pa odgovara
+ * samo na upit za jednu rutu; upiti za više ruta i za ostale kriterijume se
+ * prosljeđuju rezervnom algoritmu.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RoutingEngine
+ * @see RouteFinder
+ */
+public class RaptorRouteFinder implements RoutingEngine {
+
+    /**
+     * Broj minuta u jednom danu.
+     */
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Vrijednost koja označava da stanica još nije dostignuta.
+     */
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    /**
+     * Algoritam kojem se prosljeđuju kriterijumi koje RAPTOR ne podržava.
+     */
+    private final RoutingEngine fallbackEngine;
+
+    /**
+     * Kompajlirani vozni red sa polascima grupisanim po polaznoj stanici.
+     */
+    private final CompiledTimetable timetable;
+
+    /**
+     * Skeniranje unazad koje bira najbolje među putovanjima sa najmanje vožnji.
+     */
+    private final BoundedArrivalScan boundedArrivalScan;
+
+    /**
+     * Konstruktor koji kao rezervni algoritam koristi {@link KShortestRouteFinder}.
+     *
+     * @param transportMap Transportna mapa koja se koristi za pretragu.
+     */
+    public RaptorRouteFinder(TransportMap transportMap) {
+        this(new CompiledTimetable(transportMap));
+    }
+
+    /**
+     * Konstruktor koji kao rezervni algoritam koristi {@link KShortestRouteFinder}
+     * nad istim kompajliranim voznim redom.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     */
+    public RaptorRouteFinder(CompiledTimetable timetable) {
+        this(timetable, new KShortestRouteFinder(timetable));
+    }
+
+    /**
+     * Konstruktor koji kompajlira vozni red transportne mape.
+     *
+     * @param transportMap Transportna mapa koja se koristi za pretragu.
+     * @param fallbackEngine Algoritam koji se koristi za kriterijume različite od "transfers".
+     */
+    public RaptorRouteFinder(TransportMap transportMap, RoutingEngine fallbackEngine) {
+        this(new CompiledTimetable(transportMap), fallbackEngine);
+    }
+
+    /**
+     * Konstruktor koji koristi već kompajlirani vozni red.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     * @param fallbackEngine Algoritam koji se koristi za kriterijume različite od "transfers".
+     */
+    public RaptorRouteFinder(CompiledTimetable timetable, RoutingEngine fallbackEngine) {
+        this.fallbackEngine = fallbackEngine;
+        this.timetable = timetable;
+        this.boundedArrivalScan = new BoundedArrivalScan(timetable);
+    }
+
+    /**
+     * Pronalazi najbolju rutu po kriterijumu "transfers".
+     * <p>
+     * Za svaku minutu polaska RAPTOR daje najmanji broj vožnji i najraniji dolazak sa
+     * tim brojem vožnji. Među minutama sa najmanjim brojem vožnji bira se najkraće
+     * trajanje, a {@link BoundedArrivalScan} među putovanjima tog trajanja bira ono
+     * sa najmanjim brojem vožnji, pa najjeftinije. Upiti za više ruta i za ostale
+     * kriterijume se prosljeđuju rezervnom algoritmu.
+     * </p>
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @return Lista pronađenih {@link Path} objekata, sortirana po kriterijumu.
+     */
+    @Override
+    public List<Path> findTopNRoutes(City startCity, City endCity, String optimizationCriterion, int limit) {
+        if (!"transfers".equalsIgnoreCase(optimizationCriterion) || limit != 1) {
+            return fallbackEngine.findTopNRoutes(startCity, endCity, optimizationCriterion, limit);
+        }
+
+        int stationCount = timetable.stationCount();
+        boolean[] isSource = timetable.cityMask(startCity);
+        boolean[] isTarget = timetable.cityMask(endCity);
+        boolean[] isStartMinute = new boolean[MINUTES_PER_DAY];
+        for (int s = 0; s < stationCount; s++) {
+            if (isSource[s]) {
+                for (int d = timetable.firstDeparture(s); d < timetable.endDeparture(s); d++) {
+                    isStartMinute[timetable.departureMinute(d)] = true;
+                }
+            }
+        }
+
+        RoundLabels labels = new RoundLabels(stationCount);
+        int[] rounds = new int[MINUTES_PER_DAY];
+        int[] duration = new int[MINUTES_PER_DAY];
+        Arrays.fill(duration, UNREACHED);
+        int bestRounds = UNREACHED;
+        for (int startMinute = 0; startMinute < MINUTES_PER_DAY; startMinute++) {
+            if (!isStartMinute[startMinute]) continue;
+            rounds[startMinute] = runRounds(startMinute, isSource, isTarget, labels);
+            if (rounds[startMinute] > 0) {
+                duration[startMinute] = labels.targetArrival - startMinute;
+                bestRounds = Math.min(bestRounds, rounds[startMinute]);
+            }
+        }
+
+        int bestDuration = UNREACHED;
+        for (int startMinute = 0; startMinute < MINUTES_PER_DAY; startMinute++) {
+            if (duration[startMinute] != UNREACHED && rounds[startMinute] != bestRounds) {
+                duration[startMinute] = UNREACHED;
+            }
+            bestDuration = Math.min(bestDuration, duration[startMinute]);
+        }
+        return boundedArrivalScan.findBestOfShortest(isSource, isTarget, duration, bestDuration,
+                OptimizationCriterion.TRANSFERS);
+    }
+
+    /**
+     * Izvršava RAPTOR runde za jedno vrijeme polaska, do prve runde u kojoj se stiže
+     * u odredišni grad.
+     * <p>
+     * Dolazak se u rundi prihvata samo ako je raniji od najboljeg dolaska na tu stanicu
+     * i od najboljeg dolaska u odredišni grad u toj rundi. Runde se završavaju kada
+     * nijedna stanica nije poboljšana ili kada je odredište dostignuto.
+     * </p>
+     *
+     * @param startMinute Minuta u danu u kojoj ruta mora krenuti.
+     * @param isSource Oznake stanica početnog grada.
+     * @param isTarget Oznake stanica odredišnog grada.
+     * @param labels Nizovi dolazaka po rundama, koji se ponovo koriste između pretraga;
+     *               najraniji dolazak u odredište se upisuje u {@code targetArrival}.
+     * @return Najmanji broj vožnji do odredišta, ili -1 ako odredište nije dostižno.
+     */
+    private int runRounds(int startMinute, boolean[] isSource, boolean[] isTarget, RoundLabels labels) {
+        int[] bestArrival = labels.bestArrival;
+        Arrays.fill(bestArrival, UNREACHED);
+
+        int[] arrivalInRound = labels.arrivalInRound(0);
+        int markedCount = 0;
+        int[] marked = labels.marked;
+        int stationCount = timetable.stationCount();
+        for (int s = 0; s < stationCount; s++) {
+            if (isSource[s]) {
+                arrivalInRound[s] = startMinute;
+                bestArrival[s] = startMinute;
+                marked[markedCount++] = s;
+            }
+        }
+
+        int targetRound = -1;
+        int bestTargetArrival = UNREACHED;
+        for (int round = 1; markedCount > 0 && round <= stationCount && targetRound < 0; round++) {
+            int[] previousArrival = labels.arrivalInRound(round - 1);
+            int[] currentArrival = labels.arrivalInRound(round);
+            int nextMarkedCount = 0;
+
+            for (int m = 0; m < markedCount; m++) {
+                int station = marked[m];
+                int readyMinute = previousArrival[station];
+                for (int d = timetable.firstDeparture(station); d < timetable.endDeparture(station); d++) {
+                    int departureAbsolute = timetable.nextDepartureMinute(d, readyMinute);
+                    if (round == 1 && departureAbsolute != startMinute) continue;
+
+                    int arrivalAbsolute = departureAbsolute + timetable.rideMinutes(d);
+                    int to = timetable.departureTo(d);
+                    if (arrivalAbsolute >= bestArrival[to] || arrivalAbsolute >= bestTargetArrival) continue;
+
+                    if (labels.markedRound[to] != round) {
+                        labels.markedRound[to] = round;
+                        labels.nextMarked[nextMarkedCount++] = to;
+                    }
+                    bestArrival[to] = arrivalAbsolute;
+                    currentArrival[to] = arrivalAbsolute;
+                    if (isTarget[to]) {
+                        bestTargetArrival = arrivalAbsolute;
+                        targetRound = round;
+                    }
+                }
+            }
+
+            int[] swap = labels.marked;
+            labels.marked = labels.nextMarked;
+            labels.nextMarked = swap;
+            marked = labels.marked;
+            markedCount = nextMarkedCount;
+        }
+
+        // Oznake rundi se vežu za redni broj runde, pa se poništavaju prije naredne pretrage
+        Arrays.fill(labels.markedRound, -1);
+        labels.targetArrival = bestTargetArrival;
+        return targetRound;
+    }
+
+    /**
+     * Pomoćna klasa koja čuva nizove dolazaka po rundama.
+     * <p>
+     * Nizovi se alociraju po potrebi i ponovo koriste za sva vremena polaska jednog upita.
+     * Vrijednosti iz prethodnih pretraga nije potrebno brisati, jer se u rundi čitaju
+     * samo stanice koje su u toj pretrazi označene.
+     * </p>
+     */
+    private static class RoundLabels {
+        final int stationCount;
+        final int[] bestArrival;
+        final int[] markedRound;
+        int[] marked;
+        int[] nextMarked;
+        final List<int[]> arrivals = new ArrayList<>();
+        int targetArrival;
+
+        RoundLabels(int stationCount) {
+            this.stationCount = stationCount;
+            this.bestArrival = new int[stationCount];
+            this.markedRound = new int[stationCount];
+            this.marked = new int[stationCount];
+            this.nextMarked = new int[stationCount];
+            Arrays.fill(markedRound, -1);
+        }
+
+        int[] arrivalInRound(int round) {
+            while (arrivals.size() <= round) {
+                arrivals.add(new int[stationCount]);
+            }
+            return arrivals.get(round);
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package project.pj25.algorithm;
 
 import project.pj25.model.*;
-import java.time.Duration;
-import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -15,24 +13,36 @@ import java.util.stream.Collectors;
  * prve rute, algoritam nastavlja da istražuje kako bi pronašao i druge dobre
  * alternative.
  * </p>
+ * <p>
+ * Nizovi po stanicama, red pretrage i liste oznaka čuvaju se u {@link SearchWorkspace}
+ * koji svaka nit dobija jednom i ponovo koristi, pa uzastopni upiti na istoj niti
+ * ne alociraju strukture pretrage iznova, a pretrage na različitim nitima ga ne dijele.
+ * </p>
  *
  * @author bratsale
  * @version 1.1
  * @see TransportMap
+ * @see CompiledTimetable
  * @see Path
  * @see NodeState
+ * @see RoutingEngine
  */
-public class RouteFinder {
+public class RouteFinder implements RoutingEngine {
 
     /**
-     * Podrazumijevano minimalno vrijeme za presjedanje.
+     * Kompajlirani vozni red transportne mape na kojoj se vrši pretraga.
      */
-    private static final Duration DEFAULT_MIN_TRANSFER_TIME = Duration.ofMinutes(10);
+    private final CompiledTimetable timetable;
 
     /**
-     * Instanca transportne mape na kojoj se vrši pretraga.
+     * Statistika posljednje izvršene pretrage.
      */
-    private final TransportMap transportMap;
+    private SearchStatistics lastSearchStatistics;
+
+    /**
+     * Radni prostor pretrage za svaku nit, koji se ponovo koristi između upita.
+     */
+    private final ThreadLocal<SearchWorkspace> workspaces;
 
     /**
      * Konstruktor za kreiranje objekta {@code RouteFinder}.
@@ -40,17 +50,43 @@ public class RouteFinder {
      * @param transportMap Transportna mapa koja se koristi za pretragu.
      */
     public RouteFinder(TransportMap transportMap) {
-        this.transportMap = transportMap;
+        this(new CompiledTimetable(transportMap));
+    }
+
+    /**
+     * Konstruktor koji koristi već kompajlirani vozni red, koji se može dijeliti
+     * sa drugim algoritmima pretrage.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     */
+    public RouteFinder(CompiledTimetable timetable) {
+        this.timetable = timetable;
+        this.workspaces = ThreadLocal.withInitial(() -> new SearchWorkspace(timetable.stationCount()));
     }
 
     /**
      * Pronalazi do N optimalnih ruta između početnog i krajnjeg grada,
      * na osnovu zadatog kriterijuma optimizacije.
      * <p>
-     * Algoritam koristi modifikovanu Dijkstrinu pretragu koja čuva K najboljih
-     * putanja za svaku posjećenu stanicu, omogućavajući pronalazak više optimalnih ruta.
-     * Glavno ažuriranje: Uklonjena je logika za prerano zaustavljanje petlje pri pronalasku najbolje putanje,
-     * kao i duplikati
+     * Algoritam je pretraga K najkraćih putovanja: čvor grafa je par (stanica, vrijeme
+     * dolaska), jer od njega zavisi nastavak putovanja, a svaki čvor se obrađuje najviše
+     * N puta. Pošto svaki polazak produžava putanju za nenegativan iznos koji zavisi samo
+     * od čvora, i-ta obrada čvora je i-ta najbolja putanja do njega. Prvih N obrađenih
+     * putanja do stanica odredišnog grada su zato upravo N najboljih različitih ruta
+     * (različitih nizova polazaka), pa se pretraga tada zaustavlja. Broj oznaka koje
+     * zbog toga nisu obrađene dostupan je preko {@link #getLastSearchStatistics()}.
+     * Sa tačnom procjenom preostalog puta ({@link KShortestRouteFinder}) obrađuju se
+     * samo putanje koje leže na nekoj od najboljih N ruta.
+     * </p>
+     * <p>
+     * Putanja se odbacuje (prilikom dodavanja u red i prilikom obrade) i kada je na istoj
+     * stanici već obrađeno N putanja koje je dominiraju: svaka od njih može sačekati do
+     * trenutka dolaska odbačene putanje i nastaviti istim polascima, a da po kriterijumu
+     * ne bude lošija. Za N = 1 to je obična provjera dominacije; za veće N putanja mora
+     * biti dominirana N puta, jer bi inače mogla biti neka od narednih N najboljih.
+     * Polasci prema istom susjedu obilaze se redoslijedom čekanja, počevši od prvog
+     * narednog ({@link CompiledTimetable#firstInGroupAtOrAfter(int, int)}), pa se kasniji
+     * polazak odbacuje bez obrade i kada ga dominira N ranije dodatih polazaka iz iste oznake.
      * </p>
      *
      * @param startCity Početni grad.
@@ -59,139 +95,380 @@ public class RouteFinder {
      * @param limit Maksimalan broj ruta koje treba vratiti (5, prema projektnom zadatku)
      * @return Lista pronađenih {@link Path} objekata, sortirana po kriterijumu.
      */
+    @Override
     public List<Path> findTopNRoutes(City startCity, City endCity, String optimizationCriterion, int limit) {
-        Map<Station, List<Path>> kBestPathsToStation = new HashMap<>();
+        return findTopNRoutes(startCity, endCity, optimizationCriterion, limit, SearchBudget.unlimited()).getRoutes();
+    }
 
-        PriorityQueue<NodeState> pq = new PriorityQueue<>(
-                (n1, n2) -> {
-                    int cmp = n1.compareTo(n2);
-                    if (cmp == 0) {
-                        return Integer.compare(n1.hashCode(), n2.hashCode());
-                    }
-                    return cmp;
-                }
-        );
+    /**
+     * Pronalazi do N optimalnih ruta uz ograničeno vrijeme ili broj obrađenih oznaka.
+     * <p>
+     * Budžet se provjerava prije obrade svake oznake. Ako se iscrpi, vraćaju se najbolje
+     * rute do odredišta pronađene do tog trenutka (sortirane i bez duplikata, kao i inače),
+     * a rezultat se označava kao neoptimalan. Ako se pretraga završi prije toga, rezultat
+     * je isti kao kod pretrage bez budžeta.
+     * </p>
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @param budget Ograničenje pretrage.
+     * @return {@link RouteSearchResult} sa rutama, oznakom optimalnosti i statistikom.
+     */
+    @Override
+    public RouteSearchResult findTopNRoutes(City startCity, City endCity, String optimizationCriterion,
+                                            int limit, SearchBudget budget) {
+        RouteSearchResult result = searchRoutes(startCity, endCity,
+                OptimizationCriterion.fromName(optimizationCriterion), limit, budget,
+                budget.deadlineNanos(System.nanoTime()));
+        lastSearchStatistics = result.getStatistics();
+        return result;
+    }
+
+    /**
+     * Pronalazi do N optimalnih ruta između dva grada. Osnovna implementacija pokreće
+     * pretragu sa svim stanicama početnog grada; izvedene klase mogu rezultat dobiti i
+     * drugačije (npr. {@link SearchTreeRouteFinder} iz sačuvanog stabla pretrage).
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param criterion Kriterijum optimizacije.
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @param budget Ograničenje pretrage.
+     * @param deadlineNanos Rok izračunat metodom {@link SearchBudget#deadlineNanos(long)}.
+     * @return {@link RouteSearchResult} sa rutama, oznakom optimalnosti i statistikom.
+     */
+    RouteSearchResult searchRoutes(City startCity, City endCity, OptimizationCriterion criterion,
+                                   int limit, SearchBudget budget, long deadlineNanos) {
+        return search(timetable.stationsInCity(startCity), endCity, criterion, limit, budget, deadlineNanos);
+    }
+
+    /**
+     * Pretraga do N optimalnih ruta sa zadatih početnih stanica.
+     * <p>
+     * Koristi je {@link #findTopNRoutes(City, City, String, int, SearchBudget)} sa svim
+     * stanicama početnog grada, a {@link ParallelRouteFinder} sa po jednom stanicom u
+     * svakom podzadatku. Radni prostor je vezan za nit, pa se pretrage na različitim
+     * nitima mogu izvršavati istovremeno.
+     * </p>
+     * <p>
+     * Bez odredišnog grada ({@code endCity == null}) pretraga se ne zaustavlja nakon N ruta,
+     * nego obrađuje oznake do pražnjenja reda ili isteka budžeta; rezultat tada nema ruta,
+     * a sve obrađene oznake (osim početnih) ostaju, redoslijedom obrade, u listi
+     * pronađenih ruta radnog prostora niti ({@link #searchTree(int[], OptimizationCriterion, int, SearchBudget, long)}).
+     * </p>
+     *
+     * @param sources Interni ID-evi početnih stanica.
+     * @param endCity Odredišni grad, ili {@code null} za pretragu do svih stanica.
+     * @param criterion Kriterijum optimizacije.
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @param budget Ograničenje pretrage (broj oznaka se broji za ovu pretragu).
+     * @param deadlineNanos Rok izračunat metodom {@link SearchBudget#deadlineNanos(long)}.
+     * @return {@link RouteSearchResult} sa rutama sortiranim po ključu, oznakom optimalnosti i statistikom.
+     */
+    RouteSearchResult search(int[] sources, City endCity, OptimizationCriterion criterion,
+                             int limit, SearchBudget budget, long deadlineNanos) {
+        boolean budgetExhausted = false;
+        int segmentLimit = timetable.stationCount() * 2;
 
-        List<Path> foundRoutes = new ArrayList<>();
+        // Nizovi po stanicama, red i liste oznaka se ponovo koriste; nova epoha ih "prazni" u O(1)
+        SearchWorkspace workspace = workspaces.get();
+        workspace.begin();
+        boolean oneToAll = endCity == null;
+        workspace.markEndStations(oneToAll ? new int[0] : timetable.stationsInCity(endCity));
 
-        for (Station startStation : getStationsInCity(startCity)) {
-            Path initialPath = new Path();
-            LocalTime initialDepartureTime = LocalTime.MIDNIGHT;
+        // Oznake se čuvaju po rednom broju, a red sadrži samo redne brojeve sa pakovanim ključevima
+        List<NodeState> labels = workspace.labels;
+        IndexedLongHeap pq = workspace.queue;
 
-            NodeState initialState = new NodeState(startStation, initialDepartureTime, initialPath, optimizationCriterion);
-            pq.add(initialState);
+        List<NodeState> foundRoutes = workspace.foundRoutes;
+        long polledLabels = 0;
+        long pushedLabels = 0;
+        long dominatedLabels = 0;
+        boolean terminatedEarly = false;
+        NodeState[] siblings = workspace.siblings;
 
-            List<Path> initialPaths = new ArrayList<>();
-            initialPaths.add(initialPath);
-            kBestPathsToStation.put(startStation, initialPaths);
+        for (int startStation : sources) {
+            NodeState initialState = createNodeState(null, startStation, -1, endCity, criterion);
+            push(pq, labels, initialState);
+            pushedLabels++;
         }
 
         // Glavna petlja algoritma
-        while (!pq.isEmpty()) { // Glavno ažuriranje: petlja se ne zaustavlja prerano
-            NodeState currentNodeState = pq.poll();
-            Station currentStation = currentNodeState.getStation();
-            Path currentPath = currentNodeState.getCurrentPath();
+        while (!pq.isEmpty()) {
+            if (!oneToAll && foundRoutes.size() >= limit) {
+                // Stanja se obrađuju neopadajućim redoslijedom, pa su pronađene rute najboljih N
+                terminatedEarly = true;
+                break;
+            }
+            if (budget.isExhausted(polledLabels, deadlineNanos)) {
+                budgetExhausted = true;
+                break;
+            }
+            int labelId = pq.poll();
+            NodeState currentNodeState = labels.get(labelId);
+            labels.set(labelId, null);
+            polledLabels++;
+            int currentStation = currentNodeState.getStationIndex();
 
-            if (currentPath.getSegments().size() > transportMap.getAllStations().size() * 2) {
+            if (currentNodeState.getSegmentCount() > segmentLimit) {
                 continue;
             }
 
-            if (currentStation.getCity().equals(endCity)) {
-                foundRoutes.add(currentPath);
+            int currentMinute = currentNodeState.isStart() ? -1 : currentNodeState.getArrivalMinuteOfDay();
+            if (workspace.settledCount(currentStation, currentMinute) >= limit) {
+                continue;
+            }
+            List<NodeState> settledAtStation = workspace.settledAt(currentStation);
+            if (isDominated(currentNodeState, settledAtStation, limit, criterion)) {
+                dominatedLabels++;
+                continue;
             }
+            workspace.incrementSettledCount(currentStation, currentMinute);
+            settledAtStation.add(currentNodeState);
 
-            for (Departure departure : currentStation.getDepartures()) {
-                Station nextStation = transportMap.getStation(departure.getArrivalStationId());
-                if (nextStation == null) continue;
+            if ((oneToAll || workspace.isEndStation(currentStation)) && !currentNodeState.isStart()) {
+                foundRoutes.add(currentNodeState);
+            }
 
-                Duration minTransferNeeded = DEFAULT_MIN_TRANSFER_TIME;
-                if (currentPath.getSegments().isEmpty()) {
-                    minTransferNeeded = Duration.ZERO;
-                }
+            // Polasci se obilaze po susjedu, redoslijedom čekanja od trenutka dolaska
+            // (prvi naredni polazak pa dalje, uz prelazak preko ponoći)
+            int arrivalMinuteOfDay = currentNodeState.isStart() ? 0 : currentNodeState.getArrivalMinuteOfDay();
+            for (int group = timetable.firstGroup(currentStation); group < timetable.endGroup(currentStation); group++) {
+                int nextStation = timetable.groupTarget(group);
+                int groupStart = timetable.firstInGroup(group);
+                int groupEnd = timetable.endInGroup(group);
+                int first = timetable.firstInGroupAtOrAfter(group, arrivalMinuteOfDay);
+                int keptSiblings = 0;
 
-                LocalTime earliestReadyToDepart = currentPath.getEndTime().plus(minTransferNeeded);
-                LocalTime nextDepartureScheduledTime = departure.getDepartureTime();
-
-                boolean canTakeDeparture = false;
-                if (nextDepartureScheduledTime.isAfter(earliestReadyToDepart) || nextDepartureScheduledTime.equals(earliestReadyToDepart)) {
-                    canTakeDeparture = true;
-                } else if (nextDepartureScheduledTime.isBefore(earliestReadyToDepart) && earliestReadyToDepart.toSecondOfDay() > nextDepartureScheduledTime.toSecondOfDay()) {
-                    // Prelazak preko ponoći, bitan koncept računanja vremena kada vrijeme dolaska prelazi preko 00:00h
-                    long departureMinutes = nextDepartureScheduledTime.toSecondOfDay() / 60;
-                    long arrivalMinutes = earliestReadyToDepart.toSecondOfDay() / 60;
-                    if (departureMinutes + (24 * 60) >= arrivalMinutes) {
-                        canTakeDeparture = true;
-                    }
-                }
+                for (int i = 0; i < groupEnd - groupStart; i++) {
+                    int position = first + i < groupEnd ? first + i : first + i - (groupEnd - groupStart);
+                    int departure = timetable.groupedDeparture(position);
 
-                if (!canTakeDeparture) {
-                    continue;
-                }
+                    // Čvor u koji polazak vodi je već obrađen N puta, pa ova putanja ne može biti među najboljih N
+                    int nextArrivalMinuteOfDay = timetable.arrivalMinute(departure);
+                    if (workspace.settledCount(nextStation, nextArrivalMinuteOfDay) >= limit) {
+                        continue;
+                    }
 
-                RouteSegment newSegment = new RouteSegment(
-                        departure,
-                        currentStation,
-                        nextStation,
-                        nextDepartureScheduledTime,
-                        departure.getArrivalTime()
-                );
+                    // Nova oznaka pamti samo prethodnu oznaku i polazak, bez kopiranja putanje
+                    NodeState nextNodeState = createNodeState(currentNodeState, nextStation, departure, endCity, criterion);
 
-                Path newPath = new Path(currentPath);
-                newPath.addSegment(newSegment);
+                    // Raniji polasci prema istom susjedu: bar N njih stiže ranije i nije skuplje,
+                    // pa kasniji polazak ne može dati neku od najboljih N putanja
+                    if (!currentNodeState.isStart()
+                            && isDominated(nextNodeState, siblings, keptSiblings, limit, criterion)) {
+                        dominatedLabels++;
+                        continue;
+                    }
 
-                List<Path> pathsToNextStation = kBestPathsToStation.getOrDefault(nextStation, new ArrayList<>());
+                    List<NodeState> settledAtNextStation = workspace.settledAtOrNull(nextStation);
+                    if (settledAtNextStation != null && isDominated(nextNodeState, settledAtNextStation, limit, criterion)) {
+                        dominatedLabels++;
+                        continue;
+                    }
 
-                if (pathsToNextStation.size() < limit || comparePaths(newPath, pathsToNextStation.get(pathsToNextStation.size() - 1), optimizationCriterion) < 0) {
-                    pathsToNextStation.add(newPath);
-                    pathsToNextStation.sort((p1, p2) -> comparePaths(p1, p2, optimizationCriterion));
-                    if (pathsToNextStation.size() > limit) {
-                        pathsToNextStation = pathsToNextStation.subList(0, limit);
+                    if (keptSiblings == siblings.length) {
+                        siblings = Arrays.copyOf(siblings, siblings.length * 2);
+                        workspace.siblings = siblings;
                     }
-                    kBestPathsToStation.put(nextStation, pathsToNextStation);
-                    pq.add(new NodeState(nextStation, newPath.getEndTime(), newPath, optimizationCriterion));
+                    siblings[keptSiblings++] = nextNodeState;
+                    push(pq, labels, nextNodeState);
+                    pushedLabels++;
                 }
             }
         }
 
-        // Sortiranje i uklanjanje duplikata na kraju
-        List<Path> uniqueRoutes = foundRoutes.stream()
-                .filter(p -> p.getSegments() != null && !p.getSegments().isEmpty())
-                .collect(Collectors.toMap(
-                        path -> path.getRouteKeyWithTime(),
-                        path -> path,
-                        (p1, p2) -> comparePaths(p1, p2, optimizationCriterion) < 0 ? p1 : p2
-                ))
-                .values()
-                .stream()
-                .sorted((p1, p2) -> comparePaths(p1, p2, optimizationCriterion))
-                .collect(Collectors.toList());
+        // Oznake preostale nakon isteka budžeta nisu ušteđene, nego neobrađene
+        SearchStatistics statistics = new SearchStatistics(polledLabels, pushedLabels, dominatedLabels,
+                terminatedEarly ? pq.size() : 0, terminatedEarly);
+
+        // Rute su već različite; sortiranje po ključu putanje ujednačava redoslijed ruta sa jednakim ključem,
+        // a putanje se grade tek za vraćene rute
+        List<Path> topRoutes = oneToAll ? Collections.emptyList() : toRoutes(foundRoutes);
+        return new RouteSearchResult(topRoutes, !budgetExhausted, statistics);
+    }
+
+    /**
+     * Pretraga od zadatih početnih stanica do svih stanica mape, čije se obrađene
+     * oznake čuvaju kao {@link SearchTree}.
+     * <p>
+     * Oznake se obrađuju istim redoslijedom kao u pretrazi do bilo kojeg odredišta, jer
+     * osnovna pretraga ne zavisi od odredišta, pa je prvih N oznaka na stanicama nekog
+     * grada upravo N ruta koje bi vratila pretraga do tog grada. Metoda zato ima smisla
+     * samo ako {@link #createNodeState(NodeState, int, int, City, OptimizationCriterion)}
+     * ne koristi odredišni grad. Ako se budžet iscrpi, stablo je nepotpuno.
+     * </p>
+     *
+     * @param sources Interni ID-evi početnih stanica.
+     * @param criterion Kriterijum optimizacije.
+     * @param limit Broj ruta po odredištu.
+     * @param budget Ograničenje pretrage.
+     * @param deadlineNanos Rok izračunat metodom {@link SearchBudget#deadlineNanos(long)}.
+     * @return {@link SearchTree} sa obrađenim oznakama.
+     */
+    SearchTree searchTree(int[] sources, OptimizationCriterion criterion, int limit,
+                          SearchBudget budget, long deadlineNanos) {
+        RouteSearchResult result = search(sources, null, criterion, limit, budget, deadlineNanos);
+        return new SearchTree(timetable, limit, workspaces.get().foundRoutes, result.isOptimal(), result.getStatistics());
+    }
 
-        return uniqueRoutes.stream()
-                .limit(limit)
+    /**
+     * Gradi putanje od oznaka na stanicama odredišta, sortirane po ključu putanje.
+     *
+     * @param found Oznake pronađenih ruta, redoslijedom obrade.
+     * @return Lista {@link Path} objekata.
+     */
+    static List<Path> toRoutes(List<NodeState> found) {
+        return found.stream()
+                .sorted(Comparator.comparingLong(NodeState::getPathKey))
+                .map(NodeState::getCurrentPath)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Vraća listu svih stanica koje se nalaze u datom gradu.
+     * Vraća kompajlirani vozni red nad kojim se vrši pretraga.
+     *
+     * @return {@link CompiledTimetable} transportne mape.
+     */
+    public CompiledTimetable getTimetable() {
+        return timetable;
+    }
+
+    /**
+     * Vraća statistiku posljednje pretrage ovog objekta.
+     *
+     * @return {@link SearchStatistics} posljednje pretrage, ili {@code null} ako pretraga nije izvršena.
+     */
+    public SearchStatistics getLastSearchStatistics() {
+        return lastSearchStatistics;
+    }
+
+    /**
+     * Kreira stanje čvora koje se stavlja u prioritetni red.
+     * <p>
+     * Osnovna pretraga ne procjenjuje preostali put do odredišta. Izvedene klase
+     * (npr. {@link AStarRouteFinder}) mogu stanju dodati dopustive donje granice.
+     * </p>
+     *
+     * @param previous Prethodno stanje, ili {@code null} za početno stanje.
+     * @param station Interni ID stanice stanja.
+     * @param departure Indeks polaska iz prethodnog stanja do stanice, ili -1 za početno stanje.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije.
+     * @return Novo {@link NodeState}.
+     */
+    protected NodeState createNodeState(NodeState previous, int station, int departure,
+                                        City endCity, OptimizationCriterion optimizationCriterion) {
+        return new NodeState(timetable, previous, station, departure, optimizationCriterion);
+    }
+
+    /**
+     * Dodaje oznaku u red pod narednim rednim brojem. Oznake sa jednakim ključem se
+     * obrađuju redoslijedom dodavanja.
+     *
+     * @param pq Red pretrage.
+     * @param labels Oznake po rednom broju.
+     * @param state Oznaka koja se dodaje.
+     */
+    private static void push(IndexedLongHeap pq, List<NodeState> labels, NodeState state) {
+        int labelId = labels.size();
+        labels.add(state);
+        pq.insert(labelId, state.getKey());
+    }
+
+    /**
+     * Provjerava da li je stanje dominirano sa najmanje {@code limit} već obrađenih
+     * stanja na istoj stanici.
      *
-     * @param city Grad čije stanice treba pronaći.
-     * @return Lista {@link Station} objekata.
+     * @param state Stanje koje se provjerava.
+     * @param settled Obrađena stanja na istoj stanici.
+     * @param limit Broj dominirajućih stanja potreban za odbacivanje.
+     * @param criterion Kriterijum optimizacije.
+     * @return {@code true} ako putanja stanja ne može ući među najboljih {@code limit}.
      */
-    private List<Station> getStationsInCity(City city) {
-        List<Station> cityStations = new ArrayList<>();
-        for (Station station : transportMap.getAllStations().values()) {
-            if (station.getCity().equals(city)) {
-                cityStations.add(station);
+    private static boolean isDominated(NodeState state, List<NodeState> settled, int limit, OptimizationCriterion criterion) {
+        if (settled.size() < limit) {
+            return false;
+        }
+        int dominating = 0;
+        for (NodeState other : settled) {
+            if (dominates(other, state, criterion) && ++dominating >= limit) {
+                return true;
             }
         }
-        return cityStations;
+        return false;
+    }
+
+    /**
+     * Provjerava da li je stanje dominirano sa najmanje {@code limit} stanja među prvih
+     * {@code count} stanja niza.
+     *
+     * @param state Stanje koje se provjerava.
+     * @param others Stanja na istoj stanici.
+     * @param count Broj stanja niza koja se uzimaju u obzir.
+     * @param limit Broj dominirajućih stanja potreban za odbacivanje.
+     * @param criterion Kriterijum optimizacije.
+     * @return {@code true} ako putanja stanja ne može ući među najboljih {@code limit}.
+     */
+    private static boolean isDominated(NodeState state, NodeState[] others, int count, int limit,
+                                       OptimizationCriterion criterion) {
+        if (count < limit) {
+            return false;
+        }
+        int dominating = 0;
+        for (int i = 0; i < count; i++) {
+            if (dominates(others[i], state, criterion) && ++dominating >= limit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Provjerava da li putanja stanja {@code a} dominira putanjom stanja {@code b} na istoj stanici.
+     * <p>
+     * Putanja {@code a} čeka od svog dolaska do dolaska putanje {@code b} (vozni red se
+     * ponavlja svakog dana), pa svaki nastavak putanje {@code b} može i ona uzeti. Ako je
+     * tada strogo bolja po primarnom kriterijumu, svaki nastavak je bolji bez obzira na
+     * ostale kriterijume; ako je jednaka, ne smije biti lošija ni po jednom od ostalih.
+     * Prazna putanja na početnoj stanici dominira svakom drugom, jer prva vožnja može
+     * krenuti bilo kada.
+     * </p>
+     *
+     * @param a Prvo stanje.
+     * @param b Drugo stanje.
+     * @param criterion Kriterijum optimizacije.
+     * @return {@code true} ako nijedan nastavak putanje {@code b} nije bolji od istog nastavka putanje {@code a}.
+     */
+    private static boolean dominates(NodeState a, NodeState b, OptimizationCriterion criterion) {
+        if (a.isStart()) return true;
+        if (b.isStart()) return false;
+
+        int waitingMinutes = Math.floorMod(b.getArrivalMinuteOfDay() - a.getArrivalMinuteOfDay(), 24 * 60);
+        int timeA = a.getTravelMinutes() + waitingMinutes;
+        int timeB = b.getTravelMinutes();
+
+        switch (criterion) {
+            case TIME:
+                if (timeA != timeB) return timeA < timeB;
+                return a.getTotalCents() <= b.getTotalCents() && a.getTransfers() <= b.getTransfers();
+            case PRICE:
+                if (a.getTotalCents() != b.getTotalCents()) return a.getTotalCents() < b.getTotalCents();
+                return timeA <= timeB && a.getTransfers() <= b.getTransfers();
+            default:
+                if (a.getTransfers() != b.getTransfers()) return a.getTransfers() < b.getTransfers();
+                return timeA <= timeB && a.getTotalCents() <= b.getTotalCents();
+        }
     }
 
     /**
      * Pomoćna metoda za upoređivanje dvije putanje na osnovu kriterijuma optimizacije.
      * <p>
      * Ova metoda služi kao unificirani komparator koji se koristi na više mjesta
-     * u algoritmu kako bi se osigurala konzistentnost sortiranja i poređenja.
+     * u algoritmu (i u ostalim implementacijama {@link RoutingEngine}) kako bi se
+     * osigurala konzistentnost sortiranja i poređenja.
      * </p>
      *
      * @param path1 Prva putanja.
@@ -200,7 +477,7 @@ public class RouteFinder {
      * @return Negativan broj ako je path1 bolja, pozitivan ako je path2 bolja, 0 ako su jednake.
      * @throws IllegalArgumentException ako je kriterijum nepoznat.
      */
-    private int comparePaths(Path path1, Path path2, String criterion) {
+    static int comparePaths(Path path1, Path path2, String criterion) {
         if (path1 == null && path2 == null) return 0;
         if (path1 == null) return 1;
         if (path2 == null) return -1;
@@ -240,4 +517,4 @@ public class RouteFinder {
                 throw new IllegalArgumentException("Nepoznat kriterijum optimizacije: " + criterion);
         }
     }
-}
\ No newline at end of file
+}
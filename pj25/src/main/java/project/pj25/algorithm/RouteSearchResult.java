@@ -0,0 +1,75 @@
+package project.pj25.algorithm;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Klasa koja predstavlja rezultat pretrage ruta sa ograničenim budžetom.
+ * <p>
+ * Pored pronađenih ruta, čuva informaciju da li je rezultat dokazano optimalan
+ * (pretraga je završena prije isteka budžeta) ili predstavlja najbolje rute
+ * pronađene do trenutka prekida.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see SearchBudget
+ * @see RoutingEngine
+ */
+public class RouteSearchResult {
+
+    /**
+     * Pronađene rute, sortirane po kriterijumu.
+     */
+    private final List<Path> routes;
+
+    /**
+     * Da li je pretraga završena bez prekida.
+     */
+    private final boolean optimal;
+
+    /**
+     * Statistika pretrage, ako je algoritam bilježi.
+     */
+    private final SearchStatistics statistics;
+
+    /**
+     * Konstruktor za kreiranje rezultata pretrage.
+     *
+     * @param routes Pronađene rute.
+     * @param optimal Da li je rezultat dokazano optimalan.
+     * @param statistics Statistika pretrage, ili {@code null}.
+     */
+    public RouteSearchResult(List<Path> routes, boolean optimal, SearchStatistics statistics) {
+        this.routes = Collections.unmodifiableList(routes);
+        this.optimal = optimal;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Vraća pronađene rute.
+     *
+     * @return Nepromjenljiva lista {@link Path} objekata.
+     */
+    public List<Path> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * Provjerava da li je rezultat dokazano optimalan.
+     *
+     * @return {@code true} ako je pretraga završena prije isteka budžeta.
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * Vraća statistiku pretrage.
+     *
+     * @return {@link SearchStatistics}, ili {@code null} ako algoritam ne bilježi statistiku.
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+}
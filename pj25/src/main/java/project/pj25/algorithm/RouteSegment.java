@@ -12,6 +12,11 @@ import java.time.LocalTime;
  * stanici, te stvarnim vremenima polaska i dolaska za taj segment. Ova klasa je
  * osnovni gradivni blok za kreiranje kompletne putanje (<code>{@link Path}</code>).
  * </p>
+ * <p>
+ * Pored vremena u danu, segment čuva apsolutne minute polaska i dolaska od ponoći
+ * prvog dana putovanja, pa se trajanja i čekanja računaju običnim oduzimanjem, a
+ * putovanje može trajati i više dana.
+ * </p>
  *
  * @author bratsale
  * @version 1.0
@@ -44,8 +49,22 @@ public class RouteSegment {
      */
     private LocalTime actualArrivalTime;
 
+    /**
+     * Apsolutna minuta polaska, od ponoći prvog dana putovanja.
+     */
+    private int departureMinute;
+
+    /**
+     * Apsolutna minuta dolaska, od ponoći prvog dana putovanja.
+     */
+    private int arrivalMinute;
+
     /**
      * Konstruktor za kreiranje novog segmenta rute.
+     * <p>
+     * Polazak se smješta u prvi dan putovanja, a dolazak ranije u danu od polaska
+     * znači dolazak narednog dana (npr. polazak u 23:00, dolazak u 01:00).
+     * </p>
      *
      * @param departure Polazak koji se odnosi na ovaj segment.
      * @param startStation Polazna stanica.
@@ -59,6 +78,49 @@ public class RouteSegment {
         this.endStation = endStation;
         this.actualDepartureTime = actualDepartureTime;
         this.actualArrivalTime = actualArrivalTime;
+        this.departureMinute = toMinute(actualDepartureTime);
+        this.arrivalMinute = departureMinute
+                + Math.floorMod(toMinute(actualArrivalTime) - departureMinute, CompiledTimetable.MINUTES_PER_DAY);
+    }
+
+    /**
+     * Konstruktor za segment sa apsolutnim minutama polaska i dolaska.
+     *
+     * @param departure Polazak koji se odnosi na ovaj segment.
+     * @param startStation Polazna stanica.
+     * @param endStation Dolazna stanica.
+     * @param departureMinute Apsolutna minuta polaska, od ponoći prvog dana putovanja.
+     * @param arrivalMinute Apsolutna minuta dolaska, ne ranije od polaska.
+     * @throws IllegalArgumentException ako je dolazak prije polaska.
+     */
+    public RouteSegment(Departure departure, Station startStation, Station endStation, int departureMinute, int arrivalMinute) {
+        if (arrivalMinute < departureMinute) {
+            throw new IllegalArgumentException("Dolazak ne može biti prije polaska: " + departureMinute + " > " + arrivalMinute);
+        }
+        this.departure = departure;
+        this.startStation = startStation;
+        this.endStation = endStation;
+        this.departureMinute = departureMinute;
+        this.arrivalMinute = arrivalMinute;
+        this.actualDepartureTime = toLocalTime(departureMinute);
+        this.actualArrivalTime = toLocalTime(arrivalMinute);
+    }
+
+    /**
+     * Vraća isti segment pomjeren za cijeli broj dana, tako da ne kreće prije zadate
+     * apsolutne minute, tj. prvi polazak istog voza ili autobusa koji se tada može uhvatiti.
+     *
+     * @param minute Apsolutna minuta od koje se čeka polazak.
+     * @return Ovaj segment ako ne kreće ranije, inače pomjerena kopija.
+     */
+    RouteSegment atOrAfter(int minute) {
+        if (departureMinute >= minute) {
+            return this;
+        }
+        int days = Math.floorDiv(minute - departureMinute + CompiledTimetable.MINUTES_PER_DAY - 1,
+                CompiledTimetable.MINUTES_PER_DAY);
+        int shift = days * CompiledTimetable.MINUTES_PER_DAY;
+        return new RouteSegment(departure, startStation, endStation, departureMinute + shift, arrivalMinute + shift);
     }
 
     // Getteri
@@ -104,19 +166,45 @@ public class RouteSegment {
     }
 
     /**
-     * Računa trajanje ovog pojedinačnog segmenta putovanja.
-     * <p>
-     * Metoda uzima u obzir prelazak preko ponoći ako je vrijeme dolaska
-     * hronološki ranije od vremena polaska (npr. polazak u 23:00, dolazak u 01:00).
-     * </p>
+     * Vraća apsolutnu minutu polaska.
+     * @return Minuta polaska od ponoći prvog dana putovanja.
+     */
+    public int getDepartureMinute() {
+        return departureMinute;
+    }
+
+    /**
+     * Vraća apsolutnu minutu dolaska.
+     * @return Minuta dolaska od ponoći prvog dana putovanja.
+     */
+    public int getArrivalMinute() {
+        return arrivalMinute;
+    }
+
+    /**
+     * Vraća dan putovanja u kojem segment kreće.
+     * @return Redni broj dana, 0 za prvi dan putovanja.
+     */
+    public int getDepartureDay() {
+        return Math.floorDiv(departureMinute, CompiledTimetable.MINUTES_PER_DAY);
+    }
+
+    /**
+     * Vraća dan putovanja u kojem segment stiže.
+     * @return Redni broj dana, 0 za prvi dan putovanja.
+     */
+    public int getArrivalDay() {
+        return Math.floorDiv(arrivalMinute, CompiledTimetable.MINUTES_PER_DAY);
+    }
+
+    /**
+     * Računa trajanje ovog pojedinačnog segmenta putovanja kao razliku apsolutnih
+     * minuta dolaska i polaska.
+     *
      * @return Trajanje segmenta kao {@link Duration}.
      */
     public Duration getSegmentDuration() {
-        Duration duration = Duration.between(actualDepartureTime, actualArrivalTime);
-        if (duration.isNegative()) {
-            duration = duration.plusDays(1);
-        }
-        return duration;
+        return Duration.ofMinutes(arrivalMinute - departureMinute);
     }
 
     /**
@@ -179,8 +267,33 @@ public class RouteSegment {
                 startStation.getId(),
                 getArrivalStationCityName(),
                 endStation.getId(),
-                actualDepartureTime,
-                actualArrivalTime,
+                formatTime(actualDepartureTime, getDepartureDay()),
+                formatTime(actualArrivalTime, getArrivalDay()),
                 departure.getPrice());
     }
+
+    /**
+     * Formatira vrijeme u danu, uz oznaku dana ako to nije prvi dan putovanja.
+     *
+     * @param time Vrijeme u danu.
+     * @param day Redni broj dana putovanja.
+     * @return Npr. "08:30" ili "08:30 (+1 dan)".
+     */
+    static String formatTime(LocalTime time, int day) {
+        return day == 0 ? time.toString() : String.format("%s (%+d dan)", time, day);
+    }
+
+    /**
+     * Pretvara vrijeme u minutu u danu.
+     */
+    private static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Pretvara apsolutnu minutu u vrijeme u danu.
+     */
+    private static LocalTime toLocalTime(int minute) {
+        return LocalTime.ofSecondOfDay(Math.floorMod(minute, CompiledTimetable.MINUTES_PER_DAY) * 60L);
+    }
 }
\ No newline at end of file
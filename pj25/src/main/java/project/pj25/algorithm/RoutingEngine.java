@@ -0,0 +1,53 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.City;
+
+import java.util.List;
+
+/**
+ * Zajednički interfejs za sve algoritme pretrage ruta.
+ * <p>
+ * Omogućava da grafički interfejs ({@link project.pj25.gui.TransportApp}) i bilo koji
+ * drugi pozivalac bez korisničkog interfejsa biraju algoritam pretrage, a da pri tome
+ * ne zavise od konkretne implementacije.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RouteFinder
+ * @see ConnectionScanRouteFinder
+ */
+public interface RoutingEngine {
+
+    /**
+     * Pronalazi do N optimalnih ruta između početnog i krajnjeg grada,
+     * na osnovu zadatog kriterijuma optimizacije.
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @return Lista pronađenih {@link Path} objekata, sortirana po kriterijumu.
+     */
+    List<Path> findTopNRoutes(City startCity, City endCity, String optimizationCriterion, int limit);
+
+    /**
+     * Pronalazi do N optimalnih ruta uz ograničeno vrijeme ili broj obrađenih oznaka.
+     * <p>
+     * Ako se budžet iscrpi, vraćaju se najbolje rute pronađene do tog trenutka, a rezultat
+     * se označava kao neoptimalan. Podrazumijevana implementacija ne podržava prekid i
+     * uvijek izvršava kompletnu pretragu.
+     * </p>
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param optimizationCriterion Kriterijum optimizacije ("time", "price", "transfers").
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @param budget Ograničenje pretrage.
+     * @return {@link RouteSearchResult} sa rutama i oznakom optimalnosti.
+     */
+    default RouteSearchResult findTopNRoutes(City startCity, City endCity, String optimizationCriterion,
+                                             int limit, SearchBudget budget) {
+        return new RouteSearchResult(findTopNRoutes(startCity, endCity, optimizationCriterion, limit), true, null);
+    }
+}
@@ -0,0 +1,152 @@
+package project.pj25.algorithm;
+
+import java.time.Duration;
+
+/**
+ * Klasa koja ograničava trajanje jedne pretrage ruta.
+ * <p>
+ * Ograničenje može biti vremensko (rok izražen kao {@link Duration} od početka pretrage),
+ * broj oznaka koje pretraga smije obraditi, ili oboje. Kada se ograničenje dostigne,
+ * pretraga vraća najbolje rute pronađene do tog trenutka.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RouteSearchResult
+ * @see RoutingEngine
+ */
+public final class SearchBudget {
+
+    /**
+     * Budžet bez ograničenja.
+     */
+    private static final SearchBudget UNLIMITED = new SearchBudget(null, Long.MAX_VALUE);
+
+    /**
+     * Najduže dozvoljeno trajanje pretrage, ili {@code null} ako nije ograničeno.
+     */
+    private final Duration timeLimit;
+
+    /**
+     * Najveći broj oznaka koje pretraga smije obraditi.
+     */
+    private final long labelLimit;
+
+    /**
+     * Privatni konstruktor; objekti se kreiraju statičkim metodama.
+     *
+     * @param timeLimit Najduže trajanje pretrage, ili {@code null}.
+     * @param labelLimit Najveći broj obrađenih oznaka.
+     */
+    private SearchBudget(Duration timeLimit, long labelLimit) {
+        this.timeLimit = timeLimit;
+        this.labelLimit = labelLimit;
+    }
+
+    /**
+     * Vraća budžet bez ograničenja.
+     *
+     * @return Neograničeni {@code SearchBudget}.
+     */
+    public static SearchBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Kreira budžet sa vremenskim rokom.
+     *
+     * @param timeLimit Najduže trajanje pretrage.
+     * @return Novi {@code SearchBudget}.
+     * @throws IllegalArgumentException ako je trajanje negativno.
+     */
+    public static SearchBudget ofTime(Duration timeLimit) {
+        return of(timeLimit, Long.MAX_VALUE);
+    }
+
+    /**
+     * Kreira budžet sa ograničenim brojem obrađenih oznaka.
+     *
+     * @param labelLimit Najveći broj oznaka.
+     * @return Novi {@code SearchBudget}.
+     * @throws IllegalArgumentException ako broj oznaka nije pozitivan.
+     */
+    public static SearchBudget ofLabels(long labelLimit) {
+        return of(null, labelLimit);
+    }
+
+    /**
+     * Kreira budžet sa vremenskim rokom i ograničenim brojem oznaka; pretraga se
+     * zaustavlja kada se dostigne bilo koje od ograničenja.
+     *
+     * @param timeLimit Najduže trajanje pretrage, ili {@code null} ako nije ograničeno.
+     * @param labelLimit Najveći broj oznaka.
+     * @return Novi {@code SearchBudget}.
+     * @throws IllegalArgumentException ako je trajanje negativno ili broj oznaka nije pozitivan.
+     */
+    public static SearchBudget of(Duration timeLimit, long labelLimit) {
+        if (timeLimit != null && timeLimit.isNegative()) {
+            throw new IllegalArgumentException("Vremensko ograničenje ne može biti negativno: " + timeLimit);
+        }
+        if (labelLimit <= 0) {
+            throw new IllegalArgumentException("Broj oznaka mora biti pozitivan: " + labelLimit);
+        }
+        return new SearchBudget(timeLimit, labelLimit);
+    }
+
+    /**
+     * Računa trenutak (u nanosekundama, po {@link System#nanoTime()}) do kojeg pretraga
+     * koja počinje sada smije trajati.
+     *
+     * @param startNanos Trenutak početka pretrage.
+     * @return Rok u nanosekundama, ili {@link Long#MAX_VALUE} ako rok ne postoji.
+     */
+    long deadlineNanos(long startNanos) {
+        if (timeLimit == null) {
+            return Long.MAX_VALUE;
+        }
+        long limitNanos = timeLimit.toNanos();
+        return startNanos > Long.MAX_VALUE - limitNanos ? Long.MAX_VALUE : startNanos + limitNanos;
+    }
+
+    /**
+     * Provjerava da li je budžet iscrpljen.
+     *
+     * @param processedLabels Broj do sada obrađenih oznaka.
+     * @param deadlineNanos Rok izračunat metodom {@link #deadlineNanos(long)}.
+     * @return {@code true} ako je dostignut broj oznaka ili je rok istekao.
+     */
+    boolean isExhausted(long processedLabels, long deadlineNanos) {
+        if (processedLabels >= labelLimit) {
+            return true;
+        }
+        return isPast(deadlineNanos);
+    }
+
+    /**
+     * Provjerava da li je rok istekao, za dijelove pretrage koji ne obrađuju oznake.
+     *
+     * @param deadlineNanos Rok izračunat metodom {@link #deadlineNanos(long)}.
+     * @return {@code true} ako rok postoji i istekao je.
+     */
+    static boolean isPast(long deadlineNanos) {
+        return deadlineNanos != Long.MAX_VALUE && System.nanoTime() >= deadlineNanos;
+    }
+
+    /**
+     * Vraća vremensko ograničenje.
+     *
+     * @return Najduže trajanje pretrage, ili {@code null} ako nije ograničeno.
+     */
+    public Duration getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * Vraća ograničenje broja oznaka.
+     *
+     * @return Najveći broj oznaka ({@link Long#MAX_VALUE} ako nije ograničen).
+     */
+    public long getLabelLimit() {
+        return labelLimit;
+    }
+}
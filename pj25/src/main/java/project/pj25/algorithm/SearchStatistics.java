@@ -0,0 +1,116 @@
+package project.pj25.algorithm;
+
+/**
+ * Klasa koja čuva statistiku jedne pretrage ruta.
+ * <p>
+ * Bilježi koliko je oznaka (stanja) dodato u prioritetni red i obrađeno iz njega,
+ * koliko ih je odbačeno provjerom dominacije, koliko ih je ostalo neobrađeno kada je
+ * pretraga zaustavljena i da li je pretraga zaustavljena prije nego što se red ispraznio.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RouteFinder
+ */
+public class SearchStatistics {
+
+    /**
+     * Broj oznaka uzetih iz prioritetnog reda.
+     */
+    private final long polledLabels;
+
+    /**
+     * Broj oznaka dodatih u prioritetni red.
+     */
+    private final long pushedLabels;
+
+    /**
+     * Broj oznaka odbačenih jer su dominirane oznakama na istoj stanici.
+     */
+    private final long dominatedLabels;
+
+    /**
+     * Broj oznaka koje su ostale u redu nakon zaustavljanja pretrage.
+     */
+    private final long savedLabels;
+
+    /**
+     * Da li je pretraga zaustavljena prije pražnjenja reda.
+     */
+    private final boolean terminatedEarly;
+
+    /**
+     * Konstruktor za kreiranje statistike pretrage.
+     *
+     * @param polledLabels Broj obrađenih oznaka.
+     * @param pushedLabels Broj oznaka dodatih u red.
+     * @param dominatedLabels Broj oznaka odbačenih zbog dominacije.
+     * @param savedLabels Broj oznaka koje nije bilo potrebno obraditi.
+     * @param terminatedEarly Da li je pretraga zaustavljena prije pražnjenja reda.
+     */
+    public SearchStatistics(long polledLabels, long pushedLabels, long dominatedLabels,
+                            long savedLabels, boolean terminatedEarly) {
+        this.polledLabels = polledLabels;
+        this.pushedLabels = pushedLabels;
+        this.dominatedLabels = dominatedLabels;
+        this.savedLabels = savedLabels;
+        this.terminatedEarly = terminatedEarly;
+    }
+
+    /**
+     * Vraća broj oznaka uzetih iz prioritetnog reda.
+     *
+     * @return Broj obrađenih oznaka.
+     */
+    public long getPolledLabels() {
+        return polledLabels;
+    }
+
+    /**
+     * Vraća broj oznaka dodatih u prioritetni red.
+     *
+     * @return Broj dodatih oznaka.
+     */
+    public long getPushedLabels() {
+        return pushedLabels;
+    }
+
+    /**
+     * Vraća broj oznaka odbačenih jer su dominirane oznakama na istoj stanici.
+     *
+     * @return Broj dominiranih oznaka.
+     */
+    public long getDominatedLabels() {
+        return dominatedLabels;
+    }
+
+    /**
+     * Vraća broj oznaka koje su ostale neobrađene zahvaljujući ranom zaustavljanju.
+     *
+     * @return Broj ušteđenih oznaka.
+     */
+    public long getSavedLabels() {
+        return savedLabels;
+    }
+
+    /**
+     * Provjerava da li je pretraga zaustavljena prije pražnjenja reda.
+     *
+     * @return {@code true} ako je pretraga zaustavljena ranije.
+     */
+    public boolean isTerminatedEarly() {
+        return terminatedEarly;
+    }
+
+    /**
+     * Vraća tekstualni prikaz statistike.
+     *
+     * @return String sa brojem dodatih, obrađenih, dominiranih i ušteđenih oznaka.
+     */
+    @Override
+    public String toString() {
+        return "Dodato oznaka: " + pushedLabels + ", obrađeno: " + polledLabels
+                + ", dominirano: " + dominatedLabels + ", ušteđeno: " + savedLabels
+                + (terminatedEarly ? " (rano zaustavljanje)" : "");
+    }
+}
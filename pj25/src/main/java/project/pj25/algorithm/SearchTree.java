@@ -0,0 +1,172 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.City;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stablo pretrage od jednog početnog grada do svih stanica mape.
+ * <p>
+ * Čuva oznake koje je pretraga {@link RouteFinder} bez odredišta obradila, grupisane po
+ * stanici u CSR obliku, a za svaku oznaku i njen redni broj obrade. Prvih N oznaka
+ * (po rednom broju) na stanicama nekog grada su N najboljih ruta do tog grada, pa se
+ * rute do bilo kojeg odredišta čitaju iz stabla spajanjem nekoliko kratkih lista, bez
+ * nove pretrage. Oznake pamte prethodne oznake, pa stablo drži i sve putanje.
+ * </p>
+ * <p>
+ * Ako je pretraga prekinuta budžetom, stablo je nepotpuno: tačno odgovara samo za
+ * gradove do kojih je pronađeno bar N ruta prije prekida.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see SearchTreeRouteFinder
+ */
+final class SearchTree {
+
+    /**
+     * Kompajlirani vozni red nad kojim je pretraga izvršena.
+     */
+    private final CompiledTimetable timetable;
+
+    /**
+     * Broj ruta po odredištu za koji je pretraga izvršena.
+     */
+    private final int limit;
+
+    /**
+     * Da li je pretraga obradila sve oznake (red se ispraznio).
+     */
+    private final boolean complete;
+
+    /**
+     * Statistika pretrage kojom je stablo izgrađeno.
+     */
+    private final SearchStatistics statistics;
+
+    /**
+     * Za stanicu {@code s}, oznake su na pozicijama od {@code firstLabel[s]} do
+     * {@code firstLabel[s + 1]} (isključivo), redoslijedom obrade.
+     */
+    private final int[] firstLabel;
+
+    /**
+     * Obrađene oznake grupisane po stanici.
+     */
+    private final NodeState[] labels;
+
+    /**
+     * Redni broj obrade svake oznake iz {@link #labels}.
+     */
+    private final int[] order;
+
+    /**
+     * Kreira stablo od oznaka poredanih redoslijedom obrade.
+     *
+     * @param timetable Kompajlirani vozni red.
+     * @param limit Broj ruta po odredištu.
+     * @param settled Obrađene oznake (bez početnih), redoslijedom obrade.
+     * @param complete Da li je pretraga završena bez prekida.
+     * @param statistics Statistika pretrage.
+     */
+    SearchTree(CompiledTimetable timetable, int limit, List<NodeState> settled, boolean complete,
+               SearchStatistics statistics) {
+        this.timetable = timetable;
+        this.limit = limit;
+        this.complete = complete;
+        this.statistics = statistics;
+
+        int count = settled.size();
+        this.firstLabel = new int[timetable.stationCount() + 1];
+        for (NodeState label : settled) {
+            firstLabel[label.getStationIndex() + 1]++;
+        }
+        for (int s = 0; s < timetable.stationCount(); s++) {
+            firstLabel[s + 1] += firstLabel[s];
+        }
+        this.labels = new NodeState[count];
+        this.order = new int[count];
+        int[] next = firstLabel.clone();
+        for (int i = 0; i < count; i++) {
+            NodeState label = settled.get(i);
+            int position = next[label.getStationIndex()]++;
+            labels[position] = label;
+            order[position] = i;
+        }
+    }
+
+    /**
+     * Provjerava da li stablo sadrži tačan odgovor za zadati odredišni grad.
+     *
+     * @param endCity Odredišni grad.
+     * @return {@code true} ako je pretraga završena ili je do grada pronađeno bar N ruta.
+     */
+    boolean canAnswer(City endCity) {
+        if (complete) {
+            return true;
+        }
+        int found = 0;
+        for (int station : timetable.stationsInCity(endCity)) {
+            found += firstLabel[station + 1] - firstLabel[station];
+        }
+        return found >= limit;
+    }
+
+    /**
+     * Vraća do N najboljih ruta do zadatog grada, sortiranih po ključu putanje kao u
+     * {@link RouteFinder}.
+     *
+     * @param endCity Odredišni grad.
+     * @return Lista {@link Path} objekata.
+     */
+    List<Path> routesTo(City endCity) {
+        int[] stations = timetable.stationsInCity(endCity);
+        int[] positions = new int[stations.length];
+        for (int i = 0; i < stations.length; i++) {
+            positions[i] = firstLabel[stations[i]];
+        }
+
+        // Spajanje lista po stanicama grada redoslijedom obrade, do N oznaka
+        List<NodeState> found = new ArrayList<>(limit);
+        while (found.size() < limit) {
+            int best = -1;
+            for (int i = 0; i < stations.length; i++) {
+                if (positions[i] < firstLabel[stations[i] + 1]
+                        && (best < 0 || order[positions[i]] < order[positions[best]])) {
+                    best = i;
+                }
+            }
+            if (best < 0) break;
+            found.add(labels[positions[best]++]);
+        }
+        return RouteFinder.toRoutes(found);
+    }
+
+    /**
+     * Vraća broj oznaka u stablu.
+     *
+     * @return Broj obrađenih oznaka.
+     */
+    int labelCount() {
+        return labels.length;
+    }
+
+    /**
+     * Provjerava da li je pretraga obradila sve oznake.
+     *
+     * @return {@code true} ako stablo nije prekinuto budžetom.
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Vraća statistiku pretrage kojom je stablo izgrađeno.
+     *
+     * @return {@link SearchStatistics} pretrage.
+     */
+    SearchStatistics getStatistics() {
+        return statistics;
+    }
+}
@@ -0,0 +1,218 @@
+package project.pj25.algorithm;
+
+import project.pj25.model.*;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Varijanta klase {@link RouteFinder} koja čuva stabla pretrage po početnom gradu.
+ * <p>
+ * Osnovna pretraga ne zavisi od odredišta, pa jedna pretraga od početnog grada do svih
+ * stanica mape ({@link SearchTree}) sadrži odgovor za svaki odredišni grad. Prvi upit za
+ * par (početni grad, kriterijum, broj ruta) gradi takvo stablo, a naredni upiti sa istim
+ * početnim gradom i drugim odredištem rute samo čitaju iz stabla. Rezultat je isti kao
+ * kod {@link RouteFinder}.
+ * </p>
+ * <p>
+ * Stabla se čuvaju u LRU kešu ograničenom brojem stabala i ukupnim brojem oznaka (oznaka
+ * zauzima približno 100 bajtova). Pretraga za stablo koristi budžet upita, a broj oznaka
+ * je ograničen i veličinom keša. Stablo prekinuto budžetom se ne čuva: koristi se samo
+ * za tekući upit, ako je do odredišta pronađeno dovoljno ruta, a inače se izvršava
+ * obična pretraga sa ostatkom budžeta.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RouteFinder
+ * @see SearchTree
+ */
+public class SearchTreeRouteFinder extends RouteFinder {
+
+    /**
+     * Podrazumijevani najveći broj sačuvanih stabala.
+     */
+    public static final int DEFAULT_MAX_TREES = 16;
+
+    /**
+     * Podrazumijevani najveći ukupan broj oznaka u sačuvanim stablima (oko 100 MB).
+     */
+    public static final long DEFAULT_MAX_LABELS = 1_000_000;
+
+    /**
+     * Statistika upita na koji je odgovoreno iz sačuvanog stabla, bez obrade oznaka.
+     */
+    private static final SearchStatistics CACHED_STATISTICS = new SearchStatistics(0, 0, 0, 0, false);
+
+    /**
+     * Najveći broj sačuvanih stabala.
+     */
+    private final int maxTrees;
+
+    /**
+     * Najveći ukupan broj oznaka u sačuvanim stablima.
+     */
+    private final long maxLabels;
+
+    /**
+     * Sačuvana stabla, od najdavnije do posljednje korištenog.
+     */
+    private final LinkedHashMap<TreeKey, SearchTree> trees = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Ukupan broj oznaka u sačuvanim stablima.
+     */
+    private long cachedLabels;
+
+    /**
+     * Konstruktor sa podrazumijevanim ograničenjima keša.
+     *
+     * @param transportMap Transportna mapa koja se koristi za pretragu.
+     */
+    public SearchTreeRouteFinder(TransportMap transportMap) {
+        this(new CompiledTimetable(transportMap));
+    }
+
+    /**
+     * Konstruktor sa podrazumijevanim ograničenjima keša, nad već kompajliranim voznim redom.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     */
+    public SearchTreeRouteFinder(CompiledTimetable timetable) {
+        this(timetable, DEFAULT_MAX_TREES, DEFAULT_MAX_LABELS);
+    }
+
+    /**
+     * Konstruktor sa zadatim ograničenjima keša.
+     *
+     * @param timetable Kompajlirani vozni red transportne mape.
+     * @param maxTrees Najveći broj sačuvanih stabala.
+     * @param maxLabels Najveći ukupan broj oznaka u sačuvanim stablima.
+     * @throws IllegalArgumentException ako ograničenje nije pozitivno.
+     */
+    public SearchTreeRouteFinder(CompiledTimetable timetable, int maxTrees, long maxLabels) {
+        super(timetable);
+        if (maxTrees <= 0 || maxLabels <= 0) {
+            throw new IllegalArgumentException("Ograničenja keša moraju biti pozitivna: " + maxTrees + ", " + maxLabels);
+        }
+        this.maxTrees = maxTrees;
+        this.maxLabels = maxLabels;
+    }
+
+    /**
+     * Pronalazi do N optimalnih ruta čitanjem iz stabla pretrage početnog grada,
+     * koje se po potrebi gradi. Ako stablo nije potpuno i ne sadrži odgovor, pretraga
+     * do odredišta dobija budžet umanjen za oznake koje je obradilo stablo, a statistika
+     * rezultata je zbir obje pretrage.
+     *
+     * @param startCity Početni grad.
+     * @param endCity Odredišni grad.
+     * @param criterion Kriterijum optimizacije.
+     * @param limit Maksimalan broj ruta koje treba vratiti.
+     * @param budget Ograničenje pretrage.
+     * @param deadlineNanos Rok izračunat metodom {@link SearchBudget#deadlineNanos(long)}.
+     * @return {@link RouteSearchResult} sa rutama, oznakom optimalnosti i statistikom.
+     */
+    @Override
+    RouteSearchResult searchRoutes(City startCity, City endCity, OptimizationCriterion criterion,
+                                   int limit, SearchBudget budget, long deadlineNanos) {
+        TreeKey key = new TreeKey(startCity, criterion, limit);
+        SearchTree tree = cachedTree(key);
+        if (tree != null) {
+            return new RouteSearchResult(tree.routesTo(endCity), true, CACHED_STATISTICS);
+        }
+
+        SearchBudget treeBudget = budget.getLabelLimit() <= maxLabels
+                ? budget : SearchBudget.of(budget.getTimeLimit(), maxLabels);
+        tree = searchTree(getTimetable().stationsInCity(startCity), criterion, limit, treeBudget, deadlineNanos);
+        if (tree.isComplete()) {
+            store(key, tree);
+        }
+        SearchStatistics treeStatistics = tree.getStatistics();
+        if (tree.canAnswer(endCity)) {
+            return new RouteSearchResult(tree.routesTo(endCity), true, treeStatistics);
+        }
+        // Pretraga do odredišta bi do isteka budžeta obradila iste oznake kao stablo
+        long polled = treeStatistics.getPolledLabels();
+        if (budget.isExhausted(polled, deadlineNanos)) {
+            return new RouteSearchResult(tree.routesTo(endCity), false, treeStatistics);
+        }
+
+        SearchBudget remaining = SearchBudget.of(budget.getTimeLimit(), budget.getLabelLimit() - polled);
+        RouteSearchResult result = super.searchRoutes(startCity, endCity, criterion, limit, remaining, deadlineNanos);
+        SearchStatistics statistics = result.getStatistics();
+        return new RouteSearchResult(result.getRoutes(), result.isOptimal(), new SearchStatistics(
+                polled + statistics.getPolledLabels(),
+                treeStatistics.getPushedLabels() + statistics.getPushedLabels(),
+                treeStatistics.getDominatedLabels() + statistics.getDominatedLabels(),
+                treeStatistics.getSavedLabels() + statistics.getSavedLabels(),
+                statistics.isTerminatedEarly()));
+    }
+
+    /**
+     * Vraća broj sačuvanih stabala.
+     *
+     * @return Broj stabala u kešu.
+     */
+    public synchronized int getCachedTreeCount() {
+        return trees.size();
+    }
+
+    /**
+     * Vraća ukupan broj oznaka u sačuvanim stablima.
+     *
+     * @return Broj oznaka u kešu.
+     */
+    public synchronized long getCachedLabelCount() {
+        return cachedLabels;
+    }
+
+    /**
+     * Briše sva sačuvana stabla.
+     */
+    public synchronized void clearCache() {
+        trees.clear();
+        cachedLabels = 0;
+    }
+
+    /**
+     * Vraća sačuvano stablo i označava ga kao posljednje korišteno.
+     *
+     * @param key Ključ stabla.
+     * @return Stablo, ili {@code null} ako nije sačuvano.
+     */
+    private synchronized SearchTree cachedTree(TreeKey key) {
+        return trees.get(key);
+    }
+
+    /**
+     * Čuva potpuno stablo i izbacuje najdavnije korištena stabla dok keš ne zadovolji ograničenja.
+     * Posljednje sačuvano stablo se ne izbacuje.
+     *
+     * @param key Ključ stabla.
+     * @param tree Stablo koje se čuva.
+     */
+    private synchronized void store(TreeKey key, SearchTree tree) {
+        SearchTree previous = trees.put(key, tree);
+        if (previous != null) {
+            cachedLabels -= previous.labelCount();
+        }
+        cachedLabels += tree.labelCount();
+
+        Iterator<SearchTree> eldest = trees.values().iterator();
+        while (trees.size() > 1 && (trees.size() > maxTrees || cachedLabels > maxLabels)) {
+            cachedLabels -= eldest.next().labelCount();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Ključ stabla pretrage.
+     *
+     * @param startCity Početni grad.
+     * @param criterion Kriterijum optimizacije.
+     * @param limit Broj ruta po odredištu.
+     */
+    private record TreeKey(City startCity, OptimizationCriterion criterion, int limit) {
+    }
+}
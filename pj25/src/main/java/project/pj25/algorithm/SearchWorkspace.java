@@ -0,0 +1,273 @@
+package project.pj25.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Radni prostor jedne pretrage {@link RouteFinder}, koji se ponovo koristi za sve
+ * pretrage na istoj niti.
+ * <p>
+ * Nizovi su veličine broja stanica i alociraju se samo jednom. Umjesto brisanja
+ * prije svake pretrage, svaki zapis pamti redni broj pretrage ("epohu") u kojoj je
+ * upisan, pa je zapis iz ranije epohe isto što i prazan zapis. Početak nove pretrage
+ * ({@link #begin()}) je tako {@code O(1)} za nizove po stanicama; red pretrage i liste
+ * oznaka se prazne u vremenu proporcionalnom broju oznaka prethodne pretrage, bez
+ * nove alokacije.
+ * </p>
+ * <p>
+ * Broj obrada čvora (stanica, minuta dolaska) čuva se u hash tabeli sa otvorenim
+ * adresiranjem, čiji slotovi takođe nose epohu. Obrađena stanja po stanici ostaju
+ * u listama do prve naredne upotrebe te stanice, pa radni prostor zadržava oznake
+ * posljednje pretrage dok ih nova pretraga ne prepiše. Objekat nije thread-safe;
+ * {@link RouteFinder} drži po jedan za svaku nit.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see RouteFinder
+ * @see IndexedLongHeap
+ */
+final class SearchWorkspace {
+
+    /**
+     * Početni broj slotova hash tabele obrađenih čvorova (stepen dvojke).
+     */
+    private static final int INITIAL_NODE_CAPACITY = 1024;
+
+    /**
+     * Redni broj trenutne pretrage; nula nikad nije važeća epoha.
+     */
+    private int epoch;
+
+    /**
+     * Epoha u kojoj je lista obrađenih stanja stanice posljednji put ispražnjena.
+     */
+    private final int[] settledEpoch;
+
+    /**
+     * Obrađena stanja po stanici; važe samo za stanice čija je epoha trenutna.
+     */
+    private final List<List<NodeState>> settledStates;
+
+    /**
+     * Epoha u kojoj je stanica označena kao stanica odredišnog grada.
+     */
+    private final int[] endStationEpoch;
+
+    /**
+     * Ključevi hash tabele obrađenih čvorova.
+     */
+    private int[] nodeKeys;
+
+    /**
+     * Broj obrada čvora u svakom slotu.
+     */
+    private int[] nodeCounts;
+
+    /**
+     * Epoha u kojoj je slot upisan.
+     */
+    private int[] nodeEpoch;
+
+    /**
+     * Broj zauzetih slotova u trenutnoj epohi.
+     */
+    private int nodeSize;
+
+    /**
+     * Oznake pretrage po rednom broju.
+     */
+    final List<NodeState> labels = new ArrayList<>();
+
+    /**
+     * Red pretrage sa rednim brojevima oznaka.
+     */
+    final IndexedLongHeap queue = new IndexedLongHeap(1024);
+
+    /**
+     * Pronađene rute do odredišta.
+     */
+    final List<NodeState> foundRoutes = new ArrayList<>();
+
+    /**
+     * Nova stanja dodata iz jedne oznake prema istom susjedu.
+     */
+    NodeState[] siblings = new NodeState[8];
+
+    /**
+     * Kreira radni prostor za vozni red sa zadatim brojem stanica.
+     *
+     * @param stationCount Broj stanica.
+     */
+    SearchWorkspace(int stationCount) {
+        this(stationCount, 0);
+    }
+
+    /**
+     * Kreira radni prostor sa zadatom epohom, npr. blizu {@link Integer#MAX_VALUE}, da bi
+     * se provjerilo vraćanje epohe na početak.
+     *
+     * @param stationCount Broj stanica.
+     * @param initialEpoch Epoha prije prve pretrage.
+     */
+    SearchWorkspace(int stationCount, int initialEpoch) {
+        this.epoch = initialEpoch;
+        this.settledEpoch = new int[stationCount];
+        this.settledStates = new ArrayList<>(Collections.nCopies(stationCount, null));
+        this.endStationEpoch = new int[stationCount];
+        this.nodeKeys = new int[INITIAL_NODE_CAPACITY];
+        this.nodeCounts = new int[INITIAL_NODE_CAPACITY];
+        this.nodeEpoch = new int[INITIAL_NODE_CAPACITY];
+    }
+
+    /**
+     * Započinje novu pretragu: povećava epohu i prazni red i liste oznaka.
+     */
+    void begin() {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(settledEpoch, 0);
+            Arrays.fill(endStationEpoch, 0);
+            Arrays.fill(nodeEpoch, 0);
+            epoch = 0;
+        }
+        epoch++;
+        nodeSize = 0;
+        labels.clear();
+        queue.clear();
+        foundRoutes.clear();
+        Arrays.fill(siblings, null);
+    }
+
+    /**
+     * Označava stanice odredišnog grada za trenutnu pretragu.
+     *
+     * @param stations Interni ID-evi stanica odredišnog grada.
+     */
+    void markEndStations(int[] stations) {
+        for (int s : stations) {
+            endStationEpoch[s] = epoch;
+        }
+    }
+
+    /**
+     * Provjerava da li je stanica u odredišnom gradu trenutne pretrage.
+     *
+     * @param station Interni ID stanice.
+     * @return {@code true} ako je stanica označena u trenutnoj epohi.
+     */
+    boolean isEndStation(int station) {
+        return endStationEpoch[station] == epoch;
+    }
+
+    /**
+     * Vraća obrađena stanja stanice u trenutnoj pretrazi.
+     *
+     * @param station Interni ID stanice.
+     * @return Lista stanja, ili {@code null} ako na stanici još nije ništa obrađeno.
+     */
+    List<NodeState> settledAtOrNull(int station) {
+        return settledEpoch[station] == epoch ? settledStates.get(station) : null;
+    }
+
+    /**
+     * Vraća listu obrađenih stanja stanice, praznu ako je iz ranije pretrage.
+     *
+     * @param station Interni ID stanice.
+     * @return Lista stanja trenutne pretrage.
+     */
+    List<NodeState> settledAt(int station) {
+        List<NodeState> settled = settledStates.get(station);
+        if (settled == null) {
+            settled = new ArrayList<>();
+            settledStates.set(station, settled);
+        } else if (settledEpoch[station] != epoch) {
+            settled.clear();
+        }
+        settledEpoch[station] = epoch;
+        return settled;
+    }
+
+    /**
+     * Vraća broj obrada čvora u trenutnoj pretrazi.
+     *
+     * @param station Interni ID stanice.
+     * @param arrivalMinuteOfDay Minuta dolaska u danu, ili -1 za praznu putanju.
+     * @return Broj obrada čvora.
+     */
+    int settledCount(int station, int arrivalMinuteOfDay) {
+        int key = nodeKey(station, arrivalMinuteOfDay);
+        int mask = nodeKeys.length - 1;
+        for (int slot = hash(key) & mask; nodeEpoch[slot] == epoch; slot = (slot + 1) & mask) {
+            if (nodeKeys[slot] == key) {
+                return nodeCounts[slot];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Povećava broj obrada čvora za jedan.
+     *
+     * @param station Interni ID stanice.
+     * @param arrivalMinuteOfDay Minuta dolaska u danu, ili -1 za praznu putanju.
+     */
+    void incrementSettledCount(int station, int arrivalMinuteOfDay) {
+        if (2 * (nodeSize + 1) > nodeKeys.length) {
+            growNodes();
+        }
+        int key = nodeKey(station, arrivalMinuteOfDay);
+        int mask = nodeKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (nodeEpoch[slot] == epoch) {
+            if (nodeKeys[slot] == key) {
+                nodeCounts[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        nodeEpoch[slot] = epoch;
+        nodeKeys[slot] = key;
+        nodeCounts[slot] = 1;
+        nodeSize++;
+    }
+
+    /**
+     * Udvostručuje hash tabelu i prepisuje samo slotove trenutne epohe.
+     */
+    private void growNodes() {
+        int[] oldKeys = nodeKeys;
+        int[] oldCounts = nodeCounts;
+        int[] oldEpoch = nodeEpoch;
+        nodeKeys = new int[oldKeys.length * 2];
+        nodeCounts = new int[oldKeys.length * 2];
+        nodeEpoch = new int[oldKeys.length * 2];
+        int mask = nodeKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldEpoch[i] != epoch) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (nodeEpoch[slot] == epoch) {
+                slot = (slot + 1) & mask;
+            }
+            nodeEpoch[slot] = epoch;
+            nodeKeys[slot] = oldKeys[i];
+            nodeCounts[slot] = oldCounts[i];
+        }
+    }
+
+    /**
+     * Pakuje čvor u jedan cijeli broj.
+     */
+    private static int nodeKey(int station, int arrivalMinuteOfDay) {
+        return station * (CompiledTimetable.MINUTES_PER_DAY + 1) + arrivalMinuteOfDay + 1;
+    }
+
+    /**
+     * Raspršuje ključ (Fibonacci hashing), da susjedni ključevi ne padnu u susjedne slotove.
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
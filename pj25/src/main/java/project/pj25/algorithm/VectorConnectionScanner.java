@@ -0,0 +1,74 @@
+package project.pj25.algorithm;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Skener polazaka koji uslov poboljšanja provjerava za blok polazaka odjednom,
+ * pomoću Vector API-ja ({@code jdk.incubator.vector}).
+ * <p>
+ * Za blok širine jednog vektora učitavaju se minute polaska i trajanja, a dolasci na
+ * polazne i dolazne stanice se prikupljaju iz niza dolazaka (gather) po indeksima
+ * stanica. Ako nijedna traka ne zadovoljava uslov, cijeli blok se preskače; inače se
+ * vraća prva takva traka. Ostatak niza kraći od vektora provjerava se skalarno.
+ * Klasa se prevodi samo uz Maven profil {@code vector} i učitava samo ako je modul
+ * dostupan, preko {@link ConnectionScanner#create(int[], int[], int[], int[], boolean)}.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ * @see ConnectionScanner
+ */
+final class VectorConnectionScanner extends ConnectionScanner {
+
+    /**
+     * Najšira vrsta vektora koju procesor podržava.
+     */
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    /**
+     * Kreira vektorski skener nad nizovima polazaka.
+     *
+     * @param connectionFrom Polazna stanica svakog polaska.
+     * @param connectionTo Dolazna stanica svakog polaska.
+     * @param connectionDepartureMinute Minuta polaska u danu.
+     * @param connectionDuration Trajanje vožnje u minutama.
+     */
+    VectorConnectionScanner(int[] connectionFrom, int[] connectionTo, int[] connectionDepartureMinute,
+                            int[] connectionDuration) {
+        super(connectionFrom, connectionTo, connectionDepartureMinute, connectionDuration);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int nextImproving(int start, int end, int dayOffset, int[] arrival) {
+        int i = start;
+        int upperBound = start + SPECIES.loopBound(end - start);
+        for (; i < upperBound; i += SPECIES.length()) {
+            IntVector departureMinute = IntVector.fromArray(SPECIES, connectionDepartureMinute, i).add(dayOffset);
+            IntVector ready = IntVector.fromArray(SPECIES, arrival, 0, connectionFrom, i);
+            VectorMask<Integer> reachable = ready.compare(VectorOperators.LE, departureMinute);
+            if (!reachable.anyTrue()) continue;
+
+            IntVector arrivalMinute = departureMinute.add(IntVector.fromArray(SPECIES, connectionDuration, i));
+            IntVector current = IntVector.fromArray(SPECIES, arrival, 0, connectionTo, i);
+            VectorMask<Integer> improving = reachable.and(arrivalMinute.compare(VectorOperators.LT, current));
+            if (improving.anyTrue()) {
+                return i + improving.firstTrue();
+            }
+        }
+        return super.nextImproving(i, end, dayOffset, arrival);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean isVectorized() {
+        return true;
+    }
+}
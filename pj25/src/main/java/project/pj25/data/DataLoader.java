@@ -59,6 +59,7 @@ public class DataLoader {
         try {
             File file = new File(filePath);
             TransportMap transportMap = objectMapper.readValue(file, TransportMap.class);
+            transportMap.buildIndexes();
             System.out.println("Podaci uspješno učitani iz " + filePath);
             System.out.println("Učitana transportna mapa: " + transportMap.toString());
             return transportMap;
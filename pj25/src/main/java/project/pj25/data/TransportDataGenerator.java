@@ -35,7 +35,7 @@ public class TransportDataGenerator {
     /** Maksimalan broj stanica po gradu. */
     private static final int MAX_STATIONS_PER_CITY = 3;
     /** Random generator za nasumične vrijednosti. */
-    private static final Random random = new Random();
+    private final Random random;
 
     /** Broj redova u gridu. */
     private final int n;
@@ -49,8 +49,32 @@ public class TransportDataGenerator {
      * @param m Broj kolona.
      */
     public TransportDataGenerator(int n, int m) {
+        this(n, m, new Random());
+    }
+
+    /**
+     * Konstruktor za {@code TransportDataGenerator} sa zadatim sjemenom, koji za iste
+     * dimenzije uvijek generiše istu mapu.
+     *
+     * @param n Broj redova.
+     * @param m Broj kolona.
+     * @param seed Sjeme generatora nasumičnih vrijednosti.
+     */
+    public TransportDataGenerator(int n, int m, long seed) {
+        this(n, m, new Random(seed));
+    }
+
+    /**
+     * Konstruktor sa zadatim generatorom nasumičnih vrijednosti.
+     *
+     * @param n Broj redova.
+     * @param m Broj kolona.
+     * @param random Generator nasumičnih vrijednosti.
+     */
+    private TransportDataGenerator(int n, int m, Random random) {
         this.n = n;
         this.m = m;
+        this.random = random;
     }
 
     /**
@@ -186,6 +210,7 @@ public class TransportDataGenerator {
                 }
             }
         }
+        transportMap.buildIndexes();
         return transportMap;
     }
 
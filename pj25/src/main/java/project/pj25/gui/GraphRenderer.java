@@ -162,9 +162,7 @@ public class GraphRenderer {
 
                     cityGatewayCoordinates.put(city, new CityGateways(busGateway, trainGateway, cityCenter));
 
-                    List<Station> stationsInCity = transportMap.getAllStations().values().stream()
-                            .filter(s -> s.getCity().equals(city))
-                            .collect(Collectors.toList());
+                    List<Station> stationsInCity = transportMap.getStationsInCity(city);
 
                     List<BusStation> busStations = stationsInCity.stream()
                             .filter(s -> s instanceof BusStation)
@@ -254,23 +252,13 @@ public class GraphRenderer {
                         CityGateways neighborCityGateways = cityGatewayCoordinates.get(neighborCity);
                         if (neighborCityGateways == null) continue;
 
-                        boolean hasBusConnection = transportMap.getAllStations().values().stream()
-                                .filter(s -> s instanceof BusStation && s.getCity().equals(currentCity))
-                                .anyMatch(s -> s.getDepartures().stream()
-                                        .anyMatch(d -> transportMap.getStation(d.getArrivalStationId()) != null &&
-                                                transportMap.getStation(d.getArrivalStationId()).getCity().equals(neighborCity) &&
-                                                d.getType().equals("autobus")));
+                        boolean hasBusConnection = transportMap.hasConnection(currentCity, neighborCity, StationType.AUTOBUS);
                         if (hasBusConnection) {
                             gc.strokeLine(currentCityGateways.busGateway.x, currentCityGateways.busGateway.y,
                                     neighborCityGateways.busGateway.x, neighborCityGateways.busGateway.y);
                         }
 
-                        boolean hasTrainConnection = transportMap.getAllStations().values().stream()
-                                .filter(s -> s instanceof TrainStation && s.getCity().equals(currentCity))
-                                .anyMatch(s -> s.getDepartures().stream()
-                                        .anyMatch(d -> transportMap.getStation(d.getArrivalStationId()) != null &&
-                                                transportMap.getStation(d.getArrivalStationId()).getCity().equals(neighborCity) &&
-                                                d.getType().equals("voz")));
+                        boolean hasTrainConnection = transportMap.hasConnection(currentCity, neighborCity, StationType.VOZ);
                         if (hasTrainConnection) {
                             gc.strokeLine(currentCityGateways.trainGateway.x, currentCityGateways.trainGateway.y,
                                     neighborCityGateways.trainGateway.x, neighborCityGateways.trainGateway.y);
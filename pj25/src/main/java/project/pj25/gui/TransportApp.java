@@ -24,7 +24,9 @@ import java.time.Duration;
 import java.time.LocalTime;
 import java.util.Comparator;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javafx.scene.canvas.Canvas;
@@ -45,8 +47,28 @@ import java.io.IOException;
  */
 public class TransportApp extends Application {
 
+    /**
+     * Sistemsko svojstvo sa ograničenjem trajanja pretrage u sekundama, npr.
+     * {@code -Dpj25.searchTimeLimit=2}.
+     */
+    private static final String SEARCH_TIME_LIMIT_PROPERTY = "pj25.searchTimeLimit";
+
+    /**
+     * Ograničenje trajanja pretrage. Bez svojstva {@value #SEARCH_TIME_LIMIT_PROPERTY}
+     * pretraga nije ograničena, pa su prikazane rute uvijek optimalne; sa njim veća mapa
+     * ne blokira korisnički interfejs, ali rute mogu biti neoptimalne.
+     */
+    private static final SearchBudget ROUTE_SEARCH_BUDGET = searchBudgetFromProperty();
+
+    /**
+     * Broj ruta koje se traže za glavni prikaz.
+     */
+    private static final int DISPLAYED_ROUTES = 5;
+
     private TransportMap transportMap;
     private RouteFinder routeFinder;
+    private Map<String, RoutingEngine> routingEngines;
+    private ComboBox<String> routingEngineComboBox;
     private ComboBox<City> startCityComboBox;
     private ComboBox<City> endCityComboBox;
     private ToggleGroup optimizationCriteriaGroup;
@@ -60,6 +82,10 @@ public class TransportApp extends Application {
     private Path currentBestRoute;
     private Label salesInfoLabel;
     private List<Path> lastFoundRoutes;
+    private List<Path> lastParetoRoutes;
+    private List<Path> lastRankedParetoFront;
+    private City lastParetoStartCity;
+    private City lastParetoEndCity;
 
     /**
      * Glavna metoda za pokretanje JavaFX aplikacije.
@@ -98,7 +124,25 @@ public class TransportApp extends Application {
         primaryStage.setTitle("CityHop - Pronađi Optimalnu Rutu");
         System.out.println("Podaci uspješno generisani. Ukupan broj gradova: " + (transportMap.getNumRows() * transportMap.getNumCols()));
 
-        this.routeFinder = new RouteFinder(transportMap);
+        // Vozni red se kompajlira jednom i dijeli između svih algoritama
+        CompiledTimetable timetable = new CompiledTimetable(transportMap);
+        this.routeFinder = new KShortestRouteFinder(timetable);
+        this.routingEngines = new LinkedHashMap<>();
+        routingEngines.put("Prioritetni red (K najkraćih)", new CachedRouteFinder(transportMap, timetable, KShortestRouteFinder::new));
+        routingEngines.put("Connection Scan (CSA)", new ConnectionScanRouteFinder(timetable, routeFinder));
+        routingEngines.put("Connection Scan (vektorski)", new ConnectionScanRouteFinder(timetable, routeFinder, true));
+        routingEngines.put("RAPTOR (presjedanja)", new RaptorRouteFinder(timetable, routeFinder));
+        routingEngines.put("Pareto (svi kriterijumi)", new ParetoRouteFinder(timetable));
+        routingEngines.put("A* (ciljno usmjerena)", new AStarRouteFinder(timetable));
+        routingEngines.put("Dvosmjerna pretraga", new BidirectionalRouteFinder(timetable));
+        routingEngines.put("Klasteri gradova (vrijeme)", new ClusteredRouteFinder(timetable, routeFinder));
+        routingEngines.put("Paralelno po stanicama", new ParallelRouteFinder(routeFinder));
+        routingEngines.put("K najkraćih, delta-stepping nastavci", new DeltaSteppingCompletionRouteFinder(timetable));
+        routingEngines.put("Stablo pretrage po početnom gradu", new SearchTreeRouteFinder(timetable));
+
+        routingEngineComboBox = new ComboBox<>(FXCollections.observableArrayList(routingEngines.keySet()));
+        routingEngineComboBox.getSelectionModel().selectFirst();
+        routingEngineComboBox.setMaxWidth(Double.MAX_VALUE);
 
         startCityComboBox = new ComboBox<>();
         startCityComboBox.setPromptText("Odaberi početni grad");
@@ -124,6 +168,13 @@ public class TransportApp extends Application {
         transfersRadio.setToggleGroup(optimizationCriteriaGroup);
         transfersRadio.setUserData("transfers");
 
+        // Pareto skup odgovara na sva tri kriterijuma, pa se pri promjeni kriterijuma samo ponovo sortira
+        optimizationCriteriaGroup.selectedToggleProperty().addListener((obs, oldToggle, newToggle) -> {
+            if (newToggle != null && lastParetoRoutes != null && getSelectedRoutingEngine() instanceof ParetoRouteFinder) {
+                findOptimalRoute();
+            }
+        });
+
         VBox criteriaBox = new VBox(10, new Label("Kriterijum optimizacije:"), timeRadio, priceRadio, transfersRadio);
         criteriaBox.setPadding(new Insets(10));
         criteriaBox.setStyle("-fx-border-color: lightgray; -fx-border-width: 1; -fx-border-radius: 5;");
@@ -145,6 +196,7 @@ public class TransportApp extends Application {
                 new Label("Početni grad:"), startCityComboBox,
                 new Label("Odredišni grad:"), endCityComboBox,
                 criteriaBox,
+                new Label("Algoritam pretrage:"), routingEngineComboBox,
                 findRouteButton
         );
         controlsLayout.setPrefWidth(250);
@@ -328,7 +380,9 @@ public class TransportApp extends Application {
 
     /**
      * Pronalazi optimalnu rutu na osnovu odabranih kriterijuma i ažurira korisnički interfejs.
-     * <p>Sada pronalazi top 5 ruta i koristi prvu (najbolju) za prikaz na glavnom ekranu.</p>
+     * <p>Sada pronalazi top 5 ruta i koristi prvu (najbolju) za prikaz na glavnom ekranu.
+     * Za Pareto pretragu se čuva cijeli skup ruta za odabrane gradove, pa promjena
+     * kriterijuma samo ponovo sortira taj skup.</p>
      */
     private void findOptimalRoute() {
         City startCity = startCityComboBox.getSelectionModel().getSelectedItem();
@@ -361,7 +415,25 @@ public class TransportApp extends Application {
                 " po kriterijumu: " + formatCriterionNameForDisplay(criteria) + "...");
 
 
-        lastFoundRoutes = routeFinder.findTopNRoutes(startCity, endCity, criteria, 5);
+        RoutingEngine routingEngine = getSelectedRoutingEngine();
+        if (routingEngine instanceof ParetoRouteFinder) {
+            if (lastParetoRoutes == null || !startCity.equals(lastParetoStartCity) || !endCity.equals(lastParetoEndCity)) {
+                lastParetoRoutes = ((ParetoRouteFinder) routingEngine).findParetoRoutes(startCity, endCity);
+                lastParetoStartCity = startCity;
+                lastParetoEndCity = endCity;
+            }
+            // Glavni prikaz dobija prvih N ruta, a dijalog dodatnih ruta cijeli Pareto skup
+            lastRankedParetoFront = ParetoRouteFinder.rankRoutes(lastParetoRoutes, criteria, lastParetoRoutes.size());
+            lastFoundRoutes = lastRankedParetoFront.subList(0, Math.min(DISPLAYED_ROUTES, lastRankedParetoFront.size()));
+        } else {
+            lastRankedParetoFront = null;
+            RouteSearchResult result = routingEngine.findTopNRoutes(startCity, endCity, criteria, DISPLAYED_ROUTES, ROUTE_SEARCH_BUDGET);
+            lastFoundRoutes = result.getRoutes();
+            if (!result.isOptimal()) {
+                showAlert("Pretraga prekinuta", "Pretraga je trajala duže od " + ROUTE_SEARCH_BUDGET.getTimeLimit().getSeconds()
+                        + " s. Prikazane su najbolje rute pronađene do tada, koje ne moraju biti optimalne.");
+            }
+        }
 
         currentBestRoute = null;
         if (!lastFoundRoutes.isEmpty()) {
@@ -377,6 +449,20 @@ public class TransportApp extends Application {
         }
     }
 
+    /**
+     * Čita ograničenje trajanja pretrage iz sistemskog svojstva.
+     *
+     * @return Budžet sa zadatim brojem sekundi, ili neograničen budžet ako svojstvo nije
+     *         zadato ili nije pozitivno.
+     */
+    private static SearchBudget searchBudgetFromProperty() {
+        Long seconds = Long.getLong(SEARCH_TIME_LIMIT_PROPERTY);
+        if (seconds == null || seconds <= 0) {
+            return SearchBudget.unlimited();
+        }
+        return SearchBudget.ofTime(Duration.ofSeconds(seconds));
+    }
+
     /**
      * Prikazuje dijaloški prozor sa dodatnim rutama.
      * <p>Ovaj metod sada koristi prethodno pronađenu listu ruta umjesto da ih ponovo traži.</p>
@@ -384,7 +470,8 @@ public class TransportApp extends Application {
     private void showAdditionalRoutes() {
         if (lastFoundRoutes != null && !lastFoundRoutes.isEmpty()) {
             String criterion = getSelectedCriterion();
-            TopRoutesDialog dialog = new TopRoutesDialog(null, lastFoundRoutes, criterion);
+            List<Path> routes = lastRankedParetoFront != null ? lastRankedParetoFront : lastFoundRoutes;
+            TopRoutesDialog dialog = new TopRoutesDialog(null, routes, criterion);
             dialog.show();
         } else {
             showAlert("Greška", "Molimo prvo pronađite rute.");
@@ -440,6 +527,16 @@ public class TransportApp extends Application {
         return null;
     }
 
+    /**
+     * Dohvata algoritam pretrage odabran u {@link ComboBox}-u.
+     *
+     * @return Odabrani {@link RoutingEngine}, ili {@link RouteFinder} ako ništa nije odabrano.
+     */
+    private RoutingEngine getSelectedRoutingEngine() {
+        String selectedEngine = routingEngineComboBox.getSelectionModel().getSelectedItem();
+        return routingEngines.getOrDefault(selectedEngine, routeFinder);
+    }
+
     /**
      * Pomoćna metoda za formatiranje naziva kriterijuma za prikaz u korisničkom interfejsu.
      *
@@ -1,6 +1,7 @@
 package project.pj25.model;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalTime;
 import java.util.Objects;
@@ -16,10 +17,19 @@ import project.pj25.util.LocalTimeDeserializer;
  * za ispravnu deserializaciju polja koja su tipa {@link LocalTime} i {@link Duration},
  * s obzirom na to da Jackson ne podržava ove tipove po defaultu.</p>
  *
+ * <p>Dani u sedmici u kojima polazak saobraća čuvaju se kao bitovi jednog broja
+ * (bit 0 je ponedjeljak, bit 6 nedjelja). Polazak bez tog podatka (npr. iz starijeg
+ * JSON fajla) saobraća svaki dan.</p>
+ *
  * @author bratsale
  * @version 1.0
  */
 public class Departure {
+    /**
+     * Maska dana za polazak koji saobraća svaki dan u sedmici.
+     */
+    public static final int ALL_DAYS = 0x7F;
+
     /**
      * Tip prevoza ("autobus" ili "voz").
      */
@@ -51,6 +61,10 @@ public class Departure {
      */
     @JsonDeserialize(using = DurationDeserializer.class)
     private Duration minTransferTime;
+    /**
+     * Dani u sedmici u kojima polazak saobraća, kao bitovi (bit 0 je ponedjeljak).
+     */
+    private int serviceDays = ALL_DAYS;
 
     /**
      * Glavni konstruktor za kreiranje novog objekta polaska.
@@ -74,6 +88,29 @@ public class Departure {
         this.minTransferTime = minTransferTime;
     }
 
+    /**
+     * Konstruktor za polazak koji ne saobraća svaki dan.
+     *
+     * @param type Tip prevoza.
+     * @param departureStationId ID stanice polaska.
+     * @param arrivalStationId ID stanice dolaska.
+     * @param departureTime Vrijeme polaska.
+     * @param arrivalTime Vrijeme dolaska.
+     * @param price Cijena karte.
+     * @param minTransferTime Minimalno vrijeme za presjedanje na dolaznoj stanici.
+     * @param serviceDays Dani saobraćanja kao bitovi (bit 0 je ponedjeljak), npr. {@link #ALL_DAYS}.
+     * @throws IllegalArgumentException ako maska sadrži bitove van sedmice.
+     */
+    public Departure(String type, String departureStationId, String arrivalStationId,
+                     LocalTime departureTime, LocalTime arrivalTime, double price, Duration minTransferTime,
+                     int serviceDays) {
+        this(type, departureStationId, arrivalStationId, departureTime, arrivalTime, price, minTransferTime);
+        if ((serviceDays & ~ALL_DAYS) != 0) {
+            throw new IllegalArgumentException("Maska dana saobraćanja ima samo 7 bitova: " + serviceDays);
+        }
+        this.serviceDays = serviceDays;
+    }
+
     /**
      * Prazan konstruktor.
      * <p>Neophodan za rad Jackson biblioteke tokom deserializacije.</p>
@@ -118,6 +155,19 @@ public class Departure {
      */
     public double getPrice() { return price; }
 
+    /**
+     * Vraća dane u sedmici u kojima polazak saobraća.
+     * @return Maska dana (bit 0 je ponedjeljak, bit 6 nedjelja).
+     */
+    public int getServiceDays() { return serviceDays; }
+
+    /**
+     * Provjerava da li polazak saobraća zadatog dana u sedmici.
+     * @param dayOfWeek Dan u sedmici.
+     * @return {@code true} ako polazak saobraća tog dana.
+     */
+    public boolean runsOn(DayOfWeek dayOfWeek) { return (serviceDays & (1 << (dayOfWeek.getValue() - 1))) != 0; }
+
     /**
      * Vraća string reprezentaciju objekta polaska.
      * @return Formatirani string sa detaljima polaska.
@@ -132,6 +182,7 @@ public class Departure {
                 ", arrTime=" + arrivalTime +
                 ", price=" + String.format("%.2f", price) +
                 ", minTransfer=" + (minTransferTime != null ? minTransferTime.toMinutes() + "min" : "N/A") +
+                (serviceDays != ALL_DAYS ? ", serviceDays=" + Integer.toBinaryString(serviceDays) : "") +
                 '}';
     }
 
@@ -148,6 +199,7 @@ public class Departure {
         if (o == null || getClass() != o.getClass()) return false;
         Departure departure = (Departure) o;
         return Double.compare(price, departure.price) == 0 &&
+                serviceDays == departure.serviceDays &&
                 Objects.equals(type, departure.type) &&
                 Objects.equals(departureStationId, departure.departureStationId) &&
                 Objects.equals(arrivalStationId, departure.arrivalStationId) &&
@@ -162,6 +214,6 @@ public class Departure {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(type, departureStationId, arrivalStationId, departureTime, arrivalTime, price, minTransferTime);
+        return Objects.hash(type, departureStationId, arrivalStationId, departureTime, arrivalTime, price, minTransferTime, serviceDays);
     }
 }
\ No newline at end of file
@@ -137,6 +137,10 @@ public abstract class Station {
 
     /**
      * Dodaje novi polazak u listu polazaka sa ove stanice.
+     * <p>
+     * Broj verzije mape se ne mijenja; nakon izmjene polazaka treba pozvati
+     * {@link TransportMap#buildIndexes()}, da bi keševi pretrage vidjeli izmjenu.
+     * </p>
      *
      * @param departure Objekat polaska koji treba dodati.
      */
@@ -1,7 +1,13 @@
 package project.pj25.model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Klasa koja predstavlja kompletnu transportnu mapu sistema.
@@ -11,6 +17,21 @@ import java.util.Map;
  * lakšeg pristupa po ID-u. Ova klasa služi kao centralni model za sve
  * podatke o transportu.
  * </p>
+ * <p>
+ * Mapa čuva i guste indekse za brz pristup bez obilaska svih stanica: stanice
+ * grupisane po gradu (grad je određen rednim brojem {@code x * brojKolona + y}, pa su
+ * stanice grada jedan uzastopan opseg), grad svake stanice i susjedne gradove
+ * svakog grada, do kojih vodi bar jedan direktan polazak. Indeksi se grade pri
+ * generisanju i učitavanju mape ({@link #buildIndexes()}), a dodavanje grada ili
+ * stanice ih poništava, pa se ponovo grade pri prvoj upotrebi.
+ * </p>
+ * <p>
+ * Dodavanje grada ili stanice i ponovna izgradnja indeksa povećavaju broj verzije
+ * ({@link #getVersion()}), pa keševi rezultata pretrage mogu prepoznati da su njihovi
+ * rezultati zastarjeli. Stanica ne zna kojoj mapi pripada, pa izmjena polazaka
+ * ({@link Station#addDeparture(Departure)}) sama ne mijenja verziju; nakon nje treba
+ * pozvati {@link #buildIndexes()}.
+ * </p>
  *
  * @author bratsale
  * @version 1.0
@@ -40,6 +61,48 @@ public class TransportMap {
      */
     private int numCols;
 
+    /**
+     * Stanice grupisane po rednom broju grada, a unutar grada sortirane po ID-u.
+     */
+    private volatile Station[] indexedStations;
+
+    /**
+     * Za grad {@code c}, stanice su u {@code indexedStations} na pozicijama od
+     * {@code firstStationOfCity[c]} do {@code firstStationOfCity[c + 1]} (isključivo).
+     */
+    private int[] firstStationOfCity;
+
+    /**
+     * Pozicija svake stanice u {@code indexedStations}, po ID-u stanice.
+     */
+    private Map<String, Integer> stationPosition;
+
+    /**
+     * Redni broj grada svake stanice iz {@code indexedStations}, ili -1.
+     */
+    private int[] stationCity;
+
+    /**
+     * Za grad {@code c}, susjedni gradovi su u {@code neighbourCities} na pozicijama od
+     * {@code firstNeighbour[c]} do {@code firstNeighbour[c + 1]} (isključivo).
+     */
+    private int[] firstNeighbour;
+
+    /**
+     * Redni brojevi susjednih gradova, rastuće za svaki grad.
+     */
+    private int[] neighbourCities;
+
+    /**
+     * Vrste prevoza kojima se stiže u susjedni grad, kao bitovi (redni broj {@link StationType}).
+     */
+    private byte[] neighbourModes;
+
+    /**
+     * Broj verzije mape, koji se povećava pri svakoj izmjeni.
+     */
+    private final AtomicLong version = new AtomicLong();
+
     /**
      * Prazan konstruktor.
      * <p>Inicijalizuje mapu stanica. Koristi ga Jackson za deserializaciju.</p>
@@ -87,6 +150,12 @@ public class TransportMap {
      */
     public int getNumCols() { return numCols; }
 
+    /**
+     * Vraća broj verzije mape.
+     * @return Broj koji se povećava pri svakoj izmjeni mape.
+     */
+    public long getVersion() { return version.get(); }
+
     /**
      * Dodaje grad na određene koordinate u mreži.
      *
@@ -97,6 +166,7 @@ public class TransportMap {
     public void addCity(int x, int y, City city) {
         if (x >= 0 && x < numRows && y >= 0 && y < numCols) {
             this.cities[x][y] = city;
+            invalidateIndexes();
         } else {
             System.err.println("Error: City coordinates (" + x + ", " + y + ") out of bounds.");
         }
@@ -124,6 +194,7 @@ public class TransportMap {
     public void addStation(Station station) {
         if (station != null) {
             this.stations.put(station.getId(), station);
+            invalidateIndexes();
         }
     }
 
@@ -137,6 +208,196 @@ public class TransportMap {
         return this.stations.get(stationId);
     }
 
+    /**
+     * Gradi indekse stanica po gradu i susjednih gradova.
+     * <p>
+     * Poziva se nakon što su dodati svi gradovi, stanice i polasci (generator i
+     * {@link project.pj25.data.DataLoader} to rade automatski). Ako se polasci kasnije
+     * mijenjaju, metodu treba ponovo pozvati, jer se polasci ne prate; poziv povećava
+     * i broj verzije mape.
+     * </p>
+     */
+    public synchronized void buildIndexes() {
+        int cityCount = numRows * numCols;
+        List<Station> sorted = new ArrayList<>(stations.values());
+        sorted.sort(Comparator.comparingInt((Station s) -> cityIndexOf(s.getCity())).thenComparing(Station::getId));
+
+        Station[] stationArray = sorted.toArray(new Station[0]);
+        int[] firstStation = new int[cityCount + 1];
+        int[] cityOfStation = new int[stationArray.length];
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < stationArray.length; i++) {
+            cityOfStation[i] = cityIndexOf(stationArray[i].getCity());
+            positions.put(stationArray[i].getId(), i);
+            if (cityOfStation[i] >= 0) {
+                firstStation[cityOfStation[i] + 1]++;
+            }
+        }
+        // Stanice bez validnog grada su sortirane na početak i ne pripadaju nijednom opsegu
+        firstStation[0] = stationArray.length - positionsWithCity(cityOfStation);
+        for (int c = 0; c < cityCount; c++) {
+            firstStation[c + 1] += firstStation[c];
+        }
+
+        // Susjedi: za svaki grad bitovi vrsta prevoza po susjednom gradu
+        int[] firstNeighbourOfCity = new int[cityCount + 1];
+        List<int[]> neighbourList = new ArrayList<>();
+        Map<Integer, Integer> modesByNeighbour = new HashMap<>();
+        for (int c = 0; c < cityCount; c++) {
+            firstNeighbourOfCity[c] = neighbourList.size();
+            modesByNeighbour.clear();
+            for (int i = firstStation[c]; i < firstStation[c + 1]; i++) {
+                for (Departure departure : stationArray[i].getDepartures()) {
+                    Integer target = positions.get(departure.getArrivalStationId());
+                    if (target == null || cityOfStation[target] < 0 || cityOfStation[target] == c) continue;
+                    StationType type = "voz".equalsIgnoreCase(departure.getType()) ? StationType.VOZ : StationType.AUTOBUS;
+                    modesByNeighbour.merge(cityOfStation[target], 1 << type.ordinal(), (a, b) -> a | b);
+                }
+            }
+            modesByNeighbour.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(e -> neighbourList.add(new int[]{e.getKey(), e.getValue()}));
+        }
+        firstNeighbourOfCity[cityCount] = neighbourList.size();
+
+        int[] neighbours = new int[neighbourList.size()];
+        byte[] modes = new byte[neighbourList.size()];
+        for (int i = 0; i < neighbours.length; i++) {
+            neighbours[i] = neighbourList.get(i)[0];
+            modes[i] = (byte) neighbourList.get(i)[1];
+        }
+
+        this.firstStationOfCity = firstStation;
+        this.stationPosition = positions;
+        this.stationCity = cityOfStation;
+        this.firstNeighbour = firstNeighbourOfCity;
+        this.neighbourCities = neighbours;
+        this.neighbourModes = modes;
+        this.indexedStations = stationArray;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Vraća redni broj grada u mreži.
+     *
+     * @param city Grad.
+     * @return {@code x * brojKolona + y}, ili -1 ako grad nije u mreži.
+     */
+    public int cityIndexOf(City city) {
+        if (city == null || city.getX() < 0 || city.getX() >= numRows || city.getY() < 0 || city.getY() >= numCols) {
+            return -1;
+        }
+        return city.getX() * numCols + city.getY();
+    }
+
+    /**
+     * Vraća grad sa zadatim rednim brojem.
+     *
+     * @param cityIndex Redni broj grada ({@link #cityIndexOf(City)}).
+     * @return Objekat grada ili {@code null} ako redni broj nije validan.
+     */
+    public City cityAt(int cityIndex) {
+        if (numCols == 0 || cityIndex < 0) {
+            return null;
+        }
+        return getCity(cityIndex / numCols, cityIndex % numCols);
+    }
+
+    /**
+     * Vraća sve stanice grada, sortirane po ID-u, u vremenu proporcionalnom broju
+     * stanica tog grada.
+     *
+     * @param city Grad.
+     * @return Nepromjenljiva lista stanica grada (prazna ako grad nije u mreži).
+     */
+    public List<Station> getStationsInCity(City city) {
+        ensureIndexes();
+        int c = cityIndexOf(city);
+        if (c < 0) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(
+                Arrays.asList(indexedStations).subList(firstStationOfCity[c], firstStationOfCity[c + 1]));
+    }
+
+    /**
+     * Vraća grad stanice preko indeksa.
+     *
+     * @param stationId ID stanice.
+     * @return Grad stanice, ili {@code null} ako stanica ne postoji ili nema validan grad.
+     */
+    public City getCityOfStation(String stationId) {
+        ensureIndexes();
+        Integer position = stationPosition.get(stationId);
+        return position == null ? null : cityAt(stationCity[position]);
+    }
+
+    /**
+     * Vraća gradove do kojih iz datog grada vodi bar jedan direktan polazak.
+     *
+     * @param city Grad.
+     * @return Susjedni gradovi, rastuće po rednom broju.
+     */
+    public List<City> getNeighbourCities(City city) {
+        ensureIndexes();
+        int c = cityIndexOf(city);
+        if (c < 0) {
+            return Collections.emptyList();
+        }
+        List<City> result = new ArrayList<>(firstNeighbour[c + 1] - firstNeighbour[c]);
+        for (int i = firstNeighbour[c]; i < firstNeighbour[c + 1]; i++) {
+            result.add(cityAt(neighbourCities[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Provjerava da li iz jednog grada u drugi vodi direktan polazak date vrste prevoza.
+     *
+     * @param from Polazni grad.
+     * @param to Dolazni grad.
+     * @param type Vrsta prevoza.
+     * @return {@code true} ako postoji bar jedan takav polazak.
+     */
+    public boolean hasConnection(City from, City to, StationType type) {
+        ensureIndexes();
+        int c = cityIndexOf(from);
+        int target = cityIndexOf(to);
+        if (c < 0 || target < 0) {
+            return false;
+        }
+        int position = Arrays.binarySearch(neighbourCities, firstNeighbour[c], firstNeighbour[c + 1], target);
+        return position >= 0 && (neighbourModes[position] & (1 << type.ordinal())) != 0;
+    }
+
+    /**
+     * Broji stanice koje pripadaju nekom gradu mreže.
+     */
+    private static int positionsWithCity(int[] cityOfStation) {
+        int count = 0;
+        for (int c : cityOfStation) {
+            if (c >= 0) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Gradi indekse ako su poništeni ili još nisu izgrađeni.
+     */
+    private void ensureIndexes() {
+        if (indexedStations == null) {
+            buildIndexes();
+        }
+    }
+
+    /**
+     * Poništava indekse nakon izmjene gradova ili stanica.
+     */
+    private void invalidateIndexes() {
+        indexedStations = null;
+        version.incrementAndGet();
+    }
+
     /**
      * Vraća string reprezentaciju transportne mape.
      * @return Formatirani string sa sumarnim podacima o mapi.
@@ -0,0 +1,49 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za {@link AStarRouteFinder}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class AStarRouteFinderTest {
+
+    @Test
+    void returnsSameKeysAsRouteFinder() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        AStarRouteFinder aStar = new AStarRouteFinder(timetable);
+        for (City[] pair : RouteTestSupport.cityPairs(map, 10)) {
+            for (String criterion : RouteTestSupport.CRITERIA) {
+                assertEquals(
+                        RouteTestSupport.keys(routeFinder.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion),
+                        RouteTestSupport.keys(aStar.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion),
+                        criterion + " " + pair[0].getId() + " -> " + pair[1].getId());
+            }
+        }
+    }
+
+    @Test
+    void nearbyQueryPollsFewerLabels() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        AStarRouteFinder aStar = new AStarRouteFinder(timetable);
+        City start = map.getCity(0, 0);
+        City end = map.getCity(0, 1);
+
+        // Donja granica usmjerava pretragu ka odredištu, pa susjedni grad ne traži obilazak mape
+        long plain = routeFinder.findTopNRoutes(start, end, "price", RouteTestSupport.LIMIT, SearchBudget.unlimited())
+                .getStatistics().getPolledLabels();
+        long guided = aStar.findTopNRoutes(start, end, "price", RouteTestSupport.LIMIT, SearchBudget.unlimited())
+                .getStatistics().getPolledLabels();
+        assertTrue(guided <= plain, guided + " > " + plain);
+    }
+}
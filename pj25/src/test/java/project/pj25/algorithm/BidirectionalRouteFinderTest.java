@@ -0,0 +1,52 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testovi za {@link BidirectionalRouteFinder}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class BidirectionalRouteFinderTest {
+
+    @Test
+    void returnsSameKeysAsRouteFinder() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        BidirectionalRouteFinder bidirectional = new BidirectionalRouteFinder(timetable);
+        for (City[] pair : RouteTestSupport.cityPairs(map, 10)) {
+            for (String criterion : RouteTestSupport.CRITERIA) {
+                assertEquals(
+                        RouteTestSupport.keys(routeFinder.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion),
+                        RouteTestSupport.keys(bidirectional.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion),
+                        criterion + " " + pair[0].getId() + " -> " + pair[1].getId());
+            }
+        }
+    }
+
+    @Test
+    void matchesExhaustiveSearchOnSmallMap() {
+        TransportMap map = RouteTestSupport.createSmallMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        BidirectionalRouteFinder bidirectional = new BidirectionalRouteFinder(timetable);
+        for (City[] pair : RouteTestSupport.smallMapPairs(map)) {
+            for (String criterion : RouteTestSupport.CRITERIA) {
+                List<Long> keys = RouteTestSupport.keys(
+                        bidirectional.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion);
+                assertEquals(RouteTestSupport.LIMIT, keys.size());
+                assertEquals(
+                        RouteTestSupport.bruteForceTopKeys(timetable, pair[0], pair[1],
+                                OptimizationCriterion.fromName(criterion), RouteTestSupport.LIMIT, keys.get(keys.size() - 1)),
+                        keys,
+                        criterion + " " + pair[0].getId() + " -> " + pair[1].getId());
+            }
+        }
+    }
+}
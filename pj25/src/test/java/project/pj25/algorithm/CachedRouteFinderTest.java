@@ -0,0 +1,85 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za {@link CachedRouteFinder}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class CachedRouteFinderTest {
+
+    @Test
+    void repeatedQueryIsAnsweredFromCache() {
+        TransportMap map = RouteTestSupport.createMap();
+        CachedRouteFinder cached = new CachedRouteFinder(map, RouteFinder::new);
+        City start = map.getCity(0, 0);
+        City end = map.getCity(2, 3);
+
+        List<Path> first = cached.findTopNRoutes(start, end, "time", RouteTestSupport.LIMIT);
+        List<Path> second = cached.findTopNRoutes(start, end, "time", RouteTestSupport.LIMIT);
+
+        assertEquals(RouteTestSupport.keys(first, "time"), RouteTestSupport.keys(second, "time"));
+        assertNotSame(first.get(0), second.get(0));
+        CacheStatistics statistics = cached.getStatistics();
+        assertEquals(1, statistics.getMisses());
+        assertEquals(1, statistics.getHits());
+        assertEquals(1, statistics.getEntries());
+    }
+
+    @Test
+    void mapChangeInvalidatesCache() {
+        TransportMap map = RouteTestSupport.createMap();
+        CachedRouteFinder cached = new CachedRouteFinder(map, RouteFinder::new);
+        City start = map.getCity(0, 0);
+        City end = map.getCity(2, 3);
+
+        cached.findTopNRoutes(start, end, "price", RouteTestSupport.LIMIT);
+        long version = map.getVersion();
+        map.buildIndexes();
+        assertEquals(version + 1, map.getVersion());
+        cached.findTopNRoutes(start, end, "price", RouteTestSupport.LIMIT);
+
+        CacheStatistics statistics = cached.getStatistics();
+        assertEquals(0, statistics.getHits());
+        assertEquals(2, statistics.getMisses());
+        assertEquals(1, statistics.getInvalidations());
+        assertEquals(1, statistics.getEntries());
+    }
+
+    @Test
+    void changedDepartureIsSeenAfterRebuildingIndexes() {
+        TransportMap map = RouteTestSupport.createMap();
+        CachedRouteFinder cached = new CachedRouteFinder(map, RouteFinder::new);
+        City start = map.getCity(0, 0);
+        City end = map.getCity(2, 3);
+
+        Path before = cached.findTopNRoutes(start, end, "time", 1).get(0);
+        assertTrue(before.getTotalTravelTime().toMinutes() > 1);
+
+        // Direktan polazak od jednog minuta je najbrža moguća ruta
+        Station from = start.getStations().get(0);
+        Station to = end.getStations().get(0);
+        Departure direct = new Departure("autobus", from.getId(), to.getId(),
+                LocalTime.of(12, 0), LocalTime.of(12, 1), 1.0, Duration.ofMinutes(5));
+        from.addDeparture(direct);
+        map.buildIndexes();
+
+        Path after = cached.findTopNRoutes(start, end, "time", 1).get(0);
+        assertEquals(1, after.getSegments().size());
+        assertSame(direct, after.getSegments().get(0).getDeparture());
+        assertEquals(1, after.getTotalTravelTime().toMinutes());
+        assertEquals(1, cached.getStatistics().getInvalidations());
+    }
+}
@@ -0,0 +1,93 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za {@link CityTransferTable}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class CityTransferTableTest {
+
+    @Test
+    void firstEntryGivesEarliestLocalArrival() {
+        CompiledTimetable timetable = new CompiledTimetable(RouteTestSupport.createSmallMap());
+        CityTransferTable table = new CityTransferTable(timetable);
+        for (int station = 0; station < timetable.stationCount(); station++) {
+            for (int minute = 0; minute < CompiledTimetable.MINUTES_PER_DAY; minute += 7) {
+                int[] arrival = earliestLocalArrival(timetable, table, station, minute);
+                int reachable = 0;
+                for (int other = 0; other < arrival.length; other++) {
+                    if (other != station && arrival[other] != Integer.MAX_VALUE) reachable++;
+                }
+                assertEquals(reachable, table.endTransfer(station) - table.firstTransfer(station));
+                for (int transfer = table.firstTransfer(station); transfer < table.endTransfer(station); transfer++) {
+                    int entry = table.entryAtOrAfter(transfer, minute);
+                    int waiting = Math.floorMod(table.entryMinute(entry) - minute, CompiledTimetable.MINUTES_PER_DAY);
+                    assertEquals(arrival[table.transferTarget(transfer)], minute + waiting + table.entryDuration(entry),
+                            "stanica " + station + ", minuta " + minute);
+                }
+            }
+        }
+    }
+
+    @Test
+    void entriesAreLocalChainsWithTheirDuration() {
+        CompiledTimetable timetable = new CompiledTimetable(RouteTestSupport.createSmallMap());
+        CityTransferTable table = new CityTransferTable(timetable);
+        int localDepartures = 0;
+        for (int d = 0; d < timetable.departureCount(); d++) {
+            if (table.cluster(timetable.departureFrom(d)) == table.cluster(timetable.departureTo(d))) localDepartures++;
+        }
+        assertEquals(localDepartures, table.localDepartureCount());
+
+        for (int station = 0; station < timetable.stationCount(); station++) {
+            for (int transfer = table.firstTransfer(station); transfer < table.endTransfer(station); transfer++) {
+                int target = table.transferTarget(transfer);
+                assertEquals(table.cluster(station), table.cluster(target));
+                for (int minute = 0; minute < CompiledTimetable.MINUTES_PER_DAY; minute += 60) {
+                    int entry = table.entryAtOrAfter(transfer, minute);
+                    int[] departures = table.entryDepartures(entry);
+                    assertTrue(departures.length > 0);
+                    assertEquals(station, timetable.departureFrom(departures[0]));
+                    assertEquals(target, timetable.departureTo(departures[departures.length - 1]));
+                    Path path = timetable.toPath(departures);
+                    assertEquals(table.entryMinute(entry), path.getStartMinute() % CompiledTimetable.MINUTES_PER_DAY);
+                    assertEquals(table.entryDuration(entry), path.getEndMinute() - path.getStartMinute());
+                }
+            }
+        }
+    }
+
+    /**
+     * Računa najranije dolaske sa stanice na stanice njenog grada samo lokalnim polascima.
+     */
+    private static int[] earliestLocalArrival(CompiledTimetable timetable, CityTransferTable table, int source,
+                                              int minute) {
+        int[] arrival = new int[timetable.stationCount()];
+        Arrays.fill(arrival, Integer.MAX_VALUE);
+        arrival[source] = minute;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int d = 0; d < timetable.departureCount(); d++) {
+                int from = timetable.departureFrom(d);
+                int to = timetable.departureTo(d);
+                if (arrival[from] == Integer.MAX_VALUE || table.cluster(from) != table.cluster(to)) continue;
+                int arrivalMinute = timetable.nextDepartureMinute(d, arrival[from]) + timetable.rideMinutes(d);
+                if (arrivalMinute < arrival[to]) {
+                    arrival[to] = arrivalMinute;
+                    changed = true;
+                }
+            }
+        }
+        return arrival;
+    }
+}
@@ -0,0 +1,46 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testovi za {@link ClusteredRouteFinder}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class ClusteredRouteFinderTest {
+
+    @Test
+    void bestRouteMatchesRouteFinder() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        ClusteredRouteFinder clustered = new ClusteredRouteFinder(timetable, routeFinder);
+        List<City[]> pairs = RouteTestSupport.cityPairs(map, 15);
+        pairs.add(new City[]{RouteTestSupport.city(map, 6), RouteTestSupport.city(map, 18)});
+        for (City[] pair : pairs) {
+            assertEquals(
+                    RouteTestSupport.keys(routeFinder.findTopNRoutes(pair[0], pair[1], "time", 1), "time"),
+                    RouteTestSupport.keys(clustered.findTopNRoutes(pair[0], pair[1], "time", 1), "time"),
+                    pair[0].getId() + " -> " + pair[1].getId());
+        }
+    }
+
+    @Test
+    void severalRoutesMatchRouteFinder() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        ClusteredRouteFinder clustered = new ClusteredRouteFinder(timetable, routeFinder);
+        City start = RouteTestSupport.city(map, 6);
+        City end = RouteTestSupport.city(map, 18);
+        assertEquals(
+                RouteTestSupport.keys(routeFinder.findTopNRoutes(start, end, "time", RouteTestSupport.LIMIT), "time"),
+                RouteTestSupport.keys(clustered.findTopNRoutes(start, end, "time", RouteTestSupport.LIMIT), "time"));
+    }
+}
@@ -0,0 +1,134 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za {@link CompiledTimetable}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class CompiledTimetableTest {
+
+    @Test
+    void compiledArraysMatchMap() {
+        TransportMap map = RouteTestSupport.createMap();
+        Station anyStation = map.getStation(RouteTestSupport.city(map, 0).getStations().get(0).getId());
+        Departure dangling = new Departure("autobus", anyStation.getId(), "X_99", LocalTime.of(8, 0),
+                LocalTime.of(9, 0), 1.0, Duration.ZERO);
+        anyStation.addDeparture(dangling);
+        CompiledTimetable timetable = new CompiledTimetable(map);
+
+        assertEquals(map.getAllStations().size(), timetable.stationCount());
+        int departureCount = 0;
+        for (int s = 0; s < timetable.stationCount(); s++) {
+            Station station = timetable.getStation(s);
+            assertEquals(s, timetable.indexOf(station));
+
+            // Polasci stanice bez polaska ka nepostojećoj stanici, rastuće po minuti
+            List<Departure> expected = new ArrayList<>(station.getDepartures());
+            expected.remove(dangling);
+            List<Departure> compiled = new ArrayList<>();
+            for (int d = timetable.firstDeparture(s); d < timetable.endDeparture(s); d++) {
+                Departure departure = timetable.getDeparture(d);
+                compiled.add(departure);
+                assertEquals(s, timetable.departureFrom(d));
+                assertSame(map.getStation(departure.getArrivalStationId()), timetable.getStation(timetable.departureTo(d)));
+                assertEquals(departure.getDepartureTime().toSecondOfDay() / 60, timetable.departureMinute(d));
+                assertEquals(departure.getArrivalTime().toSecondOfDay() / 60, timetable.arrivalMinute(d));
+                assertEquals(Math.floorMod(timetable.arrivalMinute(d) - timetable.departureMinute(d),
+                        CompiledTimetable.MINUTES_PER_DAY), timetable.rideMinutes(d));
+                assertEquals(OptimizationCriterion.toCents(departure.getPrice()), timetable.priceCents(d));
+                assertEquals("voz".equalsIgnoreCase(departure.getType()) ? CompiledTimetable.MODE_TRAIN
+                        : CompiledTimetable.MODE_BUS, timetable.mode(d));
+                if (d > timetable.firstDeparture(s)) {
+                    assertTrue(timetable.departureMinute(d - 1) <= timetable.departureMinute(d));
+                }
+            }
+            assertEquals(expected.size(), compiled.size(), station.getId());
+            assertTrue(compiled.containsAll(expected), station.getId());
+            departureCount += compiled.size();
+        }
+        assertEquals(departureCount, timetable.departureCount());
+
+        // Svaki polazak je tačno jednom u dolaznim polascima svoje dolazne stanice
+        Set<Integer> incoming = new HashSet<>();
+        for (int s = 0; s < timetable.stationCount(); s++) {
+            for (int i = timetable.firstIncoming(s); i < timetable.endIncoming(s); i++) {
+                int d = timetable.incomingDeparture(i);
+                assertEquals(s, timetable.departureTo(d));
+                assertTrue(incoming.add(d));
+                if (i > timetable.firstIncoming(s)) {
+                    assertTrue(timetable.arrivalMinute(timetable.incomingDeparture(i - 1)) <= timetable.arrivalMinute(d));
+                }
+            }
+        }
+        assertEquals(timetable.departureCount(), incoming.size());
+
+        for (int c = 0; c < RouteTestSupport.MAP_SIZE * RouteTestSupport.MAP_SIZE; c++) {
+            City city = RouteTestSupport.city(map, c);
+            int[] expectedStations = map.getStationsInCity(city).stream().mapToInt(timetable::indexOf).sorted().toArray();
+            assertArrayEquals(expectedStations, timetable.stationsInCity(city));
+        }
+    }
+
+    @Test
+    void nextDepartureLookupsMatchLinearScan() {
+        CompiledTimetable timetable = new CompiledTimetable(RouteTestSupport.createMap());
+
+        for (int s = 0; s < timetable.stationCount(); s++) {
+            int first = timetable.firstDeparture(s);
+            int end = timetable.endDeparture(s);
+            for (int minute = 0; minute <= CompiledTimetable.MINUTES_PER_DAY; minute += 7) {
+                int expected = first == end ? -1 : first;
+                for (int d = first; d < end; d++) {
+                    if (timetable.departureMinute(d) >= minute) {
+                        expected = d;
+                        break;
+                    }
+                }
+                assertEquals(expected, timetable.firstDepartureAtOrAfter(s, minute), s + " @ " + minute);
+            }
+
+            // Grupe: jedna po susjednoj stanici, zajedno pokrivaju sve polaske stanice
+            Set<Integer> targets = new HashSet<>();
+            Set<Integer> grouped = new HashSet<>();
+            for (int g = timetable.firstGroup(s); g < timetable.endGroup(s); g++) {
+                assertTrue(targets.add(timetable.groupTarget(g)));
+                assertTrue(timetable.firstInGroup(g) < timetable.endInGroup(g));
+                for (int i = timetable.firstInGroup(g); i < timetable.endInGroup(g); i++) {
+                    int d = timetable.groupedDeparture(i);
+                    assertEquals(timetable.groupTarget(g), timetable.departureTo(d));
+                    assertTrue(grouped.add(d));
+                    if (i > timetable.firstInGroup(g)) {
+                        assertTrue(timetable.departureMinute(timetable.groupedDeparture(i - 1)) <= timetable.departureMinute(d));
+                    }
+                }
+                for (int minute = 0; minute <= CompiledTimetable.MINUTES_PER_DAY; minute += 7) {
+                    int expected = timetable.firstInGroup(g);
+                    for (int i = timetable.firstInGroup(g); i < timetable.endInGroup(g); i++) {
+                        if (timetable.departureMinute(timetable.groupedDeparture(i)) >= minute) {
+                            expected = i;
+                            break;
+                        }
+                    }
+                    assertEquals(expected, timetable.firstInGroupAtOrAfter(g, minute), "grupa " + g + " @ " + minute);
+                }
+            }
+            assertEquals(end - first, grouped.size());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za {@link ConnectionScanRouteFinder}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class ConnectionScanRouteFinderTest {
+
+    /**
+     * Vremena polaska i dolaska za upite, uključujući ona oko ponoći.
+     */
+    private static final LocalTime[] QUERY_TIMES = {
+            LocalTime.of(0, 0), LocalTime.of(7, 30), LocalTime.of(13, 5), LocalTime.of(23, 50)
+    };
+
+    @Test
+    void bestRouteMatchesRouteFinder() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        ConnectionScanRouteFinder connectionScan = new ConnectionScanRouteFinder(timetable, routeFinder);
+        List<City[]> pairs = RouteTestSupport.cityPairs(map, 15);
+        pairs.add(new City[]{RouteTestSupport.city(map, 1), RouteTestSupport.city(map, 32)});
+        for (City[] pair : pairs) {
+            assertEquals(
+                    RouteTestSupport.keys(routeFinder.findTopNRoutes(pair[0], pair[1], "time", 1), "time"),
+                    RouteTestSupport.keys(connectionScan.findTopNRoutes(pair[0], pair[1], "time", 1), "time"),
+                    pair[0].getId() + " -> " + pair[1].getId());
+        }
+    }
+
+    @Test
+    void severalRoutesMatchRouteFinder() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        ConnectionScanRouteFinder connectionScan = new ConnectionScanRouteFinder(timetable, routeFinder);
+        City start = RouteTestSupport.city(map, 1);
+        City end = RouteTestSupport.city(map, 32);
+        assertEquals(
+                RouteTestSupport.keys(routeFinder.findTopNRoutes(start, end, "time", RouteTestSupport.LIMIT), "time"),
+                RouteTestSupport.keys(connectionScan.findTopNRoutes(start, end, "time", RouteTestSupport.LIMIT), "time"));
+    }
+
+    @Test
+    void profileGivesEarliestArrivalForEveryMinute() {
+        TransportMap map = RouteTestSupport.createSmallMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        ConnectionScanRouteFinder connectionScan = new ConnectionScanRouteFinder(timetable);
+        for (City[] pair : RouteTestSupport.smallMapPairs(map)) {
+            JourneyProfile profile = connectionScan.findProfile(pair[0], pair[1]);
+            assertFalse(profile.isEmpty());
+            for (int minute = 0; minute < CompiledTimetable.MINUTES_PER_DAY; minute++) {
+                int arrival = RouteTestSupport.bruteForceEarliestArrival(timetable, pair[0], pair[1], minute);
+                assertEquals(arrival - minute,
+                        profile.getDurationUntilArrival(LocalTime.of(minute / 60, minute % 60)).toMinutes(),
+                        pair[0].getId() + " -> " + pair[1].getId() + " at " + minute);
+            }
+        }
+    }
+
+    @Test
+    void departingAfterReturnsEarliestArrivalForEachNextDeparture() {
+        TransportMap map = RouteTestSupport.createSmallMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        ConnectionScanRouteFinder connectionScan = new ConnectionScanRouteFinder(timetable);
+        for (City[] pair : RouteTestSupport.smallMapPairs(map)) {
+            for (LocalTime time : QUERY_TIMES) {
+                List<Path> journeys = connectionScan.findDepartingAfter(pair[0], pair[1], time, RouteTestSupport.LIMIT);
+                assertEquals(RouteTestSupport.LIMIT, journeys.size());
+                int earliest = time.getHour() * 60 + time.getMinute();
+                for (Path journey : journeys) {
+                    String query = pair[0].getId() + " -> " + pair[1].getId() + " after " + earliest;
+                    int departure = earliest + Math.floorMod(journey.getStartMinute() - earliest,
+                            CompiledTimetable.MINUTES_PER_DAY);
+                    assertEquals(RouteTestSupport.bruteForceEarliestArrival(timetable, pair[0], pair[1], earliest),
+                            departure + journey.getEndMinute() - journey.getStartMinute(), query);
+                    earliest = departure + 1;
+                }
+            }
+        }
+    }
+
+    @Test
+    void arrivingByReturnsLatestDepartureForEachEarlierArrival() {
+        TransportMap map = RouteTestSupport.createSmallMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        ConnectionScanRouteFinder connectionScan = new ConnectionScanRouteFinder(timetable);
+        for (City[] pair : RouteTestSupport.smallMapPairs(map)) {
+            for (LocalTime time : QUERY_TIMES) {
+                List<Path> journeys = connectionScan.findArrivingBy(pair[0], pair[1], time, RouteTestSupport.LIMIT);
+                assertEquals(RouteTestSupport.LIMIT, journeys.size());
+                int latest = time.getHour() * 60 + time.getMinute();
+                for (Path journey : journeys) {
+                    String query = pair[0].getId() + " -> " + pair[1].getId() + " by " + latest;
+                    int departure = RouteTestSupport.bruteForceLatestDeparture(timetable, pair[0], pair[1], latest);
+                    assertEquals(Math.floorMod(departure, CompiledTimetable.MINUTES_PER_DAY),
+                            journey.getStartMinute() % CompiledTimetable.MINUTES_PER_DAY, query);
+                    int arrival = departure + journey.getEndMinute() - journey.getStartMinute();
+                    assertTrue(arrival <= latest, query);
+                    latest = arrival - 1;
+                }
+            }
+        }
+    }
+}
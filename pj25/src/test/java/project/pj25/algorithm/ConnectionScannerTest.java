@@ -0,0 +1,76 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Testovi za {@link ConnectionScanner} i {@link VectorConnectionScanner}.
+ * <p>
+ * Vektorski skener se prevodi i pokreće samo uz Maven profil {@code vector}
+ * ({@code mvn -Pvector test}), koji postavlja i svojstvo {@code pj25.vector}; bez
+ * profila se poređenje sa skalarnim skenerom preskače.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class ConnectionScannerTest {
+
+    @Test
+    void vectorScannerMatchesScalar() {
+        assumeTrue(Boolean.getBoolean("pj25.vector"), "Vektorski skener se testira uz profil \"vector\"");
+        Random random = new Random(11);
+        int stationCount = 40;
+        int count = 1000;
+        int[] from = new int[count];
+        int[] to = new int[count];
+        int[] minute = new int[count];
+        int[] duration = new int[count];
+        for (int i = 0; i < count; i++) {
+            from[i] = random.nextInt(stationCount);
+            to[i] = random.nextInt(stationCount);
+            minute[i] = i * CompiledTimetable.MINUTES_PER_DAY / count;
+            duration[i] = 1 + random.nextInt(120);
+        }
+        ConnectionScanner scalar = ConnectionScanner.create(from, to, minute, duration, false);
+        ConnectionScanner vector = ConnectionScanner.create(from, to, minute, duration, true);
+        assertTrue(vector.isVectorized());
+
+        int[] arrival = new int[stationCount];
+        for (int round = 0; round < 500; round++) {
+            for (int s = 0; s < stationCount; s++) {
+                // Većina stanica nedostignuta, pa blokovi bez kandidata bivaju preskočeni
+                arrival[s] = random.nextInt(4) == 0 ? random.nextInt(3 * CompiledTimetable.MINUTES_PER_DAY) : Integer.MAX_VALUE;
+            }
+            int start = random.nextInt(count);
+            int end = start + random.nextInt(count - start + 1);
+            int dayOffset = random.nextInt(2) * CompiledTimetable.MINUTES_PER_DAY;
+            assertEquals(scalar.nextImproving(start, end, dayOffset, arrival),
+                    vector.nextImproving(start, end, dayOffset, arrival),
+                    "opseg [" + start + ", " + end + "), pomak " + dayOffset);
+        }
+    }
+
+    @Test
+    void vectorizedRouteFinderMatchesScalar() {
+        assumeTrue(Boolean.getBoolean("pj25.vector"), "Vektorski skener se testira uz profil \"vector\"");
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        ConnectionScanRouteFinder scalar = new ConnectionScanRouteFinder(timetable, routeFinder, false);
+        ConnectionScanRouteFinder vector = new ConnectionScanRouteFinder(timetable, routeFinder, true);
+        assertTrue(vector.isVectorized());
+        for (City[] pair : RouteTestSupport.cityPairs(map, 15)) {
+            assertEquals(
+                    RouteTestSupport.keys(scalar.findTopNRoutes(pair[0], pair[1], "time", 1), "time"),
+                    RouteTestSupport.keys(vector.findTopNRoutes(pair[0], pair[1], "time", 1), "time"),
+                    pair[0].getId() + " -> " + pair[1].getId());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testovi za {@link DeltaSteppingCompletionRouteFinder}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class DeltaSteppingCompletionRouteFinderTest {
+
+    @Test
+    void returnsSameKeysAsRouteFinder() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            DeltaSteppingCompletionRouteFinder deltaStepping = new DeltaSteppingCompletionRouteFinder(timetable, pool);
+            for (City[] pair : RouteTestSupport.cityPairs(map, 10)) {
+                for (String criterion : RouteTestSupport.CRITERIA) {
+                    assertEquals(
+                            RouteTestSupport.keys(routeFinder.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion),
+                            RouteTestSupport.keys(deltaStepping.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion),
+                            criterion + " " + pair[0].getId() + " -> " + pair[1].getId());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za {@link IndexedLongHeap}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class IndexedLongHeapTest {
+
+    @Test
+    void decreaseKeyMovesElementForward() {
+        IndexedLongHeap heap = new IndexedLongHeap(4);
+        heap.insert(0, 50);
+        heap.insert(1, 40);
+        heap.insert(2, 30);
+        heap.decreaseKey(0, 10);
+        assertEquals(10, heap.keyOf(0));
+
+        assertFalse(heap.insertOrDecrease(1, 45));
+        assertTrue(heap.insertOrDecrease(1, 20));
+        assertTrue(heap.insertOrDecrease(3, 25));
+
+        assertEquals(0, heap.poll());
+        assertEquals(1, heap.poll());
+        assertEquals(3, heap.poll());
+        assertEquals(2, heap.poll());
+        assertTrue(heap.isEmpty());
+        assertThrows(NoSuchElementException.class, heap::poll);
+    }
+
+    @Test
+    void equalKeysLeaveInIdentifierOrder() {
+        IndexedLongHeap heap = new IndexedLongHeap(16);
+        for (int id : new int[]{7, 3, 11, 0, 5}) {
+            heap.insert(id, 42);
+        }
+        heap.insert(9, 50);
+        heap.decreaseKey(9, 42);
+        for (int expected : new int[]{0, 3, 5, 7, 9, 11}) {
+            assertEquals(expected, heap.poll());
+        }
+    }
+
+    @Test
+    void growsForLargeIdentifiersAndMatchesSortedOrder() {
+        IndexedLongHeap heap = new IndexedLongHeap(1);
+        Random random = new Random(5);
+        int count = 5000;
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            // Identifikatori unazad, pa prvi umetnuti odmah prelazi početni kapacitet
+            int id = count - 1 - i;
+            keys[id] = random.nextInt(1000);
+            heap.insert(id, keys[id]);
+        }
+        for (int id = 0; id < count; id += 3) {
+            keys[id] -= random.nextInt(500);
+            heap.decreaseKey(id, keys[id]);
+        }
+        assertEquals(count, heap.size());
+
+        long previousKey = Long.MIN_VALUE;
+        int previousId = -1;
+        while (!heap.isEmpty()) {
+            int id = heap.poll();
+            assertTrue(keys[id] > previousKey || (keys[id] == previousKey && id > previousId));
+            previousKey = keys[id];
+            previousId = id;
+        }
+    }
+
+    @Test
+    void rejectsInvalidOperationsAndClears() {
+        IndexedLongHeap heap = new IndexedLongHeap(16);
+        heap.insert(1, 10);
+        assertThrows(IllegalArgumentException.class, () -> heap.insert(1, 5));
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 11));
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(2, 1));
+
+        heap.insert(2, 20);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(1));
+        heap.insert(1, 3);
+        assertEquals(1, heap.peek());
+    }
+}
@@ -0,0 +1,126 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za {@link KShortestRouteFinder}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class KShortestRouteFinderTest {
+
+    @Test
+    void returnsSameKeysAsRouteFinder() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        KShortestRouteFinder kShortest = new KShortestRouteFinder(timetable);
+        for (City[] pair : RouteTestSupport.cityPairs(map, 10)) {
+            for (String criterion : RouteTestSupport.CRITERIA) {
+                assertEquals(
+                        RouteTestSupport.keys(routeFinder.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion),
+                        RouteTestSupport.keys(kShortest.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion),
+                        criterion + " " + pair[0].getId() + " -> " + pair[1].getId());
+            }
+        }
+    }
+
+    @Test
+    void matchesExhaustiveSearchOnSmallMap() {
+        TransportMap map = RouteTestSupport.createSmallMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        KShortestRouteFinder kShortest = new KShortestRouteFinder(timetable);
+        for (City[] pair : RouteTestSupport.smallMapPairs(map)) {
+            for (String criterion : RouteTestSupport.CRITERIA) {
+                List<Long> keys = RouteTestSupport.keys(
+                        kShortest.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion);
+                assertEquals(RouteTestSupport.LIMIT, keys.size());
+                assertEquals(
+                        RouteTestSupport.bruteForceTopKeys(timetable, pair[0], pair[1],
+                                OptimizationCriterion.fromName(criterion), RouteTestSupport.LIMIT, keys.get(keys.size() - 1)),
+                        keys,
+                        criterion + " " + pair[0].getId() + " -> " + pair[1].getId());
+            }
+        }
+    }
+
+    @Test
+    void concurrentQueriesToDifferentDestinationsMatchRouteFinder() throws Exception {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        KShortestRouteFinder kShortest = new KShortestRouteFinder(timetable);
+        List<City[]> pairs = RouteTestSupport.cityPairs(map, 12);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Long>>> results = new ArrayList<>();
+            for (int round = 0; round < 3; round++) {
+                for (City[] pair : pairs) {
+                    results.add(executor.submit(() -> RouteTestSupport.keys(
+                            kShortest.findTopNRoutes(pair[0], pair[1], "time", RouteTestSupport.LIMIT), "time")));
+                }
+            }
+            for (int i = 0; i < results.size(); i++) {
+                City[] pair = pairs.get(i % pairs.size());
+                assertEquals(
+                        RouteTestSupport.keys(routeFinder.findTopNRoutes(pair[0], pair[1], "time", RouteTestSupport.LIMIT), "time"),
+                        results.get(i).get(),
+                        pair[0].getId() + " -> " + pair[1].getId());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void expiredDeadlineStopsCompletionAndIsNotCached() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        AtomicInteger completedComputations = new AtomicInteger();
+        KShortestRouteFinder kShortest = new KShortestRouteFinder(timetable) {
+            @Override
+            Completion computeCompletion(City endCity, OptimizationCriterion criterion, long deadlineNanos) {
+                Completion completion = super.computeCompletion(endCity, criterion, deadlineNanos);
+                if (completion != null) {
+                    completedComputations.incrementAndGet();
+                }
+                return completion;
+            }
+        };
+        City start = map.getCity(0, 0);
+        City end = map.getCity(2, 3);
+
+        // Rok je istekao prije računanja nastavaka, pa se ni nastavci ni pretraga ne završavaju
+        RouteSearchResult expired = kShortest.findTopNRoutes(start, end, "time", RouteTestSupport.LIMIT,
+                SearchBudget.ofTime(Duration.ZERO));
+        assertFalse(expired.isOptimal());
+        assertTrue(expired.getRoutes().isEmpty());
+        assertEquals(0, expired.getStatistics().getPolledLabels());
+        assertEquals(0, completedComputations.get());
+
+        // Prekinuti nastavci nisu sačuvani, pa naredni upit bez roka daje tačan rezultat
+        RouteSearchResult unlimited = kShortest.findTopNRoutes(start, end, "time", RouteTestSupport.LIMIT,
+                SearchBudget.unlimited());
+        assertTrue(unlimited.isOptimal());
+        assertEquals(1, completedComputations.get());
+        assertEquals(
+                RouteTestSupport.keys(routeFinder.findTopNRoutes(start, end, "time", RouteTestSupport.LIMIT), "time"),
+                RouteTestSupport.keys(unlimited.getRoutes(), "time"));
+    }
+}
@@ -0,0 +1,76 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za {@link ParallelRouteFinder}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class ParallelRouteFinderTest {
+
+    @Test
+    void returnsSameKeysAsSequentialSearch() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelRouteFinder parallel = new ParallelRouteFinder(new RouteFinder(timetable), pool);
+            for (City[] pair : RouteTestSupport.cityPairs(map, 10)) {
+                for (String criterion : RouteTestSupport.CRITERIA) {
+                    assertEquals(
+                            RouteTestSupport.keys(routeFinder.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion),
+                            RouteTestSupport.keys(parallel.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion),
+                            criterion + " " + pair[0].getId() + " -> " + pair[1].getId());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void breaksTiesByExactCentsAndTransfers() {
+        TransportMap map = RouteTestSupport.createRoundingMap();
+        ParallelRouteFinder parallel = new ParallelRouteFinder(new RouteFinder(map));
+        List<Path> routes = parallel.findTopNRoutes(map.getCity(0, 0), map.getCity(0, 2), "time", RouteTestSupport.LIMIT);
+
+        assertEquals(2, routes.size());
+        assertEquals(0, routes.get(0).getTransfers());
+        assertEquals(1, routes.get(1).getTransfers());
+    }
+
+    @Test
+    void labelBudgetIsSharedBetweenSubSearches() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        ParallelRouteFinder parallel = new ParallelRouteFinder(new RouteFinder(timetable));
+        for (City[] pair : RouteTestSupport.cityPairs(map, 5)) {
+            int sourceCount = timetable.stationsInCity(pair[0]).length;
+            long labelLimit = 10L * sourceCount + 1;
+            RouteSearchResult result = parallel.findTopNRoutes(pair[0], pair[1], "time",
+                    RouteTestSupport.LIMIT, SearchBudget.ofLabels(labelLimit));
+            String query = pair[0].getId() + " -> " + pair[1].getId();
+            assertFalse(result.isOptimal(), query);
+            assertTrue(result.getStatistics().getPolledLabels() <= labelLimit, query);
+        }
+
+        SearchBudget budget = SearchBudget.ofLabels(10);
+        long total = 0;
+        for (int index = 0; index < 3; index++) {
+            total += ParallelRouteFinder.labelShare(budget, 3, index).getLabelLimit();
+        }
+        assertEquals(10, total);
+        assertEquals(1, ParallelRouteFinder.labelShare(SearchBudget.ofLabels(2), 3, 2).getLabelLimit());
+    }
+}
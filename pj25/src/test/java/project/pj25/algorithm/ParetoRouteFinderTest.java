@@ -0,0 +1,60 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Testovi za {@link ParetoRouteFinder}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class ParetoRouteFinderTest {
+
+    @Test
+    void noReturnedRouteIsDominated() {
+        TransportMap map = RouteTestSupport.createMap();
+        ParetoRouteFinder pareto = new ParetoRouteFinder(map);
+        for (City[] pair : RouteTestSupport.cityPairs(map, 15)) {
+            List<Path> routes = pareto.findParetoRoutes(pair[0], pair[1]);
+            for (Path route : routes) {
+                for (Path other : routes) {
+                    // Ni ista ruta po sva tri kriterijuma ne smije biti vraćena dvaput
+                    assertFalse(route != other && dominates(other, route),
+                            pair[0].getId() + " -> " + pair[1].getId() + ": " + other + " dominira " + route);
+                }
+            }
+        }
+    }
+
+    @Test
+    void bestRankedRouteMatchesRouteFinder() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        ParetoRouteFinder pareto = new ParetoRouteFinder(timetable);
+        for (City[] pair : RouteTestSupport.cityPairs(map, 10)) {
+            List<Path> front = pareto.findParetoRoutes(pair[0], pair[1]);
+            for (String criterion : RouteTestSupport.CRITERIA) {
+                assertEquals(
+                        RouteTestSupport.keys(routeFinder.findTopNRoutes(pair[0], pair[1], criterion, 1), criterion),
+                        RouteTestSupport.keys(ParetoRouteFinder.rankRoutes(front, criterion, 1), criterion),
+                        pair[0].getId() + " -> " + pair[1].getId() + " po " + criterion);
+            }
+        }
+    }
+
+    /**
+     * Provjerava da li ruta nije lošija od druge ni po jednom kriterijumu.
+     */
+    private static boolean dominates(Path route, Path other) {
+        return route.getTotalTravelTime().compareTo(other.getTotalTravelTime()) <= 0
+                && Math.round(route.getTotalCost() * 100) <= Math.round(other.getTotalCost() * 100)
+                && route.getSegments().size() <= other.getSegments().size();
+    }
+}
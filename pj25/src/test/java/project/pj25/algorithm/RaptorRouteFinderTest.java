@@ -0,0 +1,50 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.data.TransportDataGenerator;
+import project.pj25.model.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testovi za {@link RaptorRouteFinder}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class RaptorRouteFinderTest {
+
+    @Test
+    void bestRouteMatchesRouteFinder() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        RaptorRouteFinder raptor = new RaptorRouteFinder(timetable, routeFinder);
+        List<City[]> pairs = RouteTestSupport.cityPairs(map, 15);
+        pairs.add(new City[]{RouteTestSupport.city(map, 11), RouteTestSupport.city(map, 14)});
+        for (City[] pair : pairs) {
+            assertEquals(
+                    RouteTestSupport.keys(routeFinder.findTopNRoutes(pair[0], pair[1], "transfers", 1), "transfers"),
+                    RouteTestSupport.keys(raptor.findTopNRoutes(pair[0], pair[1], "transfers", 1), "transfers"),
+                    pair[0].getId() + " -> " + pair[1].getId());
+        }
+    }
+
+    @Test
+    void severalRoutesMatchRouteFinder() {
+        TransportMap map = new TransportDataGenerator(8, 8, 3).generateData();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        RaptorRouteFinder raptor = new RaptorRouteFinder(timetable, routeFinder);
+        City start = map.getCity(5, 4);
+        City end = map.getCity(0, 6);
+        for (int limit : new int[]{1, RouteTestSupport.LIMIT}) {
+            assertEquals(
+                    RouteTestSupport.keys(routeFinder.findTopNRoutes(start, end, "transfers", limit), "transfers"),
+                    RouteTestSupport.keys(raptor.findTopNRoutes(start, end, "transfers", limit), "transfers"),
+                    "limit " + limit);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za {@link RouteFinder}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class RouteFinderTest {
+
+    @Test
+    void matchesExhaustiveSearchOnSmallMap() {
+        TransportMap map = RouteTestSupport.createSmallMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        for (City[] pair : RouteTestSupport.smallMapPairs(map)) {
+            for (String criterion : RouteTestSupport.CRITERIA) {
+                List<Long> keys = RouteTestSupport.keys(
+                        routeFinder.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion);
+                assertEquals(RouteTestSupport.LIMIT, keys.size());
+                assertEquals(
+                        RouteTestSupport.bruteForceTopKeys(timetable, pair[0], pair[1],
+                                OptimizationCriterion.fromName(criterion), RouteTestSupport.LIMIT, keys.get(keys.size() - 1)),
+                        keys,
+                        criterion + " " + pair[0].getId() + " -> " + pair[1].getId());
+            }
+        }
+    }
+
+    @Test
+    void stopsOnceTopRoutesAreSettled() {
+        TransportMap map = RouteTestSupport.createMap();
+        RouteFinder routeFinder = new RouteFinder(new CompiledTimetable(map));
+        for (City[] pair : RouteTestSupport.cityPairs(map, 5)) {
+            for (String criterion : RouteTestSupport.CRITERIA) {
+                RouteSearchResult result = routeFinder.findTopNRoutes(pair[0], pair[1], criterion,
+                        RouteTestSupport.LIMIT, SearchBudget.unlimited());
+                assertTrue(result.isOptimal());
+                assertEquals(RouteTestSupport.LIMIT, result.getRoutes().size());
+                assertTrue(result.getStatistics().isTerminatedEarly(),
+                        criterion + " " + pair[0].getId() + " -> " + pair[1].getId());
+            }
+        }
+    }
+
+    @Test
+    void dropsDominatedLabelsWithoutChangingResult() {
+        TransportMap map = RouteTestSupport.createSmallMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        for (City[] pair : RouteTestSupport.smallMapPairs(map)) {
+            for (String criterion : RouteTestSupport.CRITERIA) {
+                RouteSearchResult result = routeFinder.findTopNRoutes(pair[0], pair[1], criterion,
+                        RouteTestSupport.LIMIT, SearchBudget.unlimited());
+                String query = criterion + " " + pair[0].getId() + " -> " + pair[1].getId();
+                assertTrue(result.getStatistics().getDominatedLabels() > 0, query);
+                List<Long> keys = RouteTestSupport.keys(result.getRoutes(), criterion);
+                assertEquals(
+                        RouteTestSupport.bruteForceTopKeys(timetable, pair[0], pair[1],
+                                OptimizationCriterion.fromName(criterion), RouteTestSupport.LIMIT, keys.get(keys.size() - 1)),
+                        keys, query);
+            }
+        }
+    }
+
+    @Test
+    void exhaustedBudgetReturnsBestRoutesFoundSoFar() {
+        TransportMap map = RouteTestSupport.createMap();
+        RouteFinder routeFinder = new RouteFinder(new CompiledTimetable(map));
+        int partialResults = 0;
+        for (City[] pair : RouteTestSupport.cityPairs(map, 5)) {
+            for (String criterion : RouteTestSupport.CRITERIA) {
+                List<Long> optimal = RouteTestSupport.keys(
+                        routeFinder.findTopNRoutes(pair[0], pair[1], criterion, RouteTestSupport.LIMIT), criterion);
+                for (long labelLimit : new long[]{1, 50, 500}) {
+                    RouteSearchResult result = routeFinder.findTopNRoutes(pair[0], pair[1], criterion,
+                            RouteTestSupport.LIMIT, SearchBudget.ofLabels(labelLimit));
+                    String query = criterion + " " + pair[0].getId() + " -> " + pair[1].getId() + ", " + labelLimit;
+                    if (result.isOptimal()) {
+                        assertEquals(optimal, RouteTestSupport.keys(result.getRoutes(), criterion), query);
+                        continue;
+                    }
+                    // Oznake se obrađuju redom ključeva, pa su pronađene rute prve rute optimalnog rezultata
+                    List<Long> keys = RouteTestSupport.keys(result.getRoutes(), criterion);
+                    assertTrue(keys.size() < optimal.size(), query);
+                    assertEquals(optimal.subList(0, keys.size()), keys, query);
+                    assertFalse(result.getStatistics().isTerminatedEarly(), query);
+                    if (!keys.isEmpty()) {
+                        partialResults++;
+                    }
+                }
+            }
+        }
+        assertTrue(partialResults > 0);
+    }
+}
@@ -0,0 +1,120 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za apsolutne minute u {@link RouteSegment}, {@link Path} i
+ * {@link CompiledTimetable}, kod putovanja koja traju više dana.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class RouteSegmentTest {
+
+    private static final int DAY = CompiledTimetable.MINUTES_PER_DAY;
+
+    private final City first = city(0);
+    private final City second = city(1);
+    private final BusStation from = new BusStation("A_0", first);
+    private final BusStation to = new BusStation("A_1", second);
+
+    @Test
+    void overnightSegmentArrivesNextDay() {
+        RouteSegment segment = new RouteSegment(departure(LocalTime.of(23, 0), LocalTime.of(1, 0)), from, to,
+                LocalTime.of(23, 0), LocalTime.of(1, 0));
+
+        assertEquals(23 * 60, segment.getDepartureMinute());
+        assertEquals(DAY + 60, segment.getArrivalMinute());
+        assertEquals(0, segment.getDepartureDay());
+        assertEquals(1, segment.getArrivalDay());
+        assertEquals(Duration.ofHours(2), segment.getSegmentDuration());
+        assertThrows(IllegalArgumentException.class,
+                () -> new RouteSegment(segment.getDeparture(), from, to, 100, 99));
+    }
+
+    @Test
+    void atOrAfterShiftsByWholeDays() {
+        RouteSegment segment = new RouteSegment(departure(LocalTime.of(8, 0), LocalTime.of(9, 0)), from, to, 480, 540);
+
+        assertSame(segment, segment.atOrAfter(480));
+        assertSame(segment, segment.atOrAfter(0));
+        RouteSegment nextDay = segment.atOrAfter(481);
+        assertEquals(DAY + 480, nextDay.getDepartureMinute());
+        assertEquals(DAY + 540, nextDay.getArrivalMinute());
+        assertEquals(LocalTime.of(8, 0), nextDay.getActualDepartureTime());
+        assertEquals(2 * DAY + 480, segment.atOrAfter(2 * DAY + 480).getDepartureMinute());
+        assertEquals(3 * DAY + 480, segment.atOrAfter(2 * DAY + 481).getDepartureMinute());
+    }
+
+    @Test
+    void pathWaitsForNextDayDeparture() {
+        Path path = new Path();
+        path.addSegment(new RouteSegment(departure(LocalTime.of(22, 0), LocalTime.of(23, 30)), from, to,
+                LocalTime.of(22, 0), LocalTime.of(23, 30)));
+        path.addSegment(new RouteSegment(departure(LocalTime.of(8, 0), LocalTime.of(9, 0)), to, from,
+                LocalTime.of(8, 0), LocalTime.of(9, 0)));
+
+        assertEquals(22 * 60, path.getStartMinute());
+        assertEquals(DAY + 9 * 60, path.getEndMinute());
+        assertEquals(1, path.getArrivalDayOffset());
+        assertEquals(Duration.ofHours(11), path.getTotalTravelTime());
+        assertEquals(1, path.getSegments().get(1).getDepartureDay());
+        assertTrue(path.toString().contains("Dolazak: 09:00 (+1 dan)"), path.toString());
+        assertTrue(path.toString().contains("Čekanje na presjedanje: 8č 30min"), path.toString());
+    }
+
+    @Test
+    void formatsDayOffset() {
+        assertEquals("08:30", RouteSegment.formatTime(LocalTime.of(8, 30), 0));
+        assertEquals("08:30 (+1 dan)", RouteSegment.formatTime(LocalTime.of(8, 30), 1));
+        assertEquals("23:05 (+2 dan)", RouteSegment.formatTime(LocalTime.of(23, 5), 2));
+    }
+
+    @Test
+    void nextDepartureSkipsDaysWithoutService() {
+        TransportMap map = new TransportMap(1, 2);
+        map.addCity(0, 0, first);
+        map.addCity(0, 1, second);
+        first.addStation(from);
+        second.addStation(to);
+        map.addStation(from);
+        map.addStation(to);
+        // Srijeda je bit 2 (bit 0 je ponedjeljak)
+        from.addDeparture(new Departure("autobus", "A_0", "A_1", LocalTime.of(8, 0), LocalTime.of(9, 0),
+                1.0, Duration.ZERO, 1 << 2));
+        to.addDeparture(new Departure("autobus", "A_1", "A_0", LocalTime.of(8, 0), LocalTime.of(9, 0),
+                1.0, Duration.ZERO, 0));
+        map.buildIndexes();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        int wednesday = timetable.firstDeparture(timetable.indexOf(from));
+        int never = timetable.firstDeparture(timetable.indexOf(to));
+
+        assertFalse(timetable.isDaily());
+        assertEquals(480, timetable.nextDepartureMinute(wednesday, 0));
+        // Putovanje počinje u ponedjeljak
+        assertEquals(2 * DAY + 480, timetable.nextDepartureMinute(wednesday, 0, 0));
+        assertEquals(480, timetable.nextDepartureMinute(wednesday, 0, 2));
+        assertEquals(9 * DAY + 480, timetable.nextDepartureMinute(wednesday, 2 * DAY + 481, 0));
+        assertEquals(-1, timetable.nextDepartureMinute(never, 0, 0));
+    }
+
+    private static City city(int y) {
+        City city = new City(y, 0, y);
+        city.setName("G_0_" + y);
+        return city;
+    }
+
+    private static Departure departure(LocalTime departureTime, LocalTime arrivalTime) {
+        return new Departure("autobus", "A_0", "A_1", departureTime, arrivalTime, 1.0, Duration.ZERO);
+    }
+}
@@ -0,0 +1,366 @@
+package project.pj25.algorithm;
+
+import project.pj25.data.TransportDataGenerator;
+import project.pj25.model.*;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Zajednički podaci i pomoćne metode za testove algoritama pretrage.
+ * <p>
+ * Testovi koriste malu mapu generisanu sa fiksnim sjemenom, pa su rezultati isti pri
+ * svakom pokretanju, i porede rute po pakovanom ključu kriterijuma.
+ * </p>
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+final class RouteTestSupport {
+
+    /**
+     * Broj redova i kolona testne mape.
+     */
+    static final int MAP_SIZE = 6;
+
+    /**
+     * Sjeme generatora testne mape.
+     */
+    static final long MAP_SEED = 42;
+
+    /**
+     * Broj ruta koje se traže u testovima.
+     */
+    static final int LIMIT = 5;
+
+    /**
+     * Svi kriterijumi optimizacije.
+     */
+    static final String[] CRITERIA = {"time", "price", "transfers"};
+
+    private RouteTestSupport() {
+    }
+
+    /**
+     * Generiše testnu mapu; svaki poziv vraća novu, istu mapu.
+     *
+     * @return Transportna mapa veličine {@link #MAP_SIZE} x {@link #MAP_SIZE}.
+     */
+    static TransportMap createMap() {
+        return new TransportDataGenerator(MAP_SIZE, MAP_SIZE, MAP_SEED).generateData();
+    }
+
+    /**
+     * Vraća grad testne mape po rednom broju ({@code x * MAP_SIZE + y}).
+     *
+     * @param map Mapa dobijena metodom {@link #createMap()}.
+     * @param id Redni broj grada.
+     * @return Grad sa tim rednim brojem.
+     */
+    static City city(TransportMap map, int id) {
+        return map.getCity(id / MAP_SIZE, id % MAP_SIZE);
+    }
+
+    /**
+     * Generiše malu mapu 2 x 3 za poređenje sa iscrpnom pretragom.
+     *
+     * @return Transportna mapa sa šest gradova.
+     */
+    static TransportMap createSmallMap() {
+        return new TransportDataGenerator(2, 3, MAP_SEED).generateData();
+    }
+
+    /**
+     * Vraća fiksne parove gradova male mape, od susjednih do najudaljenijih.
+     *
+     * @param map Mapa dobijena metodom {@link #createSmallMap()}.
+     * @return Lista parova {početni grad, odredišni grad}.
+     */
+    static List<City[]> smallMapPairs(TransportMap map) {
+        int[][] pairs = {{0, 0, 1, 2}, {1, 2, 0, 0}, {0, 1, 1, 1}, {1, 0, 0, 2}};
+        List<City[]> cities = new ArrayList<>();
+        for (int[] pair : pairs) {
+            cities.add(new City[]{map.getCity(pair[0], pair[1]), map.getCity(pair[2], pair[3])});
+        }
+        return cities;
+    }
+
+    /**
+     * Kreira mapu 1 x 3 sa dvije rute istog trajanja i iste cijene u feninzima između
+     * gradova (0, 0) i (0, 2): direktnom vožnjom sa stanice {@code A_0} za 0,80 KM i
+     * vožnjom sa stanice {@code A_1} preko grada (0, 1) za 0,70 + 0,10 KM. Zbir cijena
+     * druge rute u {@code double} aritmetici je manji od 0,80, pa poređenje po
+     * {@code double} cijeni stavlja rutu sa presjedanjem ispred direktne.
+     *
+     * @return Transportna mapa.
+     */
+    static TransportMap createRoundingMap() {
+        TransportMap map = new TransportMap(1, 3);
+        List<BusStation> stations = new ArrayList<>();
+        String[] ids = {"A_0", "A_1", "M_0", "E_0"};
+        int[] columns = {0, 0, 1, 2};
+        for (int y = 0; y < 3; y++) {
+            map.addCity(0, y, new City(y, 0, y));
+        }
+        for (int i = 0; i < ids.length; i++) {
+            City city = map.getCity(0, columns[i]);
+            BusStation station = new BusStation(ids[i], city);
+            city.addStation(station);
+            map.addStation(station);
+            stations.add(station);
+        }
+        stations.get(0).addDeparture(departure("A_0", "E_0", LocalTime.of(8, 0), LocalTime.of(9, 0), 0.8));
+        stations.get(1).addDeparture(departure("A_1", "M_0", LocalTime.of(8, 0), LocalTime.of(8, 30), 0.7));
+        stations.get(2).addDeparture(departure("M_0", "E_0", LocalTime.of(8, 30), LocalTime.of(9, 0), 0.1));
+        map.buildIndexes();
+        return map;
+    }
+
+    /**
+     * Kreira autobuski polazak bez minimalnog vremena presjedanja.
+     */
+    private static Departure departure(String from, String to, LocalTime departureTime, LocalTime arrivalTime,
+                                       double price) {
+        return new Departure("autobus", from, to, departureTime, arrivalTime, price, Duration.ZERO);
+    }
+
+    /**
+     * Bira fiksne parove različitih gradova za upite.
+     *
+     * @param map Transportna mapa.
+     * @param count Broj parova.
+     * @return Lista parova {početni grad, odredišni grad}.
+     */
+    static List<City[]> cityPairs(TransportMap map, int count) {
+        Random random = new Random(7);
+        List<City[]> pairs = new ArrayList<>();
+        while (pairs.size() < count) {
+            City start = map.getCity(random.nextInt(MAP_SIZE), random.nextInt(MAP_SIZE));
+            City end = map.getCity(random.nextInt(MAP_SIZE), random.nextInt(MAP_SIZE));
+            if (start != end) {
+                pairs.add(new City[]{start, end});
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Vraća pakovane ključeve ruta, redoslijedom iz liste.
+     *
+     * @param routes Rute.
+     * @param criterion Kriterijum optimizacije.
+     * @return Lista ključeva.
+     */
+    static List<Long> keys(List<Path> routes, String criterion) {
+        OptimizationCriterion optimizationCriterion = OptimizationCriterion.fromName(criterion);
+        List<Long> keys = new ArrayList<>();
+        for (Path path : routes) {
+            keys.add(optimizationCriterion.keyOf(path));
+        }
+        return keys;
+    }
+
+    /**
+     * Iscrpnom pretragom svih nizova polazaka od početnog do odredišnog grada vraća
+     * najmanjih N ključeva, po pravilima {@link RouteFinder}: prva vožnja kreće bez
+     * čekanja, a svaki naredni polazak se čeka po dnevnom voznom redu. Grana se odbacuje
+     * kada ni uz najmanju preostalu primarnu vrijednost do odredišta (vožnje bez
+     * čekanja) ne može ući među najboljih N ili preći zadatu granicu.
+     *
+     * @param timetable Kompajlirani vozni red.
+     * @param start Početni grad.
+     * @param end Odredišni grad.
+     * @param criterion Kriterijum optimizacije.
+     * @param limit Broj ključeva.
+     * @param bound Ključ od kojeg veći nizovi sigurno nisu među najboljih N.
+     * @return Najmanjih N ključeva, rastuće.
+     */
+    static List<Long> bruteForceTopKeys(CompiledTimetable timetable, City start, City end,
+                                        OptimizationCriterion criterion, int limit, long bound) {
+        boolean[] isEnd = timetable.cityMask(end);
+        long[] remaining = remainingPrimaryBound(timetable, isEnd, criterion);
+        PriorityQueue<Long> best = new PriorityQueue<>((a, b) -> Long.compare(b, a));
+        Walk walk = new Walk(timetable, isEnd, remaining, criterion, limit, bound, best);
+        for (int station : timetable.stationsInCity(start)) {
+            for (int d = timetable.firstDeparture(station); d < timetable.endDeparture(station); d++) {
+                int departureMinute = timetable.departureMinute(d);
+                walk.extend(d, departureMinute, departureMinute, 0, 0);
+            }
+        }
+        List<Long> keys = new ArrayList<>(best);
+        keys.sort(null);
+        return keys;
+    }
+
+    /**
+     * Računa najraniji dolazak u odredišni grad za polazak iz početnog grada u zadatoj
+     * minuti, ponavljanjem relaksacije svih polazaka dok se dolasci mijenjaju. Na
+     * svaki polazak se čeka po dnevnom voznom redu, i na prvi.
+     *
+     * @param timetable Kompajlirani vozni red.
+     * @param start Početni grad.
+     * @param end Odredišni grad.
+     * @param startMinute Najraniji polazak (apsolutna minuta).
+     * @return Najraniji dolazak (apsolutna minuta), ili {@link Integer#MAX_VALUE} ako odredište nije dostižno.
+     */
+    static int bruteForceEarliestArrival(CompiledTimetable timetable, City start, City end, int startMinute) {
+        boolean[] isStart = timetable.cityMask(start);
+        int[] arrival = new int[timetable.stationCount()];
+        for (int s = 0; s < arrival.length; s++) {
+            arrival[s] = isStart[s] ? startMinute : Integer.MAX_VALUE;
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int d = 0; d < timetable.departureCount(); d++) {
+                int from = timetable.departureFrom(d);
+                if (arrival[from] == Integer.MAX_VALUE) continue;
+                int departureMinute = arrival[from] + Math.floorMod(timetable.departureMinute(d) - arrival[from],
+                        CompiledTimetable.MINUTES_PER_DAY);
+                int to = timetable.departureTo(d);
+                if (departureMinute + timetable.rideMinutes(d) < arrival[to]) {
+                    arrival[to] = departureMinute + timetable.rideMinutes(d);
+                    changed = true;
+                }
+            }
+        }
+        boolean[] isEnd = timetable.cityMask(end);
+        int best = Integer.MAX_VALUE;
+        for (int s = 0; s < arrival.length; s++) {
+            if (isEnd[s]) {
+                best = Math.min(best, arrival[s]);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Računa najkasniji polazak iz početnog grada kojim se stiže u odredišni grad do
+     * zadate minute, relaksacijom svih polazaka unazad dok se polasci mijenjaju.
+     *
+     * @param timetable Kompajlirani vozni red.
+     * @param start Početni grad.
+     * @param end Odredišni grad.
+     * @param endMinute Najkasniji dolazak (apsolutna minuta).
+     * @return Najkasniji polazak (apsolutna minuta), ili {@link Integer#MIN_VALUE} ako odredište nije dostižno.
+     */
+    static int bruteForceLatestDeparture(CompiledTimetable timetable, City start, City end, int endMinute) {
+        boolean[] isEnd = timetable.cityMask(end);
+        int[] departure = new int[timetable.stationCount()];
+        for (int s = 0; s < departure.length; s++) {
+            departure[s] = isEnd[s] ? endMinute : Integer.MIN_VALUE;
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int d = 0; d < timetable.departureCount(); d++) {
+                int to = timetable.departureTo(d);
+                if (departure[to] == Integer.MIN_VALUE) continue;
+                int latestStart = departure[to] - timetable.rideMinutes(d);
+                int departureMinute = latestStart - Math.floorMod(latestStart - timetable.departureMinute(d),
+                        CompiledTimetable.MINUTES_PER_DAY);
+                int from = timetable.departureFrom(d);
+                if (departureMinute > departure[from]) {
+                    departure[from] = departureMinute;
+                    changed = true;
+                }
+            }
+        }
+        boolean[] isStart = timetable.cityMask(start);
+        int best = Integer.MIN_VALUE;
+        for (int s = 0; s < departure.length; s++) {
+            if (isStart[s]) {
+                best = Math.max(best, departure[s]);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Računa za svaku stanicu najmanju primarnu vrijednost preostalog puta do odredišta
+     * (zbir trajanja vožnji, cijena ili broj vožnji), bez čekanja.
+     */
+    private static long[] remainingPrimaryBound(CompiledTimetable timetable, boolean[] isEnd,
+                                                OptimizationCriterion criterion) {
+        long[] remaining = new long[timetable.stationCount()];
+        for (int s = 0; s < remaining.length; s++) {
+            remaining[s] = isEnd[s] ? 0 : Long.MAX_VALUE;
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int d = 0; d < timetable.departureCount(); d++) {
+                long next = remaining[timetable.departureTo(d)];
+                if (next == Long.MAX_VALUE) continue;
+                long value = next + switch (criterion) {
+                    case TIME -> timetable.rideMinutes(d);
+                    case PRICE -> timetable.priceCents(d);
+                    default -> 1;
+                };
+                int from = timetable.departureFrom(d);
+                if (value < remaining[from]) {
+                    remaining[from] = value;
+                    changed = true;
+                }
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Rekurzivno nabrajanje nizova polazaka sa najboljih N ključeva do odredišta.
+     */
+    private static final class Walk {
+        private final CompiledTimetable timetable;
+        private final boolean[] isEnd;
+        private final long[] remaining;
+        private final OptimizationCriterion criterion;
+        private final int limit;
+        private final long bound;
+        private final PriorityQueue<Long> best;
+
+        Walk(CompiledTimetable timetable, boolean[] isEnd, long[] remaining, OptimizationCriterion criterion,
+             int limit, long bound, PriorityQueue<Long> best) {
+            this.timetable = timetable;
+            this.isEnd = isEnd;
+            this.remaining = remaining;
+            this.criterion = criterion;
+            this.limit = limit;
+            this.bound = bound;
+            this.best = best;
+        }
+
+        /**
+         * Dodaje polazak nizu i nastavlja sve nizove koji mogu ući među najboljih N.
+         */
+        void extend(int departure, int firstMinute, int departureMinute, long cents, int rides) {
+            int station = timetable.departureTo(departure);
+            if (remaining[station] == Long.MAX_VALUE) {
+                return;
+            }
+            int arrivalMinute = departureMinute + timetable.rideMinutes(departure);
+            long walkCents = cents + timetable.priceCents(departure);
+            long key = criterion.packKey(arrivalMinute - firstMinute, walkCents, rides);
+            long primary = criterion.primaryOf(key) + remaining[station];
+            if (primary > criterion.primaryOf(bound)
+                    || (best.size() == limit && primary > criterion.primaryOf(best.peek()))) {
+                return;
+            }
+            if (isEnd[station] && key <= bound && (best.size() < limit || key < best.peek())) {
+                best.add(key);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            for (int d = timetable.firstDeparture(station); d < timetable.endDeparture(station); d++) {
+                int waitingMinutes = Math.floorMod(timetable.departureMinute(d) - arrivalMinute,
+                        CompiledTimetable.MINUTES_PER_DAY);
+                extend(d, firstMinute, arrivalMinute + waitingMinutes, walkCents, rides + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.model.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za {@link SearchTreeRouteFinder}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class SearchTreeRouteFinderTest {
+
+    @Test
+    void returnsSameKeysAsRouteFinder() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        RouteFinder routeFinder = new RouteFinder(timetable);
+        SearchTreeRouteFinder treeFinder = new SearchTreeRouteFinder(timetable);
+        City start = map.getCity(0, 0);
+        for (String criterion : RouteTestSupport.CRITERIA) {
+            for (City[] row : map.getCities()) {
+                for (City end : row) {
+                    if (end == start) continue;
+                    assertEquals(
+                            RouteTestSupport.keys(routeFinder.findTopNRoutes(start, end, criterion, RouteTestSupport.LIMIT), criterion),
+                            RouteTestSupport.keys(treeFinder.findTopNRoutes(start, end, criterion, RouteTestSupport.LIMIT), criterion),
+                            criterion + " " + start.getId() + " -> " + end.getId());
+                }
+            }
+        }
+        assertEquals(RouteTestSupport.CRITERIA.length, treeFinder.getCachedTreeCount());
+    }
+
+    @Test
+    void incompleteTreeIsNotCachedAndFallbackUsesRemainingBudget() {
+        TransportMap map = RouteTestSupport.createMap();
+        CompiledTimetable timetable = new CompiledTimetable(map);
+        SearchTreeRouteFinder treeFinder = new SearchTreeRouteFinder(timetable);
+        City start = map.getCity(0, 0);
+        City end = map.getCity(RouteTestSupport.MAP_SIZE - 1, RouteTestSupport.MAP_SIZE - 1);
+        SearchBudget budget = SearchBudget.ofLabels(200);
+
+        RouteSearchResult result = treeFinder.findTopNRoutes(start, end, "time", RouteTestSupport.LIMIT, budget);
+
+        assertEquals(0, treeFinder.getCachedTreeCount());
+        assertTrue(result.getStatistics().getPolledLabels() <= budget.getLabelLimit(),
+                "obrađeno oznaka: " + result.getStatistics().getPolledLabels());
+    }
+}
@@ -0,0 +1,80 @@
+package project.pj25.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za {@link SearchWorkspace}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class SearchWorkspaceTest {
+
+    @Test
+    void newSearchForgetsPreviousSearch() {
+        SearchWorkspace workspace = new SearchWorkspace(4);
+        workspace.begin();
+        workspace.markEndStations(new int[]{2});
+        workspace.incrementSettledCount(1, 600);
+        workspace.incrementSettledCount(1, 600);
+        workspace.incrementSettledCount(1, -1);
+        workspace.settledAt(3).add(null);
+        assertEquals(2, workspace.settledCount(1, 600));
+        assertEquals(1, workspace.settledCount(1, -1));
+        assertEquals(0, workspace.settledCount(1, 601));
+        assertTrue(workspace.isEndStation(2));
+
+        workspace.begin();
+        assertEquals(0, workspace.settledCount(1, 600));
+        assertFalse(workspace.isEndStation(2));
+        assertNull(workspace.settledAtOrNull(3));
+        assertTrue(workspace.settledAt(3).isEmpty());
+    }
+
+    @Test
+    void hashTableGrowthKeepsCounts() {
+        int stationCount = 50;
+        SearchWorkspace workspace = new SearchWorkspace(stationCount);
+        workspace.begin();
+        // 50 * 100 čvorova je više od početnih 1024 slota, pa se tabela više puta udvostručuje
+        for (int station = 0; station < stationCount; station++) {
+            for (int minute = 0; minute < 100; minute++) {
+                for (int i = 0; i <= (station + minute) % 3; i++) {
+                    workspace.incrementSettledCount(station, minute * 7);
+                }
+            }
+        }
+        for (int station = 0; station < stationCount; station++) {
+            for (int minute = 0; minute < 100; minute++) {
+                assertEquals((station + minute) % 3 + 1, workspace.settledCount(station, minute * 7));
+            }
+            assertEquals(0, workspace.settledCount(station, 1));
+        }
+    }
+
+    @Test
+    void epochWrapClearsStaleEntries() {
+        SearchWorkspace workspace = new SearchWorkspace(4, Integer.MAX_VALUE - 1);
+        workspace.begin();
+        workspace.markEndStations(new int[]{0});
+        workspace.incrementSettledCount(2, 30);
+        workspace.settledAt(1).add(null);
+        assertEquals(1, workspace.settledCount(2, 30));
+
+        // Epoha je Integer.MAX_VALUE, pa se nizovi brišu i epoha kreće od 1
+        workspace.begin();
+        assertFalse(workspace.isEndStation(0));
+        assertEquals(0, workspace.settledCount(2, 30));
+        assertNull(workspace.settledAtOrNull(1));
+
+        workspace.incrementSettledCount(2, 30);
+        assertEquals(1, workspace.settledCount(2, 30));
+        workspace.begin();
+        assertEquals(0, workspace.settledCount(2, 30));
+    }
+}
@@ -0,0 +1,55 @@
+package project.pj25.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za dane saobraćanja u {@link Departure}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class DepartureTest {
+
+    @Test
+    void runsOnFollowsServiceDayMask() {
+        Departure workdays = departure(0x1F);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            assertEquals(day.getValue() <= 5, workdays.runsOn(day), day.toString());
+        }
+
+        Departure wednesday = departure(1 << (DayOfWeek.WEDNESDAY.getValue() - 1));
+        for (DayOfWeek day : DayOfWeek.values()) {
+            assertEquals(day == DayOfWeek.WEDNESDAY, wednesday.runsOn(day), day.toString());
+        }
+    }
+
+    @Test
+    void defaultDepartureRunsEveryDay() {
+        Departure daily = new Departure("voz", "Z_0_0", "Z_0_1", LocalTime.of(8, 0), LocalTime.of(9, 0),
+                10.0, Duration.ofMinutes(5));
+        assertEquals(Departure.ALL_DAYS, daily.getServiceDays());
+        for (DayOfWeek day : DayOfWeek.values()) {
+            assertTrue(daily.runsOn(day), day.toString());
+        }
+    }
+
+    @Test
+    void rejectsMaskOutsideWeek() {
+        assertThrows(IllegalArgumentException.class, () -> departure(0x80));
+        assertThrows(IllegalArgumentException.class, () -> departure(-1));
+        assertEquals(0, departure(0).getServiceDays());
+    }
+
+    private static Departure departure(int serviceDays) {
+        return new Departure("autobus", "A_0_0", "A_0_1", LocalTime.of(8, 0), LocalTime.of(9, 0),
+                10.0, Duration.ofMinutes(5), serviceDays);
+    }
+}
@@ -0,0 +1,110 @@
+package project.pj25.model;
+
+import org.junit.jupiter.api.Test;
+import project.pj25.data.TransportDataGenerator;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testovi za indekse stanica i susjednih gradova u {@link TransportMap}.
+ *
+ * @author bratsale
+ * @version 1.0
+ */
+class TransportMapTest {
+
+    private static final int MAP_SIZE = 6;
+
+    @Test
+    void indexesMatchLinearScan() {
+        TransportMap map = new TransportDataGenerator(MAP_SIZE, MAP_SIZE, 42).generateData();
+
+        for (int c = 0; c < MAP_SIZE * MAP_SIZE; c++) {
+            City city = map.cityAt(c);
+            assertEquals(c, map.cityIndexOf(city));
+
+            List<Station> expectedStations = new ArrayList<>();
+            for (Station station : map.getAllStations().values()) {
+                if (station.getCity() == city) {
+                    expectedStations.add(station);
+                }
+            }
+            expectedStations.sort(Comparator.comparing(Station::getId));
+            List<Station> stations = map.getStationsInCity(city);
+            assertEquals(expectedStations, stations);
+            assertThrows(UnsupportedOperationException.class, () -> stations.add(null));
+
+            TreeSet<Integer> expectedNeighbours = new TreeSet<>();
+            boolean[][] expectedModes = new boolean[MAP_SIZE * MAP_SIZE][StationType.values().length];
+            for (Station station : expectedStations) {
+                assertSame(city, map.getCityOfStation(station.getId()));
+                for (Departure departure : station.getDepartures()) {
+                    int target = map.cityIndexOf(map.getStation(departure.getArrivalStationId()).getCity());
+                    if (target == c) continue;
+                    expectedNeighbours.add(target);
+                    StationType type = "voz".equalsIgnoreCase(departure.getType()) ? StationType.VOZ : StationType.AUTOBUS;
+                    expectedModes[target][type.ordinal()] = true;
+                }
+            }
+            List<City> expectedCities = new ArrayList<>();
+            for (int neighbour : expectedNeighbours) {
+                expectedCities.add(map.cityAt(neighbour));
+            }
+            assertEquals(expectedCities, map.getNeighbourCities(city), "susjedi grada " + c);
+
+            for (int target = 0; target < MAP_SIZE * MAP_SIZE; target++) {
+                for (StationType type : StationType.values()) {
+                    assertEquals(expectedModes[target][type.ordinal()],
+                            map.hasConnection(city, map.cityAt(target), type),
+                            c + " -> " + target + " " + type);
+                }
+            }
+        }
+        assertNull(map.getCityOfStation("X_99"));
+        assertNull(map.cityAt(MAP_SIZE * MAP_SIZE));
+        assertEquals(-1, map.cityIndexOf(new City(99, MAP_SIZE, 0)));
+    }
+
+    @Test
+    void addedStationIsIndexedAfterInvalidation() {
+        TransportMap map = new TransportMap(1, 2);
+        City first = new City(0, 0, 0);
+        City second = new City(1, 0, 1);
+        map.addCity(0, 0, first);
+        map.addCity(0, 1, second);
+        BusStation busStation = new BusStation("A_0", first);
+        map.addStation(busStation);
+        map.buildIndexes();
+        assertEquals(List.of(busStation), map.getStationsInCity(first));
+        assertTrue(map.getNeighbourCities(first).isEmpty());
+
+        long version = map.getVersion();
+        TrainStation trainStation = new TrainStation("Z_1", second);
+        map.addStation(trainStation);
+        assertTrue(map.getVersion() > version);
+
+        // Indeksi se ponovo grade pri prvom upitu
+        assertEquals(List.of(trainStation), map.getStationsInCity(second));
+        assertSame(second, map.getCityOfStation("Z_1"));
+
+        busStation.addDeparture(new Departure("voz", "A_0", "Z_1", LocalTime.of(8, 0), LocalTime.of(9, 0),
+                1.0, Duration.ZERO));
+        map.buildIndexes();
+        assertEquals(List.of(second), map.getNeighbourCities(first));
+        assertTrue(map.hasConnection(first, second, StationType.VOZ));
+        assertFalse(map.hasConnection(first, second, StationType.AUTOBUS));
+        assertFalse(map.hasConnection(second, first, StationType.VOZ));
+    }
+}